@@ -0,0 +1,94 @@
+package apex.stellar.antares;
+
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import apex.stellar.antares.service.TokenGenerationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Shared, Spring-free fixtures of the benchmarks, mirroring the production configuration (HS256,
+ * 15-minute access tokens).
+ */
+public final class BenchmarkFixtures {
+
+  /** The access token cookie name. */
+  public static final String ACCESS_TOKEN_COOKIE = "stellar_access_token";
+
+  private BenchmarkFixtures() {}
+
+  /**
+   * Builds the JWT properties.
+   *
+   * @return The production-like JWT properties.
+   */
+  public static JwtProperties jwtProperties() {
+    return new JwtProperties(
+        "YmVuY2htYXJrLXNlY3JldC1rZXktb2YtYXQtbGVhc3QtMjU2LWJpdHM=",
+        "antares-auth",
+        "sirius-app",
+        new JwtProperties.AccessToken(900000, ACCESS_TOKEN_COOKIE, 90000, null, 0),
+        new JwtProperties.RefreshToken(604800000, "stellar_refresh_token", 10000),
+        new JwtProperties.CookieProperties(true, "stellar.apex"),
+        true,
+        new JwtProperties.Signing("HS256", null, 900000, false),
+        new JwtProperties.Verify(10000, 5000));
+  }
+
+  /**
+   * Builds a persisted user.
+   *
+   * @return A user with every profile field set.
+   */
+  public static User user() {
+    return User.builder()
+        .id(42L)
+        .firstName("John")
+        .lastName("Doe")
+        .email("john.doe@example.com")
+        .password("{bcrypt}$2a$12$abcdefghijklmnopqrstuuJ8c8f0cQ1f0o8cJb4Yb5n1l3Yk3n8a2")
+        .role(Role.ROLE_USER)
+        .locale("fr")
+        .theme("dark")
+        .createdAt(LocalDateTime.now())
+        .updatedAt(LocalDateTime.now())
+        .build();
+  }
+
+  /**
+   * Builds a throwaway meter registry, for the components timing their stages.
+   *
+   * @return An empty in-memory registry.
+   */
+  public static MeterRegistry meterRegistry() {
+    return new SimpleMeterRegistry();
+  }
+
+  /**
+   * Builds the token expiry policy.
+   *
+   * @param jwtProperties The JWT properties.
+   * @return The policy, with its metrics in a throwaway registry.
+   */
+  public static AccessTokenExpiryPolicy accessTokenExpiryPolicy(JwtProperties jwtProperties) {
+    return new AccessTokenExpiryPolicy(jwtProperties, meterRegistry());
+  }
+
+  /**
+   * Builds a token generation service that never reaches Redis (no user ever revoked).
+   *
+   * @return The in-memory token generation service.
+   */
+  public static TokenGenerationService tokenGenerationService() {
+    return new TokenGenerationService(new StringRedisTemplate(), jwtProperties()) {
+      @Override
+      public long generationForIssuance(Long userId) {
+        return currentGeneration(userId);
+      }
+    };
+  }
+}
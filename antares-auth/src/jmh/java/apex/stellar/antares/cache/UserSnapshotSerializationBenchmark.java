@@ -0,0 +1,54 @@
+package apex.stellar.antares.cache;
+
+import apex.stellar.antares.BenchmarkFixtures;
+import apex.stellar.antares.model.UserSnapshot;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * Benchmarks of the decoding of a "users" cache entry read from Redis: the compact snapshot format
+ * against the JDK serialization of the entity it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSnapshotSerializationBenchmark {
+
+  private final UserSnapshotRedisSerializer snapshotSerializer = new UserSnapshotRedisSerializer();
+  private final JdkSerializationRedisSerializer jdkSerializer =
+      new JdkSerializationRedisSerializer();
+  private byte[] snapshotBytes;
+  private byte[] jdkBytes;
+
+  /** Encodes the same user in both formats. */
+  @Setup
+  public void setUp() {
+    snapshotBytes = snapshotSerializer.serialize(UserSnapshot.from(BenchmarkFixtures.user()));
+    jdkBytes = jdkSerializer.serialize(BenchmarkFixtures.user());
+  }
+
+  /** Decodes a snapshot entry. */
+  @Benchmark
+  public UserSnapshot decodeSnapshot() {
+    return snapshotSerializer.deserialize(snapshotBytes);
+  }
+
+  /** Decodes a JDK-serialized entity entry (the former format). */
+  @Benchmark
+  public Object decodeJdkEntity() {
+    return jdkSerializer.deserialize(jdkBytes);
+  }
+}
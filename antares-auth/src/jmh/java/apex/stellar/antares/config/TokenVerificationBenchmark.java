@@ -0,0 +1,101 @@
+package apex.stellar.antares.config;
+
+import apex.stellar.antares.BenchmarkFixtures;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import apex.stellar.antares.service.JwtService;
+import apex.stellar.antares.service.TokenGenerationService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import jakarta.servlet.http.Cookie;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+
+/**
+ * Benchmarks of the work done for every authenticated request: resolving the token from the
+ * request, then decoding and validating it (signature, expiry, issuer, audience, revocation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+  private JwtDecoder jwtDecoder;
+  private BearerTokenResolver bearerTokenResolver;
+  private String token;
+  private MockHttpServletRequest cookieRequest;
+  private MockHttpServletRequest headerRequest;
+
+  /** Builds the decoder and resolver as configured in production, and issues a token. */
+  @Setup
+  public void setUp() {
+    JwtProperties jwtProperties = BenchmarkFixtures.jwtProperties();
+    JwtSigningKeys jwtSigningKeys = new JwtSigningKeys(jwtProperties);
+    TokenGenerationService tokenGenerationService = BenchmarkFixtures.tokenGenerationService();
+    AccessTokenExpiryPolicy accessTokenExpiryPolicy =
+        BenchmarkFixtures.accessTokenExpiryPolicy(jwtProperties);
+    SecurityConfig securityConfig =
+        new SecurityConfig(
+            jwtProperties,
+            jwtSigningKeys,
+            null,
+            tokenGenerationService,
+            accessTokenExpiryPolicy,
+            BenchmarkFixtures.meterRegistry());
+    jwtDecoder = securityConfig.jwtDecoder();
+    bearerTokenResolver = securityConfig.bearerTokenResolver();
+
+    token =
+        new JwtService(
+                jwtProperties,
+                new NimbusJwtEncoder(
+                    new ImmutableSecret<>(
+                        jwtProperties.secretKey().getBytes(StandardCharsets.UTF_8))),
+                jwtSigningKeys,
+                tokenGenerationService,
+                accessTokenExpiryPolicy,
+                BenchmarkFixtures.meterRegistry())
+            .generateToken(BenchmarkFixtures.user());
+
+    cookieRequest = new MockHttpServletRequest("GET", "/antares/users/me");
+    cookieRequest.setCookies(
+        new Cookie("theme", "dark"), new Cookie(BenchmarkFixtures.ACCESS_TOKEN_COOKIE, token));
+    headerRequest = new MockHttpServletRequest("GET", "/antares/users/me");
+    headerRequest.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+  }
+
+  /** Verifies the signature and runs every validator. */
+  @Benchmark
+  public Jwt decodeAndValidate() {
+    return jwtDecoder.decode(token);
+  }
+
+  /** Resolves the token from the access token cookie. */
+  @Benchmark
+  public String resolveFromCookie() {
+    return bearerTokenResolver.resolve(cookieRequest);
+  }
+
+  /** Resolves the token from the Authorization header (API clients). */
+  @Benchmark
+  public String resolveFromHeader() {
+    return bearerTokenResolver.resolve(headerRequest);
+  }
+}
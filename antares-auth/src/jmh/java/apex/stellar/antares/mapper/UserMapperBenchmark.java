@@ -0,0 +1,52 @@
+package apex.stellar.antares.mapper;
+
+import apex.stellar.antares.BenchmarkFixtures;
+import apex.stellar.antares.dto.UserResponse;
+import apex.stellar.antares.model.User;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Benchmarks of the per-request work on the user itself: rendering the profile and listing the
+ * authorities (done on every authentication).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+  private final UserMapper userMapper = new UserMapperImpl();
+  private User user;
+
+  /** Builds a fully populated user. */
+  @Setup
+  public void setUp() {
+    user = BenchmarkFixtures.user();
+  }
+
+  /** Maps the user to its public representation ({@code GET /users/me}). */
+  @Benchmark
+  public UserResponse toUserResponse() {
+    return userMapper.toUserResponse(user);
+  }
+
+  /** Lists the authorities of the user. */
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return user.getAuthorities();
+  }
+}
@@ -0,0 +1,79 @@
+package apex.stellar.antares.service;
+
+import apex.stellar.antares.BenchmarkFixtures;
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.JwtSigningKeys;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.TokenHashes;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Benchmarks of the work done for every token pair issued (login, refresh): signing the access
+ * token, hashing the refresh token and writing the cookies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenIssuanceBenchmark {
+
+  private JwtService jwtService;
+  private CookieService cookieService;
+  private User user;
+  private String refreshToken;
+
+  /** Wires the services as in production, without Spring. */
+  @Setup
+  public void setUp() {
+    JwtProperties jwtProperties = BenchmarkFixtures.jwtProperties();
+    jwtService =
+        new JwtService(
+            jwtProperties,
+            new NimbusJwtEncoder(
+                new ImmutableSecret<>(jwtProperties.secretKey().getBytes(StandardCharsets.UTF_8))),
+            new JwtSigningKeys(jwtProperties),
+            BenchmarkFixtures.tokenGenerationService(),
+            BenchmarkFixtures.accessTokenExpiryPolicy(jwtProperties),
+            BenchmarkFixtures.meterRegistry());
+    cookieService = new CookieService(jwtProperties);
+    user = BenchmarkFixtures.user();
+    refreshToken = UUID.randomUUID().toString();
+  }
+
+  /** Builds and signs (HS256) an access token for a persisted user. */
+  @Benchmark
+  public String generateToken() {
+    return jwtService.generateToken(user);
+  }
+
+  /** Hashes a refresh token, as done on every issue and rotation. */
+  @Benchmark
+  public String hashRefreshToken() {
+    return TokenHashes.sha256(refreshToken);
+  }
+
+  /** Serializes an HttpOnly cookie into a response header. */
+  @Benchmark
+  public MockHttpServletResponse addCookie() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    cookieService.addCookie(BenchmarkFixtures.ACCESS_TOKEN_COOKIE, refreshToken, 900000, response);
+    return response;
+  }
+}
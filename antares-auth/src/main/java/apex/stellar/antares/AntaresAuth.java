@@ -1,9 +1,12 @@
 package apex.stellar.antares;
 
 import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.VirtualThreadPinningMonitor;
+import apex.stellar.antares.security.LoginRateLimiter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the Antares API Spring Boot application.
@@ -11,7 +14,12 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
  * <p>This class bootstraps the Spring context and starts the embedded server.
  */
 @SpringBootApplication
-@EnableConfigurationProperties(JwtProperties.class)
+@EnableConfigurationProperties({
+  JwtProperties.class,
+  LoginRateLimiter.RateLimitProperties.class,
+  VirtualThreadPinningMonitor.ThreadsProperties.class
+})
+@EnableScheduling
 public class AntaresAuth {
 
   /**
@@ -0,0 +1,537 @@
+package apex.stellar.antares.cache;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCacheWriter.TtlFunction;
+
+/**
+ * A two-tier {@link Cache}: a bounded in-process near cache (L1) in front of a shared Redis cache
+ * (L2).
+ *
+ * <p>Reads are served from the L1 tier first and only fall back to Redis on a local miss, in which
+ * case the L1 tier is populated with the result. Writes and evictions are applied to both tiers and
+ * broadcast through an {@link InvalidationPublisher}, so that the other nodes drop their (now
+ * stale) local copy.
+ *
+ * <p>L1 keys are the {@link String} representation of the cache key, which is also the key format
+ * used by Redis and by the invalidation messages.
+ *
+ * <p>When a {@link RefreshAhead} policy and a refresh loader (see {@link #setRefreshLoader}) are
+ * set, entries loaded through {@link #get(Object, Callable)} are refreshed in the background before
+ * their Redis TTL lapses, using probabilistic early expiration (XFetch): on each local hit, the
+ * entry is reloaded if {@code now - delta * beta * ln(random)} reaches its expiry, {@code delta}
+ * being the time its last load took. Hot entries are thus almost surely refreshed ahead of time,
+ * while cold ones simply expire. Only the node which loaded an entry knows its expiry, and thus
+ * refreshes it. Refreshes go through the refresh loader, registered for the cache by its owner: the
+ * loader given to {@link #get(Object, Callable)} belongs to its caller's invocation (e.g., the
+ * cache interceptor's), and is never called again once it returns.
+ *
+ * <p>Loads are single-flight: concurrent callers for the same key on this node share one in-flight
+ * load (a {@link CompletableFuture}), which runs on the calling thread outside of any lock and of
+ * any L1 computation, so that a slow Redis lookup or database query never blocks the lookups of
+ * other keys. A write ({@link #put}, {@link #evict}) may thus land while a load is running. Keys
+ * are spread over lock stripes, each with a write version bumped by every write and invalidation: a
+ * load only writes its result to Redis, then to the L1 tier, if the version of its stripe did not
+ * move since it started (checked and written under the stripe lock, which writes hold while
+ * updating Redis), so that a stale value never overwrites a fresher one written through meanwhile.
+ * A refreshed value is broadcast like any other write.
+ */
+public class TwoTierCache implements Cache {
+
+  private static final int WRITE_STRIPES = 64;
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+  private final Cache remote;
+  private final InvalidationPublisher invalidationPublisher;
+
+  private final Timer localHits;
+  private final Timer localMisses;
+  private final Timer remoteHits;
+  private final Timer remoteMisses;
+
+  private final @Nullable RefreshAhead refreshAhead;
+  private volatile @Nullable Function<Object, ?> refreshLoader;
+  private final com.github.benmanes.caffeine.cache.@Nullable Cache<String, Freshness> freshness;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  private final Counter refreshes;
+  private final Counter failedRefreshes;
+
+  private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_STRIPES];
+  private final AtomicLongArray writeVersions = new AtomicLongArray(WRITE_STRIPES);
+  private final Map<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new two-tier cache, without refresh-ahead.
+   *
+   * @param local The bounded in-process tier (L1).
+   * @param remote The shared Redis tier (L2).
+   * @param invalidationPublisher Broadcasts local invalidations to the other nodes.
+   * @param meterRegistry The registry used to expose per-tier latency and hit/miss counts.
+   */
+  public TwoTierCache(
+      com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+      Cache remote,
+      InvalidationPublisher invalidationPublisher,
+      MeterRegistry meterRegistry) {
+    this(local, remote, invalidationPublisher, meterRegistry, null);
+  }
+
+  /**
+   * Creates a new two-tier cache.
+   *
+   * @param local The bounded in-process tier (L1).
+   * @param remote The shared Redis tier (L2).
+   * @param invalidationPublisher Broadcasts local invalidations to the other nodes.
+   * @param meterRegistry The registry used to expose per-tier latency and hit/miss counts.
+   * @param refreshAhead The refresh-ahead policy, or {@code null} to let entries expire.
+   */
+  public TwoTierCache(
+      com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+      Cache remote,
+      InvalidationPublisher invalidationPublisher,
+      MeterRegistry meterRegistry,
+      @Nullable RefreshAhead refreshAhead) {
+    this.name = remote.getName();
+    this.local = local;
+    this.remote = remote;
+    this.invalidationPublisher = invalidationPublisher;
+    this.localHits = lookupTimer(meterRegistry, "l1", "hit");
+    this.localMisses = lookupTimer(meterRegistry, "l1", "miss");
+    this.remoteHits = lookupTimer(meterRegistry, "l2", "hit");
+    this.remoteMisses = lookupTimer(meterRegistry, "l2", "miss");
+    this.refreshAhead = refreshAhead;
+    this.freshness =
+        refreshAhead != null
+            ? Caffeine.newBuilder().maximumSize(refreshAhead.maxEntries()).build()
+            : null;
+    this.refreshes = refreshCounter(meterRegistry, "success");
+    this.failedRefreshes = refreshCounter(meterRegistry, "failure");
+    for (int i = 0; i < WRITE_STRIPES; i++) {
+      writeLocks[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Sets the loader reading the current value of a key from the source of truth, for the background
+   * refreshes. Without one, entries simply expire.
+   *
+   * @param refreshLoader The loader, returning {@code null} if the key no longer has a value.
+   */
+  public void setRefreshLoader(Function<Object, ?> refreshLoader) {
+    this.refreshLoader = refreshLoader;
+  }
+
+  @Override
+  @NonNull
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  @NonNull
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  public @Nullable ValueWrapper get(@NonNull Object key) {
+    String localKey = key.toString();
+
+    Object value = getLocal(localKey);
+    if (value != null) {
+      return new SimpleValueWrapper(value);
+    }
+
+    long version = writeVersions.get(stripe(localKey));
+    ValueWrapper wrapper = getRemote(key);
+    if (wrapper != null && wrapper.get() != null) {
+      putLocalIfUnchanged(localKey, version, wrapper.get());
+    }
+    return wrapper;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> @Nullable T get(@NonNull Object key, @Nullable Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  /**
+   * Returns the value for the key, loading it on a miss in both tiers.
+   *
+   * <p>Concurrent callers for the same key on this node wait for a single Redis lookup (and, on a
+   * Redis miss, a single load), run by the first of them. A local hit may trigger a background
+   * refresh of the entry (see {@link RefreshAhead}).
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> @Nullable T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+    String localKey = key.toString();
+
+    Object value = getLocal(localKey);
+    if (value != null) {
+      refreshIfDue(key, localKey);
+      return (T) value;
+    }
+
+    CompletableFuture<Object> load = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = loads.putIfAbsent(localKey, load);
+    if (inFlight != null) {
+      return (T) await(inFlight);
+    }
+    try {
+      // The previous load of the key may have completed since the local miss
+      value = local.getIfPresent(localKey);
+      if (value == null) {
+        value = getRemoteOrLoad(key, valueLoader);
+      }
+      load.complete(value);
+      return (T) value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(localKey, load);
+    }
+  }
+
+  @Override
+  public void put(@NonNull Object key, @Nullable Object value) {
+    String localKey = key.toString();
+    ReentrantLock lock = writeLock(localKey);
+    lock.lock();
+    try {
+      writeVersions.incrementAndGet(stripe(localKey));
+      remote.put(key, value);
+    } finally {
+      lock.unlock();
+    }
+    if (value != null) {
+      local.put(localKey, value);
+    } else {
+      local.invalidate(localKey);
+    }
+    invalidationPublisher.publish(name, localKey);
+  }
+
+  @Override
+  public void evict(@NonNull Object key) {
+    String localKey = key.toString();
+    ReentrantLock lock = writeLock(localKey);
+    lock.lock();
+    try {
+      writeVersions.incrementAndGet(stripe(localKey));
+      remote.evict(key);
+    } finally {
+      lock.unlock();
+    }
+    local.invalidate(localKey);
+    forgetFreshness(localKey);
+    invalidationPublisher.publish(name, localKey);
+  }
+
+  @Override
+  public void clear() {
+    bumpAllVersions();
+    remote.clear();
+    local.invalidateAll();
+    forgetFreshness(null);
+    invalidationPublisher.publish(name, null);
+  }
+
+  /**
+   * Drops a single entry from the L1 tier only, following an invalidation from another node.
+   *
+   * @param key The string representation of the cache key.
+   */
+  public void evictLocal(String key) {
+    writeVersions.incrementAndGet(stripe(key));
+    local.invalidate(key);
+    forgetFreshness(key);
+  }
+
+  /** Drops every entry from the L1 tier only, following a clear on another node. */
+  public void clearLocal() {
+    bumpAllVersions();
+    local.invalidateAll();
+    forgetFreshness(null);
+  }
+
+  private @Nullable Object getLocal(String localKey) {
+    long start = System.nanoTime();
+    Object value = local.getIfPresent(localKey);
+    (value != null ? localHits : localMisses).record(System.nanoTime() - start, NANOSECONDS);
+    return value;
+  }
+
+  private @Nullable ValueWrapper getRemote(Object key) {
+    long start = System.nanoTime();
+    ValueWrapper wrapper = remote.get(key);
+    (wrapper != null ? remoteHits : remoteMisses).record(System.nanoTime() - start, NANOSECONDS);
+    return wrapper;
+  }
+
+  private @Nullable Object getRemoteOrLoad(Object key, Callable<?> valueLoader) {
+    String localKey = key.toString();
+    long version = writeVersions.get(stripe(localKey));
+    ValueWrapper wrapper = getRemote(key);
+    if (wrapper != null) {
+      if (wrapper.get() != null) {
+        putLocalIfUnchanged(localKey, version, wrapper.get());
+      }
+      return wrapper.get();
+    }
+
+    long start = System.nanoTime();
+    Object loaded;
+    try {
+      loaded = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+
+    // A freshly loaded value cannot be stale on other nodes: no invalidation is broadcast. A write
+    // landing meanwhile wins: the value is then returned to the callers, but not cached.
+    if (loaded != null
+        && putRemoteIfUnchanged(key, localKey, version, loaded)
+        && putLocalIfUnchanged(localKey, version, loaded)) {
+      recordFreshness(key, loaded, start);
+    }
+    return loaded;
+  }
+
+  /** Waits for the in-flight load of a key, rethrowing its failure as is. */
+  private static @Nullable Object await(CompletableFuture<Object> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      throw switch (e.getCause()) {
+        case RuntimeException runtimeException -> runtimeException;
+        case Error error -> throw error;
+        case null, default -> e;
+      };
+    }
+  }
+
+  /** Schedules a background reload of the entry if its XFetch early expiration is reached. */
+  private void refreshIfDue(Object key, String localKey) {
+    Function<Object, ?> loader = refreshLoader;
+    if (refreshAhead == null || freshness == null || loader == null) {
+      return;
+    }
+    Freshness entry = freshness.getIfPresent(localKey);
+    if (entry == null) {
+      return;
+    }
+
+    // -ln(U) with U in (0, 1]: exponentially distributed, mean 1
+    double gap =
+        entry.loadNanos()
+            * refreshAhead.beta()
+            * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+    if (System.nanoTime() + gap < entry.expiresAtNanos() || !refreshing.add(localKey)) {
+      return;
+    }
+
+    try {
+      refreshAhead
+          .executor()
+          .execute(
+              () -> {
+                try {
+                  refresh(key, localKey, loader);
+                } finally {
+                  refreshing.remove(localKey);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      // Best effort: the entry will be loaded synchronously once expired
+      refreshing.remove(localKey);
+    }
+  }
+
+  private void refresh(Object key, String localKey, Function<Object, ?> loader) {
+    long version = writeVersions.get(stripe(localKey));
+    long start = System.nanoTime();
+    Object loaded;
+    try {
+      loaded = loader.apply(key);
+    } catch (RuntimeException e) {
+      failedRefreshes.increment();
+      return;
+    }
+    if (loaded == null) {
+      return;
+    }
+
+    // A write or an eviction in the meantime wins
+    if (!putRemoteIfUnchanged(key, localKey, version, loaded)) {
+      return;
+    }
+    // Only replace a present local entry; should a write slip in before, drop it rather than keep
+    // the refreshed value over the written one
+    local.asMap().replace(localKey, loaded);
+    if (writeVersions.get(stripe(localKey)) != version) {
+      local.invalidate(localKey);
+      return;
+    }
+    recordFreshness(key, loaded, start);
+    // Other nodes may hold an older copy than the refreshed value
+    invalidationPublisher.publish(name, localKey);
+    refreshes.increment();
+  }
+
+  /** Writes a loaded value to Redis, unless a write hit its stripe since {@code version}. */
+  private boolean putRemoteIfUnchanged(Object key, String localKey, long version, Object loaded) {
+    ReentrantLock lock = writeLock(localKey);
+    lock.lock();
+    try {
+      if (writeVersions.get(stripe(localKey)) != version) {
+        return false;
+      }
+      remote.put(key, loaded);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Caches a value in the L1 tier, unless a write or an invalidation hit its stripe since {@code
+   * version}. Invalidations from other nodes do not take the stripe lock: the version is checked
+   * again once the value is cached, and the entry dropped if one slipped in.
+   */
+  private boolean putLocalIfUnchanged(String localKey, long version, Object value) {
+    ReentrantLock lock = writeLock(localKey);
+    lock.lock();
+    try {
+      if (writeVersions.get(stripe(localKey)) != version) {
+        return false;
+      }
+      local.put(localKey, value);
+    } finally {
+      lock.unlock();
+    }
+    if (writeVersions.get(stripe(localKey)) != version) {
+      local.invalidate(localKey);
+      return false;
+    }
+    return true;
+  }
+
+  private static int stripe(String localKey) {
+    return Math.floorMod(localKey.hashCode(), WRITE_STRIPES);
+  }
+
+  private ReentrantLock writeLock(String localKey) {
+    return writeLocks[stripe(localKey)];
+  }
+
+  private void bumpAllVersions() {
+    for (int i = 0; i < WRITE_STRIPES; i++) {
+      writeVersions.incrementAndGet(i);
+    }
+  }
+
+  private void recordFreshness(Object key, Object value, long loadStartNanos) {
+    if (refreshAhead == null || freshness == null) {
+      return;
+    }
+    Duration ttl = refreshAhead.ttlFunction().getTimeToLive(key, value);
+    if (ttl.isZero() || ttl.isNegative()) {
+      return; // Persistent entry
+    }
+    long now = System.nanoTime();
+    freshness.put(
+        key.toString(), new Freshness(loadStartNanos + ttl.toNanos(), now - loadStartNanos));
+  }
+
+  private void forgetFreshness(@Nullable String localKey) {
+    if (freshness == null) {
+      return;
+    }
+    if (localKey != null) {
+      freshness.invalidate(localKey);
+    } else {
+      freshness.invalidateAll();
+    }
+  }
+
+  private Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("antares.cache.refresh")
+        .description("Background refreshes of entries about to expire")
+        .tag("cache", name)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private Timer lookupTimer(MeterRegistry meterRegistry, String tier, String result) {
+    return Timer.builder("antares.cache.lookup")
+        .description("Latency of cache lookups per tier")
+        .tag("cache", name)
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Refresh-ahead policy.
+   *
+   * @param ttlFunction The time-to-live of the Redis entries.
+   * @param beta The XFetch aggressiveness: above 1, entries are refreshed earlier.
+   * @param executor The executor running the background refreshes (best effort).
+   * @param maxEntries The maximum number of tracked entries.
+   */
+  public record RefreshAhead(
+      TtlFunction ttlFunction, double beta, Executor executor, long maxEntries) {}
+
+  /**
+   * Expiry of an entry loaded by this node.
+   *
+   * @param expiresAtNanos The {@link System#nanoTime()} at which the Redis entry expires.
+   * @param loadNanos The time its last load took.
+   */
+  private record Freshness(long expiresAtNanos, long loadNanos) {}
+
+  /** Broadcasts the invalidation of a local entry (or of the whole cache) to the other nodes. */
+  @FunctionalInterface
+  public interface InvalidationPublisher {
+
+    /**
+     * Publishes an invalidation.
+     *
+     * @param cacheName The name of the cache.
+     * @param key The string representation of the evicted key, or {@code null} for a full clear.
+     */
+    void publish(String cacheName, @Nullable String key);
+  }
+}
@@ -0,0 +1,203 @@
+package apex.stellar.antares.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * {@link org.springframework.cache.CacheManager} decorating every Redis cache with a bounded
+ * in-process near cache (see {@link TwoTierCache}).
+ *
+ * <p>Cross-node coherence relies on Redis Pub/Sub: every write or eviction is published on the
+ * {@link #INVALIDATION_CHANNEL} channel, and each node drops the matching L1 entry when it receives
+ * a message emitted by another node. The short L1 time-to-live bounds the staleness should a
+ * message be lost (e.g., during a Redis failover).
+ *
+ * <p>With a positive {@code refreshAheadBeta}, entries about to expire from Redis are reloaded in
+ * the background by a small dedicated pool (see {@link TwoTierCache.RefreshAhead}), for the caches
+ * whose owner registered a refresh loader (see {@link #registerRefreshLoader}).
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractCacheManager
+    implements MessageListener, DisposableBean {
+
+  /** Redis Pub/Sub channel carrying the L1 invalidation messages. */
+  public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+  private static final String SEPARATOR = "\n";
+  private static final int REFRESH_THREADS = 2;
+  private static final int REFRESH_QUEUE_CAPACITY = 1_000;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final RedisCacheManager remoteCacheManager;
+  private final StringRedisTemplate redisTemplate;
+  private final MeterRegistry meterRegistry;
+  private final Duration localTtl;
+  private final long localMaxSize;
+  private final double refreshAheadBeta;
+  private final @Nullable ThreadPoolExecutor refreshExecutor;
+  private final Map<String, Function<Object, ?>> refreshLoaders = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new two-tier cache manager.
+   *
+   * @param remoteCacheManager The Redis cache manager providing the L2 tier.
+   * @param redisTemplate The template used to publish invalidation messages.
+   * @param meterRegistry The registry used to expose the cache metrics.
+   * @param localTtl The time-to-live of the L1 entries.
+   * @param localMaxSize The maximum number of L1 entries, per cache.
+   * @param refreshAheadBeta The XFetch aggressiveness, or 0 to disable refresh-ahead.
+   */
+  public TwoTierCacheManager(
+      RedisCacheManager remoteCacheManager,
+      StringRedisTemplate redisTemplate,
+      MeterRegistry meterRegistry,
+      Duration localTtl,
+      long localMaxSize,
+      double refreshAheadBeta) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.redisTemplate = redisTemplate;
+    this.meterRegistry = meterRegistry;
+    this.localTtl = localTtl;
+    this.localMaxSize = localMaxSize;
+    this.refreshAheadBeta = refreshAheadBeta;
+    this.refreshExecutor =
+        refreshAheadBeta > 0
+            ? new ThreadPoolExecutor(
+                REFRESH_THREADS,
+                REFRESH_THREADS,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("cache-refresh-", 0).daemon().factory())
+            : null;
+    if (refreshExecutor != null) {
+      ExecutorServiceMetrics.monitor(meterRegistry, refreshExecutor, "cache-refresh");
+    }
+  }
+
+  @Override
+  @NonNull
+  protected Collection<? extends Cache> loadCaches() {
+    remoteCacheManager.initializeCaches();
+
+    return remoteCacheManager.getCacheNames().stream()
+        .map(remoteCacheManager::getCache)
+        .filter(Objects::nonNull)
+        .map(this::createTwoTierCache)
+        .toList();
+  }
+
+  @Override
+  protected @Nullable Cache getMissingCache(@NonNull String name) {
+    Cache remoteCache = remoteCacheManager.getCache(name);
+    return remoteCache != null ? createTwoTierCache(remoteCache) : null;
+  }
+
+  /**
+   * Registers the loader refreshing the entries of a cache in the background.
+   *
+   * @param cacheName The name of the cache.
+   * @param refreshLoader The loader reading the current value of a key from the source of truth,
+   *     returning {@code null} if the key no longer has a value.
+   */
+  public void registerRefreshLoader(String cacheName, Function<Object, ?> refreshLoader) {
+    refreshLoaders.put(cacheName, refreshLoader);
+    if (lookupCache(cacheName) instanceof TwoTierCache cache) {
+      cache.setRefreshLoader(refreshLoader);
+    }
+  }
+
+  /**
+   * Handles an invalidation message published by any node.
+   *
+   * <p>Messages emitted by this node are ignored, as its own L1 tier was already updated.
+   */
+  @Override
+  public void onMessage(@NonNull Message message, byte @Nullable [] pattern) {
+    String[] parts = new String(message.getBody(), UTF_8).split(SEPARATOR, 3);
+    if (parts.length != 3 || nodeId.equals(parts[0])) {
+      return;
+    }
+
+    // lookupCache() does not create missing caches: nothing to invalidate if never used here
+    if (lookupCache(parts[1]) instanceof TwoTierCache cache) {
+      if (parts[2].isEmpty()) {
+        cache.clearLocal();
+      } else {
+        cache.evictLocal(parts[2]);
+      }
+    }
+  }
+
+  /** Stops the refresh-ahead pool on shutdown. */
+  @Override
+  public void destroy() {
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+  }
+
+  private TwoTierCache createTwoTierCache(Cache remoteCache) {
+    com.github.benmanes.caffeine.cache.Cache<String, Object> local =
+        Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, local, remoteCache.getName(), "tier", "l1");
+
+    TwoTierCache.RefreshAhead refreshAhead =
+        refreshExecutor != null && remoteCache instanceof RedisCache redisCache
+            ? new TwoTierCache.RefreshAhead(
+                redisCache.getCacheConfiguration().getTtlFunction(),
+                refreshAheadBeta,
+                refreshExecutor,
+                localMaxSize)
+            : null;
+
+    TwoTierCache cache =
+        new TwoTierCache(
+            local, remoteCache, this::publishInvalidation, meterRegistry, refreshAhead);
+    Function<Object, ?> refreshLoader = refreshLoaders.get(remoteCache.getName());
+    if (refreshLoader != null) {
+      cache.setRefreshLoader(refreshLoader);
+    }
+    return cache;
+  }
+
+  private void publishInvalidation(String cacheName, @Nullable String key) {
+    String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+    try {
+      redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+    } catch (RuntimeException e) {
+      // Other nodes will converge once their L1 entry expires
+      log.warn("Failed to publish invalidation for cache '{}': {}", cacheName, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package apex.stellar.antares.cache;
+
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.UserSnapshot;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Compact, schema-versioned binary codec of the {@link UserSnapshot}s stored in the "users" cache.
+ *
+ * <p>The first byte is the format version, followed by the fields in declaration order: nullable
+ * fields are prefixed by a presence flag, strings are modified UTF-8 and timestamps are UTC epoch
+ * seconds plus nanoseconds.
+ *
+ * <p>A payload written in another format (a newer version, or the JDK serialization used before
+ * this codec) is read as {@code null}, which the cache treats as a miss: the entry is reloaded from
+ * the database and overwritten, instead of failing the request. Any change to the layout must bump
+ * {@link #VERSION}.
+ */
+@Slf4j
+public class UserSnapshotRedisSerializer implements RedisSerializer<UserSnapshot> {
+
+  /** Current format version. */
+  static final byte VERSION = 1;
+
+  @Override
+  public byte @Nullable [] serialize(@Nullable UserSnapshot snapshot) {
+    if (snapshot == null) {
+      return null;
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(160);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      writeNullableLong(out, snapshot.id());
+      writeNullableString(out, snapshot.firstName());
+      writeNullableString(out, snapshot.lastName());
+      writeNullableString(out, snapshot.email());
+      writeNullableString(out, snapshot.password());
+      writeNullableString(out, snapshot.role() == null ? null : snapshot.role().name());
+      out.writeBoolean(Boolean.TRUE.equals(snapshot.enabled()));
+      writeNullableString(out, snapshot.locale());
+      writeNullableString(out, snapshot.theme());
+      writeNullableTimestamp(out, snapshot.createdAt());
+      writeNullableTimestamp(out, snapshot.updatedAt());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public @Nullable UserSnapshot deserialize(byte @Nullable [] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != VERSION) {
+      log.debug("Ignoring cached user in unsupported format (leading byte {})", bytes[0]);
+      return null;
+    }
+
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+      return new UserSnapshot(
+          readNullableLong(in),
+          readNullableString(in),
+          readNullableString(in),
+          readNullableString(in),
+          readNullableString(in),
+          toRole(readNullableString(in)),
+          in.readBoolean(),
+          readNullableString(in),
+          readNullableString(in),
+          readNullableTimestamp(in),
+          readNullableTimestamp(in));
+    } catch (IOException | IllegalArgumentException e) {
+      log.debug("Ignoring unreadable cached user", e);
+      return null;
+    }
+  }
+
+  @Override
+  public Class<?> getTargetType() {
+    return UserSnapshot.class;
+  }
+
+  private static void writeNullableLong(DataOutputStream out, @Nullable Long value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value);
+    }
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static void writeNullableTimestamp(DataOutputStream out, @Nullable LocalDateTime value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+      out.writeInt(value.getNano());
+    }
+  }
+
+  private static @Nullable Long readNullableLong(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readLong() : null;
+  }
+
+  private static @Nullable String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static @Nullable LocalDateTime readNullableTimestamp(DataInputStream in)
+      throws IOException {
+    return in.readBoolean()
+        ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+        : null;
+  }
+
+  private static @Nullable Role toRole(@Nullable String name) {
+    // An unknown role throws an IllegalArgumentException: the entry is then ignored
+    return name == null ? null : Role.valueOf(name);
+  }
+}
@@ -0,0 +1,184 @@
+package apex.stellar.antares.concurrent;
+
+import apex.stellar.antares.security.ScopedSecurityContextHolderStrategy;
+import io.micrometer.context.ContextSnapshotFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+/**
+ * Runs the independent steps of a request concurrently, each on its own virtual thread, failing as
+ * soon as one of them fails.
+ *
+ * <p>Modeled on {@code StructuredTaskScope} with its "fail on the first failure" policy, still a
+ * preview API: subtasks are forked and joined by the owner thread, and never outlive the scope
+ * (used with try-with-resources). When a subtask fails, its siblings are cancelled (interrupted)
+ * and awaited, then the failure is rethrown by {@link #join()} as is: a business exception thrown
+ * by a subtask reaches the caller unchanged.
+ *
+ * <p>The context of the owner thread is propagated to the subtasks: the security context bound by
+ * the {@link ScopedSecurityContextHolderStrategy}, inherited as a {@code StructuredTaskScope}
+ * would, the locale of the {@link LocaleContextHolder} (localized error messages), and every
+ * Micrometer {@code ThreadLocalAccessor} (tracing). Other thread-bound state, such as the current
+ * transaction, is not: subtasks must not rely on it.
+ *
+ * <p>Not thread-safe: only the owner thread may fork and join.
+ */
+public final class FailFastTaskScope implements AutoCloseable {
+
+  private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS =
+      ContextSnapshotFactory.builder().build();
+  private static final ThreadFactory THREADS = Thread.ofVirtual().name("task-scope-", 0).factory();
+
+  private final List<Subtask<?>> subtasks = new ArrayList<>();
+  private final List<Thread> threads = new ArrayList<>();
+  private final BlockingQueue<Subtask<?>> completions = new LinkedBlockingQueue<>();
+
+  /**
+   * Starts a subtask on a new virtual thread.
+   *
+   * @param task The subtask.
+   * @param <T> The type of its result.
+   * @return The handle to its result, available once the scope is joined.
+   */
+  public <T> Subtask<T> fork(Callable<T> task) {
+    Subtask<T> subtask =
+        new Subtask<>(
+            ScopedSecurityContextHolderStrategy.inherit(
+                CONTEXT_SNAPSHOTS.captureAll().wrap(withLocaleContext(task))));
+    Thread thread = THREADS.newThread(subtask);
+    subtasks.add(subtask);
+    threads.add(thread);
+    thread.start();
+    return subtask;
+  }
+
+  /**
+   * Waits for every subtask to complete, or for the first one to fail.
+   *
+   * @throws RuntimeException the failure of the first failed subtask ({@link IllegalStateException}
+   *     wrapping it if it is a checked exception).
+   */
+  public void join() {
+    try {
+      for (int i = 0; i < subtasks.size(); i++) {
+        Subtask<?> completed = completions.take();
+        Throwable failure = completed.failure();
+        if (failure != null) {
+          cancelAndAwait();
+          throw propagate(failure);
+        }
+      }
+    } catch (InterruptedException e) {
+      cancelAndAwait();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for subtasks", e);
+    }
+  }
+
+  /** Cancels the subtasks still running, and waits for their threads to terminate. */
+  @Override
+  public void close() {
+    cancelAndAwait();
+  }
+
+  private void cancelAndAwait() {
+    subtasks.forEach(subtask -> subtask.cancel(true));
+    boolean interrupted = false;
+    for (Thread thread : threads) {
+      while (thread.isAlive()) {
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Wraps a subtask so that it runs with the locale context of the calling thread. */
+  private static <T> Callable<T> withLocaleContext(Callable<T> task) {
+    LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+    if (localeContext == null) {
+      return task;
+    }
+    return () -> {
+      LocaleContextHolder.setLocaleContext(localeContext);
+      try {
+        return task.call();
+      } finally {
+        LocaleContextHolder.resetLocaleContext();
+      }
+    };
+  }
+
+  private static RuntimeException propagate(Throwable failure) {
+    return switch (failure) {
+      case RuntimeException runtimeException -> runtimeException;
+      case Error error -> throw error;
+      default -> new IllegalStateException("Subtask failed", failure);
+    };
+  }
+
+  /**
+   * A forked subtask.
+   *
+   * @param <T> The type of its result.
+   */
+  public final class Subtask<T> extends FutureTask<T> {
+
+    private Subtask(Callable<T> task) {
+      super(task);
+    }
+
+    /**
+     * Returns the result of the subtask.
+     *
+     * @return The result.
+     * @throws IllegalStateException if the scope has not been joined successfully.
+     */
+    @Override
+    public T get() {
+      if (!isDone() || isCancelled()) {
+        throw new IllegalStateException("The subtask has not completed");
+      }
+      try {
+        return super.get();
+      } catch (InterruptedException | ExecutionException e) {
+        throw new IllegalStateException("The subtask has failed", e);
+      }
+    }
+
+    @Override
+    protected void done() {
+      completions.add(this);
+    }
+
+    private @Nullable Throwable failure() {
+      if (isCancelled()) {
+        return new CancellationException("Subtask cancelled");
+      }
+      try {
+        super.get();
+        return null;
+      } catch (ExecutionException e) {
+        return e.getCause();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return e;
+      }
+    }
+  }
+}
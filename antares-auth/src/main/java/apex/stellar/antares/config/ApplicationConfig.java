@@ -2,103 +2,89 @@ package apex.stellar.antares.config;
 
 import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.repository.RingBufferHttpExchangeRepository;
 import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.security.PreloadedUserAuthenticationProvider;
 import apex.stellar.antares.service.AuthenticationService;
+import apex.stellar.antares.service.UserSnapshotService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jspecify.annotations.NonNull;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationRunner;
-import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
-import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.context.MessageSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.servlet.actuate.web.exchanges.HttpExchangesFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Main application configuration class.
  *
  * <p>This class defines core Spring beans required for security, data access, and application
- * initialization, such as the {@link UserDetailsService}, {@link PasswordEncoder}, and the default
- * admin user initializer.
+ * initialization, such as the {@link UserDetailsService} and the default admin user initializer.
+ * The {@link PasswordEncoder} is configured in {@link PasswordHashingConfig}.
  */
 @Configuration
 @RequiredArgsConstructor
 @EnableJpaAuditing
+@EnableConfigurationProperties({
+  ApplicationConfig.HttpExchangesProperties.class,
+  org.springframework.boot.actuate.autoconfigure.web.exchanges.HttpExchangesProperties.class
+})
 @Slf4j
 public class ApplicationConfig {
 
-  private final UserRepository userRepository;
-  private final MessageSource messageSource;
+  private final UserSnapshotService userSnapshotService;
 
   /**
    * Configures the {@link UserDetailsService} bean with caching support.
    *
-   * <p>This bean loads user details by email. It is annotated with {@link Cacheable} to store
-   * results in Redis (cache name "users"), significantly reducing database hits during token
-   * validation and API requests.
+   * <p>This bean loads user details by email. The lookup goes through {@link UserSnapshotService},
+   * which caches an immutable snapshot of the user (cache name "users", in-process then Redis),
+   * significantly reducing database hits during token validation and API requests. Each call
+   * returns its own detached {@link User} entity built from the snapshot.
    *
    * @return The UserDetailsService implementation.
    */
   @Bean
   public UserDetailsService userDetailsService() {
-    return new UserDetailsService() {
-      @Override
-      @Cacheable(value = "users", key = "#email")
-      @NonNull
-      public UserDetails loadUserByUsername(@NonNull String email) {
-        return userRepository
-            .findByEmail(email)
-            .orElseThrow(
-                () ->
-                    new UsernameNotFoundException(
-                        messageSource.getMessage(
-                            "error.user.not.found.email",
-                            new Object[] {email},
-                            LocaleContextHolder.getLocale())));
-      }
-    };
-  }
-
-  /**
-   * Configures the {@link PasswordEncoder} bean.
-   *
-   * <p>This bean defines the hashing algorithm (BCrypt) to be used for storing and verifying user
-   * passwords.
-   *
-   * @return A BCryptPasswordEncoder instance.
-   */
-  @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return email -> userSnapshotService.loadByEmail(email).toUser();
   }
 
   /**
    * Exposes the {@link AuthenticationManager} bean.
    *
-   * <p>This manager is the core of Spring Security's authentication mechanism and is used by the
-   * {@link AuthenticationService} to process logins.
+   * <p>This manager is used by the {@link AuthenticationService} to process logins. It
+   * authenticates the login against the user the service loaded beforehand (see {@link
+   * PreloadedUserAuthenticationProvider}), so that a login loads its user only once.
    *
-   * @param config The autoconfigured AuthenticationConfiguration.
+   * @param passwordEncoder The encoder verifying the passwords.
+   * @param userDetailsPasswordService The service persisting upgraded password hashes.
    * @return The AuthenticationManager.
-   * @throws AuthenticationException if the manager cannot be retrieved.
    */
   @Bean
-  public AuthenticationManager authenticationManager(AuthenticationConfiguration config)
-      throws AuthenticationException {
-    return config.getAuthenticationManager();
+  public AuthenticationManager authenticationManager(
+      PasswordEncoder passwordEncoder, UserDetailsPasswordService userDetailsPasswordService) {
+    return new ProviderManager(
+        new PreloadedUserAuthenticationProvider(passwordEncoder, userDetailsPasswordService));
   }
 
   /**
@@ -146,12 +132,61 @@ public class ApplicationConfig {
   /**
    * Enables HTTP request tracing for the "/actuator/httpexchanges" endpoint.
    *
-   * <p>This bean is used by Spring Boot Admin to display the "Traces" tab.
+   * <p>This bean is used by Spring Boot Admin to display the "Traces" tab. Only a sample of the
+   * exchanges is kept, in a lock-free ring buffer (see {@link RingBufferHttpExchangeRepository}):
+   * recording stays cheap on hot endpoints such as the forward-auth one.
    *
-   * @return An in-memory repository for HTTP exchanges.
+   * @param properties The HTTP exchanges properties.
+   * @return A sampled, in-memory repository for HTTP exchanges.
    */
   @Bean
-  public HttpExchangeRepository httpExchangeRepository() {
-    return new InMemoryHttpExchangeRepository();
+  public RingBufferHttpExchangeRepository httpExchangeRepository(
+      HttpExchangesProperties properties) {
+    return new RingBufferHttpExchangeRepository(
+        properties.capacity(),
+        properties.sampleRate(),
+        Duration.ofMillis(properties.slowThreshold()),
+        Objects.requireNonNullElse(properties.pathSampleRates(), Map.of()),
+        Objects.requireNonNullElse(properties.excludedPaths(), List.of()));
   }
+
+  /**
+   * Records the HTTP exchanges into the {@link RingBufferHttpExchangeRepository}, in place of the
+   * auto-configured filter. The requests to excluded paths skip the filter altogether: no exchange
+   * is built for them.
+   *
+   * @param repository The HTTP exchanges repository.
+   * @param recordingProperties The actuator recording properties (the exchange parts included).
+   * @return The recording filter.
+   */
+  @Bean
+  public HttpExchangesFilter httpExchangesFilter(
+      RingBufferHttpExchangeRepository repository,
+      org.springframework.boot.actuate.autoconfigure.web.exchanges.HttpExchangesProperties
+          recordingProperties) {
+    return new HttpExchangesFilter(repository, recordingProperties.getRecording().getInclude()) {
+      @Override
+      protected boolean shouldNotFilter(HttpServletRequest request) {
+        return repository.isExcluded(request.getRequestURI());
+      }
+    };
+  }
+
+  /**
+   * Inner configuration record for HTTP exchanges properties. Maps properties starting with
+   * 'application.http-exchanges'.
+   *
+   * <p>{@code capacity} bounds the number of exchanges kept. {@code sampleRate} (0 to 1) is the
+   * fraction of the exchanges recorded, overridden per path pattern by {@code pathSampleRates}.
+   * Exchanges slower than {@code slowThreshold} (milliseconds) or failing with a server error are
+   * always recorded, unless their path matches one of the {@code excludedPaths} patterns.
+   */
+  @ConfigurationProperties(prefix = "application.http-exchanges")
+  @Validated
+  public record HttpExchangesProperties(
+      @NotNull @Positive Integer capacity,
+      @NotNull @DecimalMin("0.0") @DecimalMax("1.0") Double sampleRate,
+      @NotNull @PositiveOrZero Long slowThreshold,
+      Map<String, @DecimalMin("0.0") @DecimalMax("1.0") Double> pathSampleRates,
+      List<String> excludedPaths) {}
 }
@@ -1,6 +1,7 @@
 package apex.stellar.antares.config;
 
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.Locale;
@@ -57,7 +58,8 @@ public class I18nConfig {
    * <p>Resolution Strategy:
    *
    * <ol>
-   *   <li>If a user is authenticated, use the {@code locale} stored in their profile.
+   *   <li>If a user is authenticated, use the {@code locale} stored in their profile (or, in
+   *       claims-only mode, the {@code locale} claim of their access token).
    *   <li>Otherwise, fall back to the standard {@code Accept-Language} HTTP header.
    * </ol>
    */
@@ -74,10 +76,14 @@ public class I18nConfig {
     public Locale resolveLocale(@NonNull HttpServletRequest request) {
       Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-      if (authentication != null
-          && authentication.isAuthenticated()
-          && authentication.getPrincipal() instanceof User user) {
-        return Locale.forLanguageTag(user.getLocale());
+      if (authentication != null && authentication.isAuthenticated()) {
+        if (authentication.getPrincipal() instanceof User user) {
+          return Locale.forLanguageTag(user.getLocale());
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal
+            && principal.locale() != null) {
+          return Locale.forLanguageTag(principal.locale());
+        }
       }
 
       return super.resolveLocale(request);
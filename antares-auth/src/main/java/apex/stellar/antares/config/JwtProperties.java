@@ -5,6 +5,8 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -13,6 +15,12 @@ import org.springframework.validation.annotation.Validated;
  *
  * <p>Includes robust validation rules to ensure security best practices are met at application
  * startup (e.g., minimum secret length, safe expiration windows).
+ *
+ * <p>When {@code claimsPrincipal} is enabled (it is opt-in), authenticated requests are resolved
+ * from the verified token claims alone, without loading the user from the cache or the database.
+ *
+ * <p>The {@code signing} properties select how access tokens are signed (see {@link
+ * JwtSigningKeys}), the {@code verify} ones size the decision cache of the forward-auth endpoint.
  */
 @ConfigurationProperties(prefix = "application.security.jwt")
 @Validated
@@ -26,22 +34,69 @@ public record JwtProperties(
     @NotBlank String audience,
     @Valid AccessToken accessToken,
     @Valid RefreshToken refreshToken,
-    @Valid CookieProperties cookie) {
+    @Valid CookieProperties cookie,
+    boolean claimsPrincipal,
+    @Valid Signing signing,
+    @Valid Verify verify) {
 
-  /** AccessToken properties including expiration time and cookie name. */
+  /**
+   * AccessToken properties including expiration time, cookie name and how expiries are spread: the
+   * maximum jitter subtracted from each lifetime, and the instant before which issued tokens expire
+   * early, over the following spread window (see {@link
+   * apex.stellar.antares.security.AccessTokenExpiryPolicy}).
+   */
   public record AccessToken(
       @Min(value = 60000, message = "Access token expiration must be at least 1 minute")
           @Max(value = 3600000, message = "Access token should not exceed 1 hour for security")
           long expiration,
-      @NotBlank String name) {}
+      @NotBlank String name,
+      @Min(value = 0, message = "Access token expiration jitter must not be negative")
+          long expirationJitter,
+      @Nullable Instant reissueBefore,
+      @Min(value = 0, message = "Access token reissue spread must not be negative")
+          long reissueSpread) {}
 
-  /** RefreshToken properties including expiration time and cookie name. */
+  /**
+   * RefreshToken properties including expiration time, cookie name and the grace period during
+   * which a rotated token still yields its replacement (0 disables it).
+   */
   public record RefreshToken(
       @Min(value = 3600000, message = "Refresh token must be at least 1 hour")
           @Max(value = 2592000000L, message = "Refresh token should not exceed 30 days")
           long expiration,
-      @NotBlank String name) {}
+      @NotBlank String name,
+      @Min(value = 0, message = "Refresh grace period must not be negative")
+          @Max(value = 60000, message = "Refresh grace period should not exceed 1 minute")
+          long gracePeriod) {}
 
   /** CookieProperties including whether cookies should be secure (HTTPS only). */
   public record CookieProperties(boolean secure, String domain) {}
+
+  /**
+   * Signing properties: the algorithm (HS256 with the shared secret, or ES256), the JWK set holding
+   * the EC keys (active key first), the max-age of the published JWKS document, and whether an
+   * ephemeral key may be generated in ES256 mode when no JWK set is configured (development and
+   * tests only).
+   */
+  public record Signing(
+      @NotBlank @Pattern(regexp = "HS256|ES256", message = "Supported algorithms: HS256, ES256")
+          String algorithm,
+      String jwkSet,
+      @Min(value = 0, message = "JWKS max-age must not be negative") long jwksMaxAge,
+      boolean ephemeralKey) {
+
+    /** Indicates whether tokens are signed with an asymmetric key. */
+    public boolean isAsymmetric() {
+      return "ES256".equals(algorithm);
+    }
+  }
+
+  /**
+   * Verify properties: the maximum number of access decisions cached by the forward-auth endpoint,
+   * and how long an invalid token is remembered, in milliseconds (see {@link
+   * apex.stellar.antares.service.ForwardAuthService}).
+   */
+  public record Verify(
+      @Min(value = 1, message = "Verify cache size must be positive") long cacheMaxSize,
+      @Min(value = 0, message = "Verify negative TTL must not be negative") long negativeTtl) {}
 }
@@ -0,0 +1,168 @@
+package apex.stellar.antares.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the keys used to sign and verify access tokens.
+ *
+ * <p>Two signing modes are supported, selected by {@code application.security.jwt.signing
+ * .algorithm}:
+ *
+ * <ul>
+ *   <li><b>HS256</b> (default): tokens are signed with the shared secret. Only holders of the
+ *       secret can verify them.
+ *   <li><b>ES256</b>: tokens are signed with an EC P-256 private key, from the configured JWK set.
+ *       The public keys are published on the JWKS endpoint, so that gateways and downstream
+ *       services can verify tokens locally.
+ * </ul>
+ *
+ * <p><b>Key rotation (ES256):</b> the configured JWK set is ordered. The first key is the active
+ * signing key and carries the {@code kid} header of every new token; the following keys are
+ * verify-only and remain published. To rotate, add the new key at the end and wait for the JWKS
+ * cache to expire, then move it first, and finally remove the old key once the tokens it signed
+ * have expired (one access token lifetime).
+ */
+@Slf4j
+@Component
+public class JwtSigningKeys {
+
+  private final boolean asymmetric;
+  private final @Nullable ECKey signingKey;
+  private final JWKSet publicKeys;
+  private final Map<String, Object> publicJwkSet;
+
+  /**
+   * Loads (or, if explicitly allowed, generates) the signing keys.
+   *
+   * @param jwtProperties The JWT configuration.
+   * @throws IllegalStateException if the configured JWK set is invalid, or missing while no
+   *     ephemeral key is allowed.
+   */
+  public JwtSigningKeys(JwtProperties jwtProperties) {
+    JwtProperties.Signing signing = jwtProperties.signing();
+    this.asymmetric = signing != null && signing.isAsymmetric();
+
+    if (!asymmetric) {
+      this.signingKey = null;
+      this.publicKeys = new JWKSet();
+    } else {
+      List<ECKey> keys = loadKeys(signing.jwkSet(), signing.ephemeralKey());
+      this.signingKey = keys.getFirst();
+      this.publicKeys = new JWKSet(keys.stream().map(JWK::toPublicJWK).toList());
+      log.info(
+          "Signing access tokens with ES256 (active kid '{}', {} published key(s))",
+          signingKey.getKeyID(),
+          keys.size());
+    }
+    this.publicJwkSet = publicKeys.toJSONObject(true);
+  }
+
+  /**
+   * Indicates whether tokens are signed with an asymmetric key.
+   *
+   * @return {@code true} for ES256, {@code false} for HS256.
+   */
+  public boolean isAsymmetric() {
+    return asymmetric;
+  }
+
+  /**
+   * Builds the JWS header of new tokens, referencing the active key when asymmetric.
+   *
+   * @return The header to sign new tokens with.
+   */
+  public JwsHeader header() {
+    if (!asymmetric) {
+      return JwsHeader.with(MacAlgorithm.HS256).build();
+    }
+    return JwsHeader.with(SignatureAlgorithm.ES256).keyId(signingKey.getKeyID()).build();
+  }
+
+  /**
+   * Returns the active private signing key.
+   *
+   * @return The signing key, or {@code null} in HS256 mode.
+   */
+  public @Nullable ECKey signingKey() {
+    return signingKey;
+  }
+
+  /**
+   * Returns the public keys accepted for verification (active and verify-only keys).
+   *
+   * @return The public JWK set, empty in HS256 mode.
+   */
+  public JWKSet publicKeys() {
+    return publicKeys;
+  }
+
+  /**
+   * Returns the JSON representation of the public keys, as served by the JWKS endpoint.
+   *
+   * @return The public JWK set as a JSON object.
+   */
+  public Map<String, Object> publicJwkSet() {
+    return publicJwkSet;
+  }
+
+  private static List<ECKey> loadKeys(@Nullable String jwkSet, boolean ephemeralKey) {
+    if (jwkSet == null || jwkSet.isBlank()) {
+      // Every node (and every restart) would sign with a key of its own, unknown to the others
+      if (!ephemeralKey) {
+        throw new IllegalStateException(
+            "ES256 signing requires a JWK set (application.security.jwt.signing.jwk-set)");
+      }
+      log.warn(
+          "No JWK set configured: using an ephemeral signing key. Tokens will not survive a"
+              + " restart and will not be accepted by other instances.");
+      return List.of(generateKey());
+    }
+
+    List<JWK> keys;
+    try {
+      keys = JWKSet.parse(jwkSet).getKeys();
+    } catch (ParseException e) {
+      throw new IllegalStateException("Invalid JWK set: " + e.getMessage(), e);
+    }
+
+    if (keys.isEmpty()) {
+      throw new IllegalStateException("The JWK set must contain at least one key");
+    }
+    for (JWK key : keys) {
+      if (!(key instanceof ECKey ecKey) || !Curve.P_256.equals(ecKey.getCurve())) {
+        throw new IllegalStateException("Only EC P-256 keys are supported for ES256 signing");
+      }
+      if (key.getKeyID() == null) {
+        throw new IllegalStateException("Every key of the JWK set must have a 'kid'");
+      }
+    }
+    if (!keys.getFirst().isPrivate()) {
+      throw new IllegalStateException("The first key of the JWK set must be a private key");
+    }
+
+    return keys.stream().map(ECKey.class::cast).toList();
+  }
+
+  private static ECKey generateKey() {
+    try {
+      return new ECKeyGenerator(Curve.P_256).keyID(UUID.randomUUID().toString()).generate();
+    } catch (JOSEException e) {
+      throw new IllegalStateException("Unable to generate an EC signing key", e);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package apex.stellar.antares.config;
+
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.security.BcryptCostCalibrator;
+import apex.stellar.antares.security.BoundedPasswordEncoder;
+import apex.stellar.antares.security.PreloadedUserAuthenticationProvider;
+import apex.stellar.antares.service.UserSnapshotService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Configuration of password hashing.
+ *
+ * <p>Passwords are hashed with BCrypt, at a work factor calibrated at startup to hit the configured
+ * target latency on the current hardware. Hashes are stored with an algorithm prefix (e.g., {@code
+ * {bcrypt}$2a$12$...}) through a {@link DelegatingPasswordEncoder}; legacy unprefixed hashes remain
+ * verifiable.
+ *
+ * <p>When a login verifies a hash stored with an outdated algorithm or a lower cost, the {@link
+ * PreloadedUserAuthenticationProvider} rehashes the password and persists it through the {@link
+ * UserDetailsPasswordService} bean: no forced password reset is needed to raise the cost.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(PasswordHashingConfig.PasswordHashingProperties.class)
+public class PasswordHashingConfig {
+
+  private static final String BCRYPT_ID = "bcrypt";
+
+  private final UserRepository userRepository;
+
+  /**
+   * Configures the {@link PasswordEncoder} bean.
+   *
+   * <p>The calibrated BCrypt encoder is wrapped in a {@link DelegatingPasswordEncoder}, itself run
+   * on a dedicated, bounded pool (see {@link BoundedPasswordEncoder}) so that a login burst cannot
+   * occupy every request thread.
+   *
+   * @param meterRegistry The registry exposing the hashing pool metrics and the selected cost.
+   * @param properties The password hashing properties.
+   * @return A bounded, delegating BCrypt password encoder.
+   */
+  @Bean
+  public BoundedPasswordEncoder passwordEncoder(
+      MeterRegistry meterRegistry, PasswordHashingProperties properties) {
+
+    BcryptCostCalibrator.Calibration calibration =
+        BcryptCostCalibrator.calibrate(
+            Duration.ofMillis(properties.targetLatency()),
+            properties.minCost(),
+            properties.maxCost());
+    log.info(
+        "BCrypt cost calibrated to {} (estimated {} ms per hash, target {} ms)",
+        calibration.cost(),
+        calibration.estimatedLatency().toMillis(),
+        properties.targetLatency());
+    Gauge.builder("antares.password.hashing.cost", calibration::cost)
+        .description("BCrypt cost selected at startup")
+        .register(meterRegistry);
+
+    DelegatingPasswordEncoder delegatingEncoder =
+        new DelegatingPasswordEncoder(
+            BCRYPT_ID, Map.of(BCRYPT_ID, new BCryptPasswordEncoder(calibration.cost())));
+    // Hashes stored before the prefix was introduced are plain BCrypt hashes
+    delegatingEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+
+    int threads =
+        properties.threads() > 0
+            ? properties.threads()
+            : Runtime.getRuntime().availableProcessors();
+    return new BoundedPasswordEncoder(
+        delegatingEncoder,
+        threads,
+        properties.queueCapacity(),
+        properties.retryAfter(),
+        meterRegistry);
+  }
+
+  /**
+   * Configures the {@link UserDetailsPasswordService} used to persist upgraded password hashes.
+   *
+   * <p>The new hash is written through to the user's cache entry.
+   *
+   * @param userSnapshotService The service maintaining the "users" cache.
+   * @return The UserDetailsPasswordService implementation.
+   */
+  @Bean
+  public UserDetailsPasswordService userDetailsPasswordService(
+      UserSnapshotService userSnapshotService) {
+    return (user, newPassword) ->
+        userRepository
+            .findByEmail(user.getUsername())
+            .<UserDetails>map(
+                entity -> {
+                  entity.setPassword(newPassword);
+                  User saved = userRepository.save(entity);
+                  userSnapshotService.writeThrough(saved, user.getUsername());
+                  log.info("Password hash upgraded for user {}", saved.getId());
+                  return saved;
+                })
+            .orElse(user);
+  }
+
+  /**
+   * Inner configuration record for password hashing properties. Maps properties starting with
+   * 'application.security.password-hashing'.
+   *
+   * <p>{@code threads} (0 means one per CPU), {@code queueCapacity} and {@code retryAfter}
+   * (seconds) bound the hashing pool; {@code targetLatency} (milliseconds), {@code minCost} and
+   * {@code maxCost} drive the BCrypt cost calibration.
+   */
+  @ConfigurationProperties(prefix = "application.security.password-hashing")
+  @Validated
+  public record PasswordHashingProperties(
+      @PositiveOrZero int threads,
+      @NotNull @Positive Integer queueCapacity,
+      @NotNull @Positive Long retryAfter,
+      @NotNull @Positive Long targetLatency,
+      @NotNull @Min(4) @Max(31) Integer minCost,
+      @NotNull @Min(4) @Max(31) Integer maxCost) {}
+}
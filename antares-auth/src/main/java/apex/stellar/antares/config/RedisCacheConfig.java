@@ -1,7 +1,13 @@
 package apex.stellar.antares.config;
 
+import apex.stellar.antares.cache.TwoTierCacheManager;
+import apex.stellar.antares.cache.UserSnapshotRedisSerializer;
+import apex.stellar.antares.service.TokenGenerationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.time.Duration;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -12,25 +18,38 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.validation.annotation.Validated;
 
-/** Configuration class for Redis Caching and Repositories. */
+/** Configuration class for Redis Caching. */
 @Configuration
 @EnableCaching
-@EnableRedisRepositories(basePackages = "apex.stellar.antares.repository")
 @EnableConfigurationProperties(RedisCacheConfig.CacheProperties.class)
 public class RedisCacheConfig {
 
+  private static final int MAX_CACHE_METERS = 16;
+
   /**
    * Configures the Spring-native CacheManager using the inner configuration properties.
    *
+   * <p>Every Redis cache is fronted by a bounded in-process near cache (L1), so that repeated
+   * lookups (e.g., the "users" cache hit on every authenticated request) are served from the heap
+   * without a network round trip. See {@link TwoTierCacheManager}.
+   *
    * @param redisConnectionFactory The Redis connection factory.
+   * @param redisTemplate The template used to broadcast L1 invalidations.
+   * @param meterRegistry The registry exposing hit rates and per-tier latencies.
    * @param properties The injected inner configuration properties.
    */
   @Bean
-  public RedisCacheManager cacheManager(
-      RedisConnectionFactory redisConnectionFactory, CacheProperties properties) {
+  public TwoTierCacheManager cacheManager(
+      RedisConnectionFactory redisConnectionFactory,
+      StringRedisTemplate redisTemplate,
+      MeterRegistry meterRegistry,
+      CacheProperties properties) {
 
     // 1. Default Configuration
     RedisCacheConfiguration defaultConfig =
@@ -38,27 +57,89 @@ public class RedisCacheConfig {
             .entryTtl(Duration.ofMillis(properties.defaultTtl()))
             .disableCachingNullValues();
 
-    // 2. Specific Configuration for 'users'
+    // 2. Specific Configuration for 'users' (compact, versioned snapshots)
     RedisCacheConfiguration usersConfig =
         RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMillis(properties.usersTtl()))
-            .disableCachingNullValues();
+            .disableCachingNullValues()
+            .serializeValuesWith(
+                SerializationPair.fromSerializer(new UserSnapshotRedisSerializer()));
 
     // 3. Map configurations
     Map<String, RedisCacheConfiguration> cacheConfigurations = Map.of("users", usersConfig);
 
-    return RedisCacheManager.builder(redisConnectionFactory)
-        .cacheDefaults(defaultConfig)
-        .withInitialCacheConfigurations(cacheConfigurations)
-        .build();
+    RedisCacheManager redisCacheManager =
+        RedisCacheManager.builder(redisConnectionFactory)
+            .cacheDefaults(defaultConfig)
+            .withInitialCacheConfigurations(cacheConfigurations)
+            .build();
+
+    // 4. Wrap with the in-process tier
+    return new TwoTierCacheManager(
+        redisCacheManager,
+        redisTemplate,
+        meterRegistry,
+        Duration.ofMillis(properties.localTtl()),
+        properties.localMaxSize(),
+        properties.refreshAheadBeta());
+  }
+
+  /**
+   * Caps the number of cache names the {@code antares.cache} meters are tagged with.
+   *
+   * <p>Caches are created on first use, and each one publishes a latency histogram per tier and
+   * result: beyond 16 names, new caches are not instrumented, keeping the scrape bounded.
+   *
+   * @return The meter filter.
+   */
+  @Bean
+  public MeterFilter cacheMetersCardinalityLimit() {
+    return MeterFilter.maximumAllowableTags(
+        "antares.cache", "cache", MAX_CACHE_METERS, MeterFilter.deny());
+  }
+
+  /**
+   * Configures the container dispatching Redis Pub/Sub messages to the application listeners.
+   *
+   * <p>It subscribes the {@link TwoTierCacheManager} to the cache invalidation channel, so that L1
+   * entries updated or evicted on another node are dropped locally, and the {@link
+   * TokenGenerationService} to the token generation channel, so that revocations apply on every
+   * node.
+   *
+   * @param redisConnectionFactory The Redis connection factory.
+   * @param cacheManager The two-tier cache manager listening for invalidations.
+   * @param tokenGenerationService The service listening for token revocations.
+   * @return The message listener container.
+   */
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(
+      RedisConnectionFactory redisConnectionFactory,
+      TwoTierCacheManager cacheManager,
+      TokenGenerationService tokenGenerationService) {
+
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(redisConnectionFactory);
+    container.addMessageListener(
+        cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+    container.addMessageListener(
+        tokenGenerationService, new ChannelTopic(TokenGenerationService.GENERATION_CHANNEL));
+    return container;
   }
 
   /**
    * Inner configuration record for Cache properties. Maps properties starting with
    * 'application.cache'.
+   *
+   * <p>The {@code localTtl} and {@code localMaxSize} properties bound the in-process (L1) tier; the
+   * TTL should remain well below the Redis TTLs. The {@code refreshAheadBeta} property tunes the
+   * background refresh of hot entries before their Redis TTL lapses (0 disables it).
    */
   @ConfigurationProperties(prefix = "application.cache")
   @Validated
   public record CacheProperties(
-      @NotNull @Positive Long defaultTtl, @NotNull @Positive Long usersTtl) {}
+      @NotNull @Positive Long defaultTtl,
+      @NotNull @Positive Long usersTtl,
+      @NotNull @Positive Long localTtl,
+      @NotNull @Positive Long localMaxSize,
+      @PositiveOrZero double refreshAheadBeta) {}
 }
@@ -2,34 +2,38 @@ package apex.stellar.antares.config;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
-import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import apex.stellar.antares.service.TokenGenerationService;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.Cookie;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import javax.crypto.spec.SecretKeySpec;
 import lombok.RequiredArgsConstructor;
-import org.jspecify.annotations.NonNull;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.convert.converter.Converter;
-import org.springframework.security.authentication.AbstractAuthenticationToken;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
@@ -56,8 +60,18 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+  /** Forward-auth endpoint, which resolves and verifies the token on its own. */
+  public static final String FORWARD_AUTH_PATH = "/antares/auth/verify";
+
+  /** Public endpoint exposing the token verification keys. */
+  public static final String JWKS_PATH = "/.well-known/jwks.json";
+
   private final JwtProperties jwtProperties;
-  private final UserDetailsService userDetailsService;
+  private final JwtSigningKeys jwtSigningKeys;
+  private final UserAuthenticationConverter userAuthenticationConverter;
+  private final TokenGenerationService tokenGenerationService;
+  private final AccessTokenExpiryPolicy accessTokenExpiryPolicy;
+  private final MeterRegistry meterRegistry;
 
   @Value("${cors.allowed-origins}")
   private String allowedOrigins;
@@ -99,7 +113,7 @@ public class SecurityConfig {
                     .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**")
                     .hasRole("ADMIN")
                     // Allow public access to Authentication & Health endpoints
-                    .requestMatchers("/antares/auth/**", "/actuator/**")
+                    .requestMatchers("/antares/auth/**", "/actuator/**", JWKS_PATH)
                     .permitAll()
                     // Require authentication for all other endpoints
                     .anyRequest()
@@ -112,11 +126,16 @@ public class SecurityConfig {
         .oauth2ResourceServer(
             oauth2 ->
                 oauth2
-                    .bearerTokenResolver(bearerTokenResolver())
+                    // The forward-auth endpoint verifies the token itself, through a decision cache
+                    .bearerTokenResolver(
+                        request ->
+                            FORWARD_AUTH_PATH.equals(request.getRequestURI())
+                                ? null
+                                : bearerTokenResolver().resolve(request))
                     .jwt(
                         jwt ->
                             jwt.decoder(jwtDecoder())
-                                .jwtAuthenticationConverter(jwtAuthenticationConverter())));
+                                .jwtAuthenticationConverter(userAuthenticationConverter::convert)));
 
     return http.build();
   }
@@ -150,50 +169,42 @@ public class SecurityConfig {
     };
   }
 
-  /**
-   * Configures a converter to transform a raw JWT into an authenticated Principal.
-   *
-   * <p>This implementation extracts the subject (email) from the JWT and retrieves {@link User}
-   * entity via {@link UserDetailsService}.
-   *
-   * <p><b>Performance Note:</b> The user details lookup is cached (e.g., in Redis) as configured in
-   * {@link ApplicationConfig}. This architecture avoids a database round-trip for every request
-   * while ensuring the Principal reflects the user's up-to-date state (thanks to cache eviction on
-   * updates).
-   *
-   * @return A converter from {@link Jwt} to {@link AbstractAuthenticationToken}.
-   */
-  private Converter<@NonNull Jwt, @NonNull AbstractAuthenticationToken>
-      jwtAuthenticationConverter() {
-    return jwt -> {
-      String email = jwt.getSubject();
-      User user = (User) userDetailsService.loadUserByUsername(email);
-      return new UsernamePasswordAuthenticationToken(user, jwt, user.getAuthorities());
-    };
-  }
-
   /**
    * Configures the {@link JwtDecoder} for verifying incoming tokens.
    *
    * <p><b>Security Features:</b>
    *
    * <ul>
-   *   <li>Signature verification (HMAC-SHA256).
+   *   <li>Signature verification (HMAC-SHA256, or ECDSA P-256 against the published keys, selected
+   *       by the 'kid' header).
    *   <li>Expiration check (exp, nbf).
    *   <li>Issuer validation (must match 'antares-auth').
    *   <li>Audience validation (must contain 'sirius-app').
+   *   <li>Revocation check ('ver' claim against the in-memory user generations).
+   *   <li>Early expiry of the tokens issued before 'reissue-before' (see {@link
+   *       AccessTokenExpiryPolicy}).
    * </ul>
    *
+   * <p>The latency of decoding and validation is exposed by the {@code antares.token.decode} timer,
+   * tagged with the {@code outcome} ({@code valid} or {@code invalid}).
+   *
    * @return The configured JWT decoder.
    */
   @Bean
   public JwtDecoder jwtDecoder() {
 
-    SecretKeySpec secretKey =
-        new SecretKeySpec(jwtProperties.secretKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-
-    NimbusJwtDecoder decoder =
-        NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS256).build();
+    NimbusJwtDecoder decoder;
+    if (jwtSigningKeys.isAsymmetric()) {
+      decoder =
+          NimbusJwtDecoder.withJwkSource(new ImmutableJWKSet<>(jwtSigningKeys.publicKeys()))
+              .jwsAlgorithm(SignatureAlgorithm.ES256)
+              .build();
+    } else {
+      SecretKeySpec secretKey =
+          new SecretKeySpec(
+              jwtProperties.secretKey().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+      decoder = NimbusJwtDecoder.withSecretKey(secretKey).macAlgorithm(MacAlgorithm.HS256).build();
+    }
 
     // 1. Standard Validator (checks 'exp', 'nbf', and 'iss')
     OAuth2TokenValidator<Jwt> withIssuer =
@@ -202,23 +213,40 @@ public class SecurityConfig {
     // 2. Custom Audience Validator (checks 'aud')
     OAuth2TokenValidator<Jwt> withAudience = new AudienceValidator(jwtProperties.audience());
 
-    // 3. Combine Validators
+    // 3. Revocation Validator (checks 'ver', without leaving the JVM)
+    OAuth2TokenValidator<Jwt> notRevoked = new GenerationValidator(tokenGenerationService);
+
+    // 4. Combine Validators (the expiry policy spreads the expiry of tokens to be reissued)
     OAuth2TokenValidator<Jwt> combinedValidator =
-        new DelegatingOAuth2TokenValidator<>(withIssuer, withAudience);
+        new DelegatingOAuth2TokenValidator<>(
+            withIssuer, withAudience, notRevoked, accessTokenExpiryPolicy);
 
     decoder.setJwtValidator(combinedValidator);
 
-    return decoder;
+    return new TimedJwtDecoder(decoder, decodeTimer("valid"), decodeTimer("invalid"));
+  }
+
+  private Timer decodeTimer(String outcome) {
+    return Timer.builder("antares.token.decode")
+        .description("Latency of access token decoding and validation, per outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
   }
 
   /**
    * Configures the {@link JwtEncoder} for signing outgoing tokens.
    *
+   * <p>In ES256 mode, only the active private key is exposed to the encoder.
+   *
    * @return The configured JWT encoder.
    */
   @Bean
   public JwtEncoder jwtEncoder() {
 
+    if (jwtSigningKeys.isAsymmetric()) {
+      return new NimbusJwtEncoder(
+          new ImmutableJWKSet<>(new JWKSet(Objects.requireNonNull(jwtSigningKeys.signingKey()))));
+    }
     return new NimbusJwtEncoder(
         new ImmutableSecret<>(jwtProperties.secretKey().getBytes(StandardCharsets.UTF_8)));
   }
@@ -259,4 +287,39 @@ public class SecurityConfig {
           new OAuth2Error("invalid_token", "The required audience is missing", null));
     }
   }
+
+  /**
+   * Custom Validator rejecting the tokens issued before the last revocation of their user (logout,
+   * password change).
+   */
+  private record GenerationValidator(TokenGenerationService tokenGenerationService)
+      implements OAuth2TokenValidator<Jwt> {
+
+    @Override
+    public OAuth2TokenValidatorResult validate(Jwt jwt) {
+      if (!tokenGenerationService.isRevoked(jwt)) {
+        return OAuth2TokenValidatorResult.success();
+      }
+      return OAuth2TokenValidatorResult.failure(
+          new OAuth2Error("invalid_token", "The token has been revoked", null));
+    }
+  }
+
+  /** Decoder timing the decoding and validation of the tokens, by outcome. */
+  private record TimedJwtDecoder(JwtDecoder delegate, Timer validTokens, Timer invalidTokens)
+      implements JwtDecoder {
+
+    @Override
+    public Jwt decode(String token) {
+      long start = System.nanoTime();
+      try {
+        Jwt jwt = delegate.decode(token);
+        validTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return jwt;
+      } catch (JwtException e) {
+        invalidTokens.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        throw e;
+      }
+    }
+  }
 }
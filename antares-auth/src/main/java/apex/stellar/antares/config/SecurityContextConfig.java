@@ -0,0 +1,45 @@
+package apex.stellar.antares.config;
+
+import apex.stellar.antares.security.ScopedSecurityContextHolderStrategy;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+
+/**
+ * Configures where the security context is held: in the scope of each request rather than in a
+ * thread-local (see {@link ScopedSecurityContextHolderStrategy}).
+ *
+ * <p>The strategy is also installed in the static {@link SecurityContextHolder}, read by the locale
+ * resolver, once this configuration is initialized: before any bean can be given the strategy. The
+ * strategy holds no state of its own (its scoped value and fallback thread-local are static), so
+ * that installing it again from another application context (e.g., in tests) changes nothing.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecurityContextConfig {
+
+  private static final SecurityContextHolderStrategy STRATEGY =
+      new ScopedSecurityContextHolderStrategy();
+
+  /**
+   * Installs the scoped strategy in the static {@link SecurityContextHolder}, unless it already is.
+   */
+  @PostConstruct
+  void installStrategy() {
+    if (!(SecurityContextHolder.getContextHolderStrategy()
+        instanceof ScopedSecurityContextHolderStrategy)) {
+      SecurityContextHolder.setContextHolderStrategy(STRATEGY);
+    }
+  }
+
+  /**
+   * Configures the {@link SecurityContextHolderStrategy} used by the filter chain.
+   *
+   * @return The scoped strategy, the one installed in the static holder.
+   */
+  @Bean
+  public SecurityContextHolderStrategy securityContextHolderStrategy() {
+    return STRATEGY;
+  }
+}
@@ -0,0 +1,101 @@
+package apex.stellar.antares.config;
+
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserPrincipal;
+import apex.stellar.antares.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transforms a verified {@link Jwt} into an authenticated Principal.
+ *
+ * <p>Two modes are supported:
+ *
+ * <ul>
+ *   <li><b>Claims-only</b> ({@code application.security.jwt.claims-principal=true}): an immutable
+ *       {@link UserPrincipal} is built from the verified claims ('sub', 'uid', 'scope', 'locale').
+ *       No lookup is performed; the full {@link User} entity is loaded lazily by the endpoints that
+ *       need it. Tokens issued before the 'uid' claim existed fall back to the entity mode.
+ *   <li><b>Entity</b> (default): the subject (email) is used to retrieve the {@link User} entity
+ *       via {@link UserDetailsService}.
+ * </ul>
+ *
+ * <p><b>Performance Note:</b> The user details lookup is cached (in-process, then Redis) as
+ * configured in {@link ApplicationConfig}. This architecture avoids a database round-trip for every
+ * request while ensuring the Principal reflects the user's up-to-date state (thanks to cache
+ * eviction on updates). The claims-only mode removes the remaining cache lookup from the hot path.
+ *
+ * <p>Used both by the OAuth2 Resource Server filter chain and by the forward-auth endpoint. The
+ * latency of the conversion is exposed by the {@code antares.principal.load} timer, tagged with the
+ * {@code source} of the principal ({@code claims} or {@code user}).
+ */
+@Component
+public class UserAuthenticationConverter {
+
+  private final JwtProperties jwtProperties;
+  private final UserDetailsService userDetailsService;
+  private final Timer claimsTimer;
+  private final Timer userTimer;
+
+  /**
+   * Creates the converter.
+   *
+   * @param jwtProperties The JWT properties (claims-only mode).
+   * @param userDetailsService The service loading the user in entity mode.
+   * @param meterRegistry The registry exposing the principal loading latency.
+   */
+  public UserAuthenticationConverter(
+      JwtProperties jwtProperties,
+      UserDetailsService userDetailsService,
+      MeterRegistry meterRegistry) {
+    this.jwtProperties = jwtProperties;
+    this.userDetailsService = userDetailsService;
+    this.claimsTimer = loadTimer(meterRegistry, "claims");
+    this.userTimer = loadTimer(meterRegistry, "user");
+  }
+
+  /**
+   * Converts a verified token into an authentication carrying the principal and its authorities.
+   *
+   * @param jwt The decoded and validated token.
+   * @return The authenticated token.
+   * @throws org.springframework.security.core.userdetails.UsernameNotFoundException if the entity
+   *     mode is used and the subject no longer exists.
+   */
+  public AbstractAuthenticationToken convert(Jwt jwt) {
+
+    if (jwtProperties.claimsPrincipal() && jwt.hasClaim(JwtService.USER_ID_CLAIM)) {
+      return claimsTimer.record(() -> fromClaims(jwt));
+    }
+    return userTimer.record(() -> fromUser(jwt));
+  }
+
+  private AbstractAuthenticationToken fromClaims(Jwt jwt) {
+    UserPrincipal principal =
+        new UserPrincipal(
+            ((Number) jwt.getClaim(JwtService.USER_ID_CLAIM)).longValue(),
+            jwt.getSubject(),
+            Role.valueOf(jwt.getClaimAsString(JwtService.SCOPE_CLAIM)),
+            jwt.getClaimAsString(JwtService.LOCALE_CLAIM));
+    return new UsernamePasswordAuthenticationToken(principal, jwt, principal.getAuthorities());
+  }
+
+  private AbstractAuthenticationToken fromUser(Jwt jwt) {
+    String email = jwt.getSubject();
+    User user = (User) userDetailsService.loadUserByUsername(email);
+    return new UsernamePasswordAuthenticationToken(user, jwt, user.getAuthorities());
+  }
+
+  private static Timer loadTimer(MeterRegistry meterRegistry, String source) {
+    return Timer.builder("antares.principal.load")
+        .description("Latency of building the principal of a verified token, per source")
+        .tag("source", source)
+        .register(meterRegistry);
+  }
+}
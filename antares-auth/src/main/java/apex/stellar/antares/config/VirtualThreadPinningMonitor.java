@@ -0,0 +1,133 @@
+package apex.stellar.antares.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Reports the virtual threads pinned to their carrier thread, in the virtual-thread mode ({@code
+ * spring.threads.virtual.enabled=true}).
+ *
+ * <p>A pinned virtual thread blocks its carrier (one per CPU) instead of unmounting: a few of them
+ * waiting on Redis or Postgres at once stall every other request. The JFR {@code
+ * jdk.VirtualThreadPinned} events lasting at least {@code application.threads.pinned-threshold}
+ * (milliseconds) are streamed in-process and exported as the {@code antares.threads.virtual.pinned}
+ * timer. The stack trace of each new pinning site (its first non-JDK frame) is logged once.
+ *
+ * <p>BCrypt does not run on virtual threads: it keeps its bounded platform pool (see {@code
+ * BoundedPasswordEncoder}).
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 20;
+
+  private final Duration threshold;
+  private final Timer pinnings;
+  private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+  private @Nullable RecordingStream recording;
+
+  /**
+   * Creates the monitor.
+   *
+   * @param properties The minimum duration of the reported pinnings.
+   * @param meterRegistry The registry exposing the pinnings.
+   */
+  public VirtualThreadPinningMonitor(ThreadsProperties properties, MeterRegistry meterRegistry) {
+    this.threshold = Duration.ofMillis(properties.pinnedThreshold());
+    this.pinnings =
+        Timer.builder("antares.threads.virtual.pinned")
+            .description("Virtual threads pinned to their carrier while blocked")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public synchronized void start() {
+    RecordingStream stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::record);
+    stream.startAsync();
+    recording = stream;
+    log.info("Recording virtual thread pinnings of at least {} ms", threshold.toMillis());
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (recording != null) {
+      recording.close();
+      recording = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return recording != null;
+  }
+
+  private void record(RecordedEvent event) {
+    pinnings.record(event.getDuration());
+
+    RecordedStackTrace stackTrace = event.getStackTrace();
+    if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+      return;
+    }
+    // The top frames are the JDK parking the thread: the site is the first frame calling into it
+    RecordedFrame site =
+        stackTrace.getFrames().stream()
+            .filter(frame -> !isJdkFrame(frame))
+            .findFirst()
+            .orElse(stackTrace.getFrames().getFirst());
+    if (loggedSites.add(describe(site))) {
+      StringBuilder frames = new StringBuilder();
+      stackTrace.getFrames().stream()
+          .limit(LOGGED_FRAMES)
+          .forEach(frame -> frames.append("\n\tat ").append(describe(frame)));
+      log.warn(
+          "Virtual thread pinned for {} ms (logged once per site):{}",
+          event.getDuration().toMillis(),
+          frames);
+    }
+  }
+
+  private static boolean isJdkFrame(RecordedFrame frame) {
+    String type = frame.getMethod().getType().getName();
+    return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+  }
+
+  private static String describe(RecordedFrame frame) {
+    return frame.getMethod().getType().getName()
+        + "."
+        + frame.getMethod().getName()
+        + ":"
+        + frame.getLineNumber();
+  }
+
+  /**
+   * Inner configuration record for the thread properties. Maps properties starting with
+   * 'application.threads'.
+   *
+   * <p>{@code pinnedThreshold} (milliseconds) is the minimum duration of the reported pinnings.
+   */
+  @ConfigurationProperties(prefix = "application.threads")
+  @Validated
+  public record ThreadsProperties(@NotNull @PositiveOrZero Long pinnedThreshold) {}
+}
@@ -7,10 +7,12 @@ import apex.stellar.antares.dto.RegisterRequest;
 import apex.stellar.antares.dto.TokenRefreshResponse;
 import apex.stellar.antares.dto.UserResponse;
 import apex.stellar.antares.exception.ResourceNotFoundException;
-import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.LoginRateLimiter;
 import apex.stellar.antares.service.AuthenticationService;
+import apex.stellar.antares.service.ForwardAuthService;
 import apex.stellar.antares.service.JwtService;
+import apex.stellar.antares.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -22,6 +24,8 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -39,6 +43,10 @@ public class AuthenticationController {
 
   private final AuthenticationService authenticationService;
   private final JwtService jwtService;
+  private final UserService userService;
+  private final ForwardAuthService forwardAuthService;
+  private final BearerTokenResolver bearerTokenResolver;
+  private final LoginRateLimiter loginRateLimiter;
 
   @Value("${application.frontend.login.url}")
   private String loginBaseUrl;
@@ -61,14 +69,21 @@ public class AuthenticationController {
   /**
    * Handles POST requests to authenticate (login) a user.
    *
+   * <p>Floods are rejected first by the node-local {@link LoginRateLimiter}, before any call to
+   * Redis, the database or the password encoder.
+   *
    * @param request The authentication request DTO, validated.
+   * @param httpRequest The HTTP request, used to resolve the client IP.
    * @param response The HTTP response, used to set auth cookies.
    * @return A ResponseEntity with status 200 (OK) and the authenticated {@link UserResponse}.
    */
   @PostMapping("/login")
   public ResponseEntity<@NonNull UserResponse> login(
-      @Valid @RequestBody AuthenticationRequest request, HttpServletResponse response) {
+      @Valid @RequestBody AuthenticationRequest request,
+      HttpServletRequest httpRequest,
+      HttpServletResponse response) {
 
+    loginRateLimiter.check(httpRequest.getRemoteAddr(), request.email());
     return ResponseEntity.ok(authenticationService.login(request, response));
   }
 
@@ -83,7 +98,13 @@ public class AuthenticationController {
   public ResponseEntity<@NonNull Void> logout(
       Authentication authentication, HttpServletResponse response) {
 
-    User currentUser = (User) authentication.getPrincipal();
+    User currentUser =
+        userService
+            .resolveCurrentUser(authentication)
+            .orElseThrow(
+                () ->
+                    new ResourceNotFoundException(
+                        "error.user.not.found.email", authentication.getName()));
     authenticationService.logout(currentUser, response);
 
     return ResponseEntity.ok().build();
@@ -93,35 +114,29 @@ public class AuthenticationController {
    * Advanced Forward Auth Endpoint.
    *
    * <p>This method acts as a gatekeeper for infrastructure services (Traefik Dashboard, Vega
-   * Admin).
+   * Admin). The token is resolved and verified by {@link ForwardAuthService}, which caches the
+   * decision per token; the security filter chain does not process this endpoint.
    *
    * <p>Logic Flow:
    *
    * <ol>
-   *   <li>If Unauthenticated -> Return 302 Redirect to the Sirius Login Page.
+   *   <li>If Unauthenticated (missing or invalid token) -> Return 302 Redirect to the Sirius Login
+   *       Page.
    *   <li>If Authenticated but not ADMIN -> Return 403 Forbidden.
    *   <li>If Authenticated and ADMIN -> Return 200 OK (Access Granted).
    * </ol>
    */
   @GetMapping("/verify")
-  public ResponseEntity<@NonNull Void> verify(
-      HttpServletRequest request, Authentication authentication) {
-
-    if (authentication == null || !authentication.isAuthenticated()) {
-
-      return ResponseEntity.status(HttpStatus.FOUND)
-          .header(HttpHeaders.LOCATION, buildLoginRedirectUrl(request))
-          .build();
-    }
-
-    if (authentication.getPrincipal() instanceof User user) {
-
-      return user.getRole() == Role.ROLE_ADMIN
-          ? ResponseEntity.ok().build()
-          : ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-    }
-
-    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+  public ResponseEntity<@NonNull Void> verify(HttpServletRequest request) {
+
+    return switch (forwardAuthService.decide(resolveToken(request))) {
+      case GRANTED -> ResponseEntity.ok().build();
+      case FORBIDDEN -> ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+      case UNAUTHENTICATED ->
+          ResponseEntity.status(HttpStatus.FOUND)
+              .header(HttpHeaders.LOCATION, buildLoginRedirectUrl(request))
+              .build();
+    };
   }
 
   /**
@@ -147,6 +162,18 @@ public class AuthenticationController {
     return ResponseEntity.ok(authenticationService.refreshToken(oldRefreshToken, response));
   }
 
+  /**
+   * Helper to resolve the access token (cookie, then Authorization header). A malformed
+   * Authorization header is treated as a missing token.
+   */
+  private String resolveToken(HttpServletRequest request) {
+    try {
+      return bearerTokenResolver.resolve(request);
+    } catch (OAuth2AuthenticationException e) {
+      return null;
+    }
+  }
+
   /**
    * Helper to construct the Angular login URL with a returnUrl parameter. It uses the X-Forwarded-*
    * headers provided by Traefik to know where the user came from.
@@ -0,0 +1,43 @@
+package apex.stellar.antares.controller;
+
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.JwtSigningKeys;
+import apex.stellar.antares.config.SecurityConfig;
+import java.time.Duration;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.NonNull;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller publishing the public keys used to verify access tokens (RFC 7517).
+ *
+ * <p>Gateways and downstream services fetch this document to verify ES256 tokens locally, without
+ * calling back this service. The response is public and cacheable; in HS256 mode, the key set is
+ * empty.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+  private final JwtSigningKeys jwtSigningKeys;
+  private final JwtProperties jwtProperties;
+
+  /**
+   * Handles GET requests for the JSON Web Key Set.
+   *
+   * @return A ResponseEntity containing the public JWK set, with a Cache-Control header.
+   */
+  @GetMapping(SecurityConfig.JWKS_PATH)
+  public ResponseEntity<@NonNull Map<String, Object>> getJwks() {
+
+    long maxAgeMs = jwtProperties.signing() != null ? jwtProperties.signing().jwksMaxAge() : 0;
+
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(Duration.ofMillis(maxAgeMs)).cachePublic())
+        .body(jwtSigningKeys.publicJwkSet());
+  }
+}
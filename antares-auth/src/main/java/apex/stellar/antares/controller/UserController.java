@@ -6,8 +6,13 @@ import apex.stellar.antares.dto.ProfileUpdateRequest;
 import apex.stellar.antares.dto.UserResponse;
 import apex.stellar.antares.mapper.UserMapper;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.service.AuthenticationService;
 import apex.stellar.antares.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.NonNull;
 import org.springframework.http.HttpStatus;
@@ -23,6 +28,9 @@ import org.springframework.web.bind.annotation.RestController;
 /**
  * REST controller for managing the currently authenticated user's account. All endpoints in this
  * controller are protected and require a valid session.
+ *
+ * <p>The {@link User} entity is resolved through {@link UserService#resolveCurrentUser}, so these
+ * endpoints work with both the entity principal and the claims-only principal.
  */
 @RestController
 @RequestMapping("/antares/users")
@@ -31,6 +39,7 @@ public class UserController {
 
   private final UserService userService;
   private final UserMapper userMapper;
+  private final AuthenticationService authenticationService;
 
   /**
    * Handles GET requests to retrieve the profile of the currently authenticated user. The user is
@@ -42,61 +51,106 @@ public class UserController {
   @GetMapping("/me")
   public ResponseEntity<@NonNull UserResponse> getAuthenticatedUser(Authentication authentication) {
 
-    if (authentication.getPrincipal() instanceof User currentUser) {
-      return ResponseEntity.ok(userMapper.toUserResponse(currentUser));
-    }
-    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    return userService
+        .resolveCurrentUser(authentication)
+        .map(currentUser -> ResponseEntity.ok(userMapper.toUserResponse(currentUser)))
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
   }
 
   /**
    * Handles PUT requests to update the authenticated user's core profile information.
    *
+   * <p>A new email is carried by a new access token, set in a cookie.
+   *
    * @param request The DTO with the updated user data, which is validated.
    * @param authentication The current user's authentication principal.
+   * @param response The HTTP response to set the new access token cookie.
    * @return A ResponseEntity containing the updated {@link UserResponse}.
    */
   @PutMapping("/me/profile")
   public ResponseEntity<@NonNull UserResponse> updateProfile(
-      @Valid @RequestBody ProfileUpdateRequest request, Authentication authentication) {
+      @Valid @RequestBody ProfileUpdateRequest request,
+      Authentication authentication,
+      HttpServletResponse response) {
 
-    if (authentication.getPrincipal() instanceof User currentUser) {
-      return ResponseEntity.ok(userService.updateProfile(currentUser, request));
-    }
-    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    return userService
+        .resolveCurrentUser(authentication)
+        .map(
+            currentUser ->
+                ResponseEntity.ok(
+                    updateUser(
+                        currentUser, user -> userService.updateProfile(user, request), response)))
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
   }
 
   /**
    * Handles PATCH requests to partially update the authenticated user's preferences.
    *
+   * <p>A new locale is carried by a new access token, set in a cookie.
+   *
    * @param request The DTO with the updated preferences data, which is validated.
    * @param authentication The current user's authentication principal.
+   * @param response The HTTP response to set the new access token cookie.
    * @return A ResponseEntity containing the updated {@link UserResponse}.
    */
   @PatchMapping("/me/preferences")
   public ResponseEntity<@NonNull UserResponse> updatePreferences(
-      @Valid @RequestBody PreferencesUpdateRequest request, Authentication authentication) {
+      @Valid @RequestBody PreferencesUpdateRequest request,
+      Authentication authentication,
+      HttpServletResponse response) {
 
-    if (authentication.getPrincipal() instanceof User currentUser) {
-      return ResponseEntity.ok(userService.updatePreferences(currentUser, request));
-    }
-    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+    return userService
+        .resolveCurrentUser(authentication)
+        .map(
+            currentUser ->
+                ResponseEntity.ok(
+                    updateUser(
+                        currentUser,
+                        user -> userService.updatePreferences(user, request),
+                        response)))
+        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
   }
 
   /**
    * Handles PUT requests to change the authenticated user's password.
    *
+   * <p>Changing the password ends every session of the user; the current one is kept alive with new
+   * tokens, set in cookies.
+   *
    * @param request The DTO with the current, new, and confirmation passwords, validated.
    * @param authentication The current user's authentication principal.
+   * @param response The HTTP response to set the new cookies.
    * @return An empty ResponseEntity (200 OK) confirming success.
    */
   @PutMapping("/me/password")
   public ResponseEntity<@NonNull Void> changePassword(
-      @Valid @RequestBody ChangePasswordRequest request, Authentication authentication) {
+      @Valid @RequestBody ChangePasswordRequest request,
+      Authentication authentication,
+      HttpServletResponse response) {
 
-    if (authentication.getPrincipal() instanceof User currentUser) {
-      userService.changePassword(request, currentUser);
+    Optional<User> currentUser = userService.resolveCurrentUser(authentication);
+    if (currentUser.isPresent()) {
+      userService.changePassword(request, currentUser.get());
+      authenticationService.startSession(currentUser.get(), response);
       return ResponseEntity.ok().build();
     }
     return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
   }
+
+  /**
+   * Applies an update to the user, then reissues their access token if a value it carries as a
+   * claim (email, locale) changed.
+   */
+  private UserResponse updateUser(
+      User currentUser, Function<User, UserResponse> update, HttpServletResponse response) {
+
+    String previousEmail = currentUser.getEmail();
+    String previousLocale = currentUser.getLocale();
+    UserResponse updated = update.apply(currentUser);
+    if (!Objects.equals(previousEmail, updated.email())
+        || !Objects.equals(previousLocale, updated.locale())) {
+      authenticationService.reissueAccessToken(currentUser, response);
+    }
+    return updated;
+  }
 }
@@ -151,6 +151,58 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return createProblemResponse(HttpStatus.TOO_MANY_REQUESTS, "Account Locked", message, request);
   }
 
+  /**
+   * Handles {@link LoginRateLimitedException} when the node-local login rate limiter rejects an
+   * attempt. Returns a 429 Too Many Requests status with a {@code Retry-After} header.
+   *
+   * @param ex The thrown exception.
+   * @param request The current HTTP request.
+   * @param locale The locale for message translation.
+   * @return A {@link ResponseEntity} containing the {@link ProblemDetail}.
+   */
+  @ExceptionHandler(LoginRateLimitedException.class)
+  public ResponseEntity<@NonNull ProblemDetail> handleLoginRateLimited(
+      LoginRateLimitedException ex, HttpServletRequest request, Locale locale) {
+
+    log.debug("Login attempt rate-limited from {}", request.getRemoteAddr());
+    String message =
+        messageSource.getMessage(
+            ex.getMessageKey(), new Object[] {ex.getRetryAfterSeconds()}, locale);
+
+    ResponseEntity<@NonNull ProblemDetail> response =
+        createProblemResponse(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", message, request);
+
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+        .body(response.getBody());
+  }
+
+  /**
+   * Handles {@link PasswordHashingUnavailableException} when the password hashing pool is
+   * saturated. Returns a 503 Service Unavailable status with a {@code Retry-After} header, so that
+   * the request fails fast instead of occupying a worker thread.
+   *
+   * @param ex The thrown exception.
+   * @param request The current HTTP request.
+   * @param locale The locale for message translation.
+   * @return A {@link ResponseEntity} containing the {@link ProblemDetail}.
+   */
+  @ExceptionHandler(PasswordHashingUnavailableException.class)
+  public ResponseEntity<@NonNull ProblemDetail> handlePasswordHashingUnavailable(
+      PasswordHashingUnavailableException ex, HttpServletRequest request, Locale locale) {
+
+    log.warn("Password hashing pool saturated, rejecting request {}", request.getRequestURI());
+    String message = messageSource.getMessage(ex.getMessageKey(), null, locale);
+
+    ResponseEntity<@NonNull ProblemDetail> response =
+        createProblemResponse(
+            HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", message, request);
+
+    return ResponseEntity.status(response.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+        .body(response.getBody());
+  }
+
   /**
    * Overrides the standard Spring MVC validation handler to provide detailed field error logging
    * and a customized ProblemDetail response.
@@ -0,0 +1,27 @@
+package apex.stellar.antares.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a login attempt is rejected by the node-local rate limiter (too many attempts from
+ * the same client IP or for the same email).
+ *
+ * <p>This results in an HTTP 429 "Too Many Requests" status with a {@code Retry-After} header.
+ */
+@Getter
+public class LoginRateLimitedException extends RuntimeException {
+
+  private final String messageKey;
+  private final long retryAfterSeconds;
+
+  /**
+   * Constructs a new LoginRateLimitedException.
+   *
+   * @param retryAfterSeconds The delay after which the client may retry.
+   */
+  public LoginRateLimitedException(long retryAfterSeconds) {
+    super("error.login.rate.limited");
+    this.messageKey = "error.login.rate.limited";
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,26 @@
+package apex.stellar.antares.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a password cannot be hashed or verified because the hashing pool is saturated.
+ *
+ * <p>This results in an HTTP 503 "Service Unavailable" status with a {@code Retry-After} header.
+ */
+@Getter
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+  private final String messageKey;
+  private final long retryAfterSeconds;
+
+  /**
+   * Constructs a new PasswordHashingUnavailableException.
+   *
+   * @param retryAfterSeconds The delay after which the client may retry.
+   */
+  public PasswordHashingUnavailableException(long retryAfterSeconds) {
+    super("error.password.hashing.busy");
+    this.messageKey = "error.password.hashing.busy";
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
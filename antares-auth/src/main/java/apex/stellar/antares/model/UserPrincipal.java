@@ -0,0 +1,44 @@
+package apex.stellar.antares.model;
+
+import java.util.Collection;
+import java.util.List;
+import org.jspecify.annotations.NonNull;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Lightweight, immutable principal built exclusively from the claims of a verified access token.
+ *
+ * <p>Used when the application runs in claims-only mode ({@code
+ * application.security.jwt.claims-principal=true}): no cache or database lookup is performed while
+ * authenticating a request. Endpoints that need the full {@link User} entity resolve it lazily.
+ *
+ * @param id The user's unique identifier ({@code uid} claim).
+ * @param email The user's email address ({@code sub} claim).
+ * @param role The user's role ({@code scope} claim).
+ * @param locale The user's preferred locale at token issuance ({@code locale} claim), may be null.
+ */
+public record UserPrincipal(Long id, String email, Role role, String locale)
+    implements AuthenticatedPrincipal {
+
+  /**
+   * Returns the authorities granted to the principal.
+   *
+   * @return A collection containing the principal's role.
+   */
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return List.of(new SimpleGrantedAuthority(role.name()));
+  }
+
+  /**
+   * Returns the email address identifying the principal.
+   *
+   * @return The principal's email.
+   */
+  @Override
+  @NonNull
+  public String getName() {
+    return email;
+  }
+}
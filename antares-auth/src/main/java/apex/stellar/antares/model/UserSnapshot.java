@@ -0,0 +1,78 @@
+package apex.stellar.antares.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a {@link User} entity, as stored in the "users" cache.
+ *
+ * <p>Caching a snapshot rather than the entity decouples the cache format from the JPA mapping (see
+ * {@code UserSnapshotRedisSerializer}), and guarantees that a cached value shared by concurrent
+ * requests is never mutated: each lookup gets its own detached entity through {@link #toUser()}.
+ *
+ * @param id The user's unique identifier.
+ * @param firstName The user's first name.
+ * @param lastName The user's last name.
+ * @param email The user's email address.
+ * @param password The user's hashed password.
+ * @param role The user's role.
+ * @param enabled Whether the account is enabled.
+ * @param locale The user's preferred locale.
+ * @param theme The user's preferred theme.
+ * @param createdAt The creation timestamp.
+ * @param updatedAt The last modification timestamp.
+ */
+public record UserSnapshot(
+    Long id,
+    String firstName,
+    String lastName,
+    String email,
+    String password,
+    Role role,
+    Boolean enabled,
+    String locale,
+    String theme,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt) {
+
+  /**
+   * Captures the current state of an entity.
+   *
+   * @param user The entity.
+   * @return The snapshot.
+   */
+  public static UserSnapshot from(User user) {
+    return new UserSnapshot(
+        user.getId(),
+        user.getFirstName(),
+        user.getLastName(),
+        user.getEmail(),
+        user.getPassword(),
+        user.getRole(),
+        user.getEnabled(),
+        user.getLocale(),
+        user.getTheme(),
+        user.getCreatedAt(),
+        user.getUpdatedAt());
+  }
+
+  /**
+   * Creates a new, detached entity holding the state of the snapshot.
+   *
+   * @return The entity.
+   */
+  public User toUser() {
+    return User.builder()
+        .id(id)
+        .firstName(firstName)
+        .lastName(lastName)
+        .email(email)
+        .password(password)
+        .role(role)
+        .enabled(enabled)
+        .locale(locale)
+        .theme(theme)
+        .createdAt(createdAt)
+        .updatedAt(updatedAt)
+        .build();
+  }
+}
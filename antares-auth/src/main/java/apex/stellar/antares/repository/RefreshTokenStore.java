@@ -0,0 +1,224 @@
+package apex.stellar.antares.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Redis store for the refresh tokens.
+ *
+ * <p>Uses a compact layout of three plain string keys per session, the first two expiring with the
+ * token, the last one with the grace period:
+ *
+ * <ul>
+ *   <li>{@code rt:<token hash>} holds the user ID (lookup by token).
+ *   <li>{@code rtu:<user id>} holds the token hash (enforces "one session per user").
+ *   <li>{@code rtg:<token hash>} briefly outlives a rotated token: it holds the user ID, the hash
+ *       of the replacement token and the replacement token sealed with a key only the holders of
+ *       the rotated token can derive (see {@code RefreshTokenService}).
+ * </ul>
+ *
+ * <p>Every write is a single Lua script, executed atomically in one round trip (EVALSHA). The
+ * scripts derive the key of the previous token from the value they read, so this layout assumes a
+ * non-clustered Redis.
+ *
+ * <p>The latency of each operation is exposed by the {@code antares.redis.operation} timer, tagged
+ * {@code store=refresh-tokens}.
+ */
+@Repository
+public class RefreshTokenStore {
+
+  /** Prefix of the keys mapping a token hash to its user ID. */
+  public static final String TOKEN_KEY_PREFIX = "rt:";
+
+  /** Prefix of the keys mapping a user ID to its current token hash. */
+  public static final String USER_KEY_PREFIX = "rtu:";
+
+  /** Prefix of the keys holding the grace record of a rotated token. */
+  public static final String GRACE_KEY_PREFIX = "rtg:";
+
+  // KEYS: user key, new token key. ARGV: user ID, new hash, TTL (ms).
+  private static final RedisScript<Long> ISSUE_SCRIPT =
+      RedisScript.of(
+          """
+          local previous = redis.call('GET', KEYS[1])
+          if previous then
+            redis.call('DEL', 'rt:' .. previous)
+          end
+          redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[3])
+          redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+          return 1
+          """,
+          Long.class);
+
+  // KEYS: old token key, new token key, old grace key. ARGV: new hash, TTL (ms), sealed new token,
+  // grace period (ms). Returns {user ID, ''} once rotated, {user ID, sealed token} if the old token
+  // was rotated within the grace period and its replacement is still live, or nil.
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static final RedisScript<List<String>> ROTATE_SCRIPT =
+      (RedisScript)
+          RedisScript.of(
+              """
+              local userId = redis.call('GET', KEYS[1])
+              if not userId then
+                local grace = redis.call('GET', KEYS[3])
+                if not grace then
+                  return nil
+                end
+                local graceUserId, newHash, sealed = string.match(grace, '^(%d+):([^:]+):(.+)$')
+                if not graceUserId or redis.call('EXISTS', 'rt:' .. newHash) == 0 then
+                  return nil
+                end
+                return {graceUserId, sealed}
+              end
+              redis.call('DEL', KEYS[1])
+              redis.call('SET', KEYS[2], userId, 'PX', ARGV[2])
+              redis.call('SET', 'rtu:' .. userId, ARGV[1], 'PX', ARGV[2])
+              if tonumber(ARGV[4]) > 0 then
+                redis.call('SET', KEYS[3], userId .. ':' .. ARGV[1] .. ':' .. ARGV[3], 'PX', ARGV[4])
+              end
+              return {userId, ''}
+              """,
+              List.class);
+
+  // KEYS: user key. Returns 1 if a session was revoked.
+  private static final RedisScript<Long> REVOKE_SCRIPT =
+      RedisScript.of(
+          """
+          local previous = redis.call('GET', KEYS[1])
+          if not previous then
+            return 0
+          end
+          redis.call('DEL', 'rt:' .. previous, KEYS[1])
+          return 1
+          """,
+          Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final Timer issueTimer;
+  private final Timer rotateTimer;
+  private final Timer revokeTimer;
+  private final Timer existsTimer;
+
+  /**
+   * Creates the store.
+   *
+   * @param redisTemplate The template running the commands and scripts.
+   * @param meterRegistry The registry exposing the latency of the Redis operations.
+   */
+  public RefreshTokenStore(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.issueTimer = redisTimer(meterRegistry, "issue");
+    this.rotateTimer = redisTimer(meterRegistry, "rotate");
+    this.revokeTimer = redisTimer(meterRegistry, "revoke");
+    this.existsTimer = redisTimer(meterRegistry, "exists");
+  }
+
+  /**
+   * Stores a new session for the user, revoking the previous one.
+   *
+   * @param userId The user ID.
+   * @param tokenHash The hash of the new token.
+   * @param ttl The lifetime of the token.
+   */
+  public void issue(Long userId, String tokenHash, Duration ttl) {
+    issueTimer.record(
+        () ->
+            redisTemplate.execute(
+                ISSUE_SCRIPT,
+                List.of(userKey(userId), tokenKey(tokenHash)),
+                userId.toString(),
+                tokenHash,
+                Long.toString(ttl.toMillis())));
+  }
+
+  /**
+   * Atomically replaces a token by a new one. The old token can only be rotated once; within the
+   * grace period, presenting it again yields the sealed replacement token instead.
+   *
+   * @param oldTokenHash The hash of the presented token.
+   * @param newTokenHash The hash of the replacement token.
+   * @param sealedNewToken The replacement token, sealed for the holders of the presented token.
+   * @param ttl The lifetime of the replacement token.
+   * @param gracePeriod How long the presented token keeps yielding its replacement (0 to disable).
+   * @return The rotation, or empty if the presented token is unknown, expired or already rotated
+   *     (and out of its grace period, or replaced by a token since revoked).
+   */
+  public Optional<Rotation> rotate(
+      String oldTokenHash,
+      String newTokenHash,
+      String sealedNewToken,
+      Duration ttl,
+      Duration gracePeriod) {
+    List<String> result =
+        rotateTimer.record(
+            () ->
+                redisTemplate.execute(
+                    ROTATE_SCRIPT,
+                    List.of(tokenKey(oldTokenHash), tokenKey(newTokenHash), graceKey(oldTokenHash)),
+                    newTokenHash,
+                    Long.toString(ttl.toMillis()),
+                    sealedNewToken,
+                    Long.toString(gracePeriod.toMillis())));
+    if (result == null || result.size() < 2) {
+      return Optional.empty();
+    }
+    String sealed = result.get(1);
+    return Optional.of(new Rotation(Long.valueOf(result.get(0)), sealed.isEmpty() ? null : sealed));
+  }
+
+  /**
+   * Revokes the current session of the user, if any.
+   *
+   * @param userId The user ID.
+   */
+  public void revoke(Long userId) {
+    revokeTimer.record(() -> redisTemplate.execute(REVOKE_SCRIPT, List.of(userKey(userId))));
+  }
+
+  /**
+   * Checks whether a token is still live: neither rotated, revoked, replaced by a new session nor
+   * expired.
+   *
+   * @param tokenHash The hash of the token.
+   * @return {@code true} if the token can still be rotated.
+   */
+  public boolean exists(String tokenHash) {
+    return Boolean.TRUE.equals(existsTimer.record(() -> redisTemplate.hasKey(tokenKey(tokenHash))));
+  }
+
+  private static Timer redisTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("antares.redis.operation")
+        .description("Latency of the Redis operations, per store and operation")
+        .tag("store", "refresh-tokens")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  private static String tokenKey(String tokenHash) {
+    return TOKEN_KEY_PREFIX + tokenHash;
+  }
+
+  private static String userKey(Long userId) {
+    return USER_KEY_PREFIX + userId;
+  }
+
+  private static String graceKey(String tokenHash) {
+    return GRACE_KEY_PREFIX + tokenHash;
+  }
+
+  /**
+   * Result of a rotation.
+   *
+   * @param userId The owner of the token.
+   * @param sealedToken {@code null} if the token was rotated now, otherwise the sealed replacement
+   *     issued by a previous rotation within the grace period.
+   */
+  public record Rotation(Long userId, @Nullable String sealedToken) {}
+}
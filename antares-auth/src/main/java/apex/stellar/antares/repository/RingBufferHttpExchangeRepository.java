@@ -0,0 +1,159 @@
+package apex.stellar.antares.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * {@link HttpExchangeRepository} keeping a sample of the latest exchanges in a bounded ring buffer.
+ *
+ * <p>Unlike {@code InMemoryHttpExchangeRepository}, which records every exchange under a lock, an
+ * exchange is recorded with a single atomic increment and a slot write, and most exchanges are not
+ * recorded at all:
+ *
+ * <ul>
+ *   <li>Exchanges whose path matches an excluded pattern are never recorded.
+ *   <li>Server errors (5xx) and exchanges slower than the slow threshold are always recorded.
+ *   <li>Other exchanges are recorded with the sample rate of the first path pattern they match, or
+ *       the default sample rate.
+ * </ul>
+ *
+ * <p>The excluded paths are best checked before the exchange is even built, by the recording filter
+ * (see {@link #isExcluded(String)}). The sampling decision cannot: whether an exchange is always
+ * recorded depends on its outcome. The policy of a path is resolved once, then memoized for the
+ * first {@value #MAX_MEMOIZED_PATHS} distinct paths: the paths of this API are fixed, so that the
+ * hot ones are never parsed again.
+ *
+ * <p>Once full, the buffer overwrites its oldest exchanges. {@link #findAll()} returns the recorded
+ * exchanges newest first, as the actuator {@code httpexchanges} endpoint expects.
+ */
+public class RingBufferHttpExchangeRepository implements HttpExchangeRepository {
+
+  private static final int SERVER_ERROR = 500;
+  private static final int MAX_MEMOIZED_PATHS = 256;
+
+  private final AtomicReferenceArray<Entry> slots;
+  private final AtomicLong sequence = new AtomicLong();
+  private final double sampleRate;
+  private final Duration slowThreshold;
+  private final List<SampledPath> sampledPaths;
+  private final List<PathPattern> excludedPaths;
+  private final Map<String, PathPolicy> pathPolicies = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the repository.
+   *
+   * @param capacity The number of exchanges kept.
+   * @param sampleRate The fraction (0 to 1) of the exchanges recorded, by default.
+   * @param slowThreshold The duration from which an exchange is always recorded.
+   * @param pathSampleRates The sample rates of specific path patterns, in order of precedence.
+   * @param excludedPaths The path patterns of the exchanges never recorded.
+   */
+  public RingBufferHttpExchangeRepository(
+      int capacity,
+      double sampleRate,
+      Duration slowThreshold,
+      Map<String, Double> pathSampleRates,
+      List<String> excludedPaths) {
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.sampleRate = sampleRate;
+    this.slowThreshold = slowThreshold;
+    this.sampledPaths =
+        pathSampleRates.entrySet().stream()
+            .map(rate -> new SampledPath(parse(rate.getKey()), rate.getValue()))
+            .toList();
+    this.excludedPaths =
+        excludedPaths.stream().map(RingBufferHttpExchangeRepository::parse).toList();
+  }
+
+  @Override
+  public List<HttpExchange> findAll() {
+    List<Entry> entries = new ArrayList<>(slots.length());
+    for (int i = 0; i < slots.length(); i++) {
+      Entry entry = slots.get(i);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    // Slots may be overwritten while being read: the order is restored from the sequence
+    entries.sort(Comparator.comparingLong(Entry::sequence).reversed());
+    return entries.stream().map(Entry::exchange).toList();
+  }
+
+  @Override
+  public void add(HttpExchange exchange) {
+    PathPolicy policy = policy(exchange.getRequest().getUri().getRawPath());
+    if (policy.excluded() || (!alwaysRecorded(exchange) && !sampled(policy.sampleRate()))) {
+      return;
+    }
+    long next = sequence.getAndIncrement();
+    slots.set((int) (next % slots.length()), new Entry(next, exchange));
+  }
+
+  /**
+   * Checks whether the exchanges of a path are never recorded.
+   *
+   * @param rawPath The raw (encoded) request path.
+   * @return {@code true} if the path matches an excluded pattern.
+   */
+  public boolean isExcluded(String rawPath) {
+    return policy(rawPath).excluded();
+  }
+
+  private PathPolicy policy(String rawPath) {
+    PathPolicy policy = pathPolicies.get(rawPath);
+    if (policy == null) {
+      policy = resolvePolicy(PathContainer.parsePath(rawPath));
+      if (pathPolicies.size() < MAX_MEMOIZED_PATHS) {
+        pathPolicies.putIfAbsent(rawPath, policy);
+      }
+    }
+    return policy;
+  }
+
+  private PathPolicy resolvePolicy(PathContainer path) {
+    for (PathPattern excludedPath : excludedPaths) {
+      if (excludedPath.matches(path)) {
+        return new PathPolicy(true, 0);
+      }
+    }
+    for (SampledPath sampledPath : sampledPaths) {
+      if (sampledPath.pattern().matches(path)) {
+        return new PathPolicy(false, sampledPath.rate());
+      }
+    }
+    return new PathPolicy(false, sampleRate);
+  }
+
+  private boolean alwaysRecorded(HttpExchange exchange) {
+    HttpExchange.Response response = exchange.getResponse();
+    Duration timeTaken = exchange.getTimeTaken();
+    return (response != null && response.getStatus() >= SERVER_ERROR)
+        || (timeTaken != null && timeTaken.compareTo(slowThreshold) >= 0);
+  }
+
+  private static boolean sampled(double rate) {
+    return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+  }
+
+  private static PathPattern parse(String pattern) {
+    return PathPatternParser.defaultInstance.parse(pattern);
+  }
+
+  private record Entry(long sequence, HttpExchange exchange) {}
+
+  private record SampledPath(PathPattern pattern, double rate) {}
+
+  private record PathPolicy(boolean excluded, double sampleRate) {}
+}
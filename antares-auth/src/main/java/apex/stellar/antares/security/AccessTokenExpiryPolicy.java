@@ -0,0 +1,123 @@
+package apex.stellar.antares.security;
+
+import apex.stellar.antares.config.JwtProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when access tokens expire, so that their refreshes arrive at a flat rate rather than in
+ * waves.
+ *
+ * <ul>
+ *   <li><b>Jitter:</b> each token is issued with a lifetime shortened by a random amount of at most
+ *       {@code expiration-jitter}. Tokens issued together (deploy, mass login) expire apart.
+ *   <li><b>Early expiry:</b> tokens issued before {@code reissue-before} (e.g., the last key
+ *       rotation) expire at a point of the {@code reissue-spread} window following that instant,
+ *       derived from their 'jti'. They are reissued progressively instead of all at once.
+ * </ul>
+ *
+ * <p>Exported metrics: the {@code antares.token.lifetime} timer (lifetimes issued, with a
+ * histogram) and the {@code antares.token.early-expired} counter.
+ */
+@Component
+public class AccessTokenExpiryPolicy implements OAuth2TokenValidator<Jwt> {
+
+  // Fibonacci hashing constant, spreading similar 'jti' hash codes over the whole window
+  private static final long SPREAD_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private final Duration lifetime;
+  private final long jitterMs;
+  private final @Nullable Instant reissueBefore;
+  private final long reissueSpreadMs;
+  private final Timer lifetimes;
+  private final Counter earlyExpirations;
+
+  /**
+   * Creates the policy from the access token properties.
+   *
+   * @param jwtProperties The JWT properties.
+   * @param meterRegistry The registry exposing the lifetime histogram and early expirations.
+   */
+  public AccessTokenExpiryPolicy(JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+    JwtProperties.AccessToken accessToken = jwtProperties.accessToken();
+    this.lifetime = Duration.ofMillis(accessToken.expiration());
+    // A token never loses more than half of its lifetime to the jitter
+    this.jitterMs = Math.min(accessToken.expirationJitter(), accessToken.expiration() / 2);
+    this.reissueBefore = accessToken.reissueBefore();
+    this.reissueSpreadMs = accessToken.reissueSpread();
+    this.lifetimes =
+        Timer.builder("antares.token.lifetime")
+            .description("Lifetime of the issued access tokens, jitter included")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.earlyExpirations =
+        Counter.builder("antares.token.early-expired")
+            .description("Access tokens rejected because they were issued before reissue-before")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Computes the expiry of a token issued now.
+   *
+   * @param issuedAt The issuance instant.
+   * @return The jittered expiry.
+   */
+  public Instant expiresAt(Instant issuedAt) {
+    Duration tokenLifetime =
+        lifetime.minusMillis(jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+    lifetimes.record(tokenLifetime);
+    return issuedAt.plus(tokenLifetime);
+  }
+
+  /**
+   * Computes the instant a verified token stops being accepted, early expiry included.
+   *
+   * @param jwt The verified token.
+   * @return The earliest of its 'exp' and its reissue deadline, or {@code null} without 'exp'.
+   */
+  public @Nullable Instant effectiveExpiry(Jwt jwt) {
+    Instant reissueDeadline = reissueDeadline(jwt);
+    Instant expiresAt = jwt.getExpiresAt();
+    if (reissueDeadline == null || (expiresAt != null && expiresAt.isBefore(reissueDeadline))) {
+      return expiresAt;
+    }
+    return reissueDeadline;
+  }
+
+  /** Rejects the tokens past their reissue deadline ('exp' itself is checked by the defaults). */
+  @Override
+  public OAuth2TokenValidatorResult validate(Jwt jwt) {
+    Instant reissueDeadline = reissueDeadline(jwt);
+    if (reissueDeadline == null || Instant.now().isBefore(reissueDeadline)) {
+      return OAuth2TokenValidatorResult.success();
+    }
+    earlyExpirations.increment();
+    return OAuth2TokenValidatorResult.failure(
+        new OAuth2Error("invalid_token", "The token must be reissued", null));
+  }
+
+  /** The deadline of a token issued before {@code reissue-before}, stable for a given token. */
+  private @Nullable Instant reissueDeadline(Jwt jwt) {
+    Instant issuedAt = jwt.getIssuedAt();
+    if (reissueBefore == null || issuedAt == null || !issuedAt.isBefore(reissueBefore)) {
+      return null;
+    }
+    if (reissueSpreadMs <= 0) {
+      return reissueBefore;
+    }
+    long seed = Objects.requireNonNullElse(jwt.getId(), jwt.getTokenValue()).hashCode();
+    return reissueBefore.plusMillis(
+        Math.floorMod((seed * SPREAD_MULTIPLIER) >>> 1, reissueSpreadMs));
+  }
+}
@@ -0,0 +1,55 @@
+package apex.stellar.antares.security;
+
+import java.time.Duration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Picks the BCrypt work factor matching a target hashing latency on the current hardware.
+ *
+ * <p>The hash time is measured once at the minimum cost; as each cost increment doubles the work,
+ * the largest cost whose estimated latency does not exceed the target is then derived without
+ * further (and increasingly expensive) measurements.
+ */
+public final class BcryptCostCalibrator {
+
+  private static final String PROBE = "calibration-probe";
+  private static final int SAMPLES = 3;
+
+  private BcryptCostCalibrator() {}
+
+  /**
+   * Calibrates the BCrypt cost.
+   *
+   * @param target The target latency of a single hash.
+   * @param minCost The lowest acceptable cost (also the measured one).
+   * @param maxCost The highest acceptable cost.
+   * @return The calibrated cost and its estimated latency.
+   */
+  public static Calibration calibrate(Duration target, int minCost, int maxCost) {
+    BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+    probe.encode(PROBE); // Warm-up
+
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      probe.encode(PROBE);
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+
+    int cost = minCost;
+    long estimate = fastest;
+    while (cost < maxCost && estimate * 2 <= target.toNanos()) {
+      cost++;
+      estimate *= 2;
+    }
+    return new Calibration(cost, Duration.ofNanos(estimate));
+  }
+
+  /**
+   * Result of a calibration.
+   *
+   * @param cost The BCrypt cost (log2 of the number of rounds).
+   * @param estimatedLatency The estimated duration of a hash at this cost.
+   */
+  public record Calibration(int cost, Duration estimatedLatency) {}
+}
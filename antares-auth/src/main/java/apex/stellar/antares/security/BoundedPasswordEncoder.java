@@ -0,0 +1,140 @@
+package apex.stellar.antares.security;
+
+import apex.stellar.antares.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} decorator running every hash computation and verification on a dedicated,
+ * bounded thread pool.
+ *
+ * <p>BCrypt is deliberately expensive. Running it on the request threads lets a burst of logins
+ * (e.g., credential stuffing) occupy every Tomcat worker and starve the cheap endpoints. Here, at
+ * most {@code threads} hashes run concurrently and at most {@code queueCapacity} wait; beyond that,
+ * callers fail fast with a {@link PasswordHashingUnavailableException} (HTTP 503).
+ *
+ * <p>Exported metrics: the executor metrics under the {@code password-hashing} name (queue depth,
+ * active threads, completed tasks), the {@code antares.password.hashing.wait} timer (time spent
+ * queued), the {@code antares.password.hashing} timer (hashing itself, per {@code operation}:
+ * {@code encode} or {@code matches}) and the {@code antares.password.hashing.rejected} counter.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final long retryAfterSeconds;
+  private final Timer waitTimer;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejections;
+
+  /**
+   * Creates the encoder and its thread pool.
+   *
+   * @param delegate The encoder doing the actual work.
+   * @param threads The maximum number of concurrent hash operations.
+   * @param queueCapacity The maximum number of operations waiting for a thread.
+   * @param retryAfterSeconds The delay suggested to rejected clients.
+   * @param meterRegistry The registry exposing the pool metrics.
+   */
+  public BoundedPasswordEncoder(
+      PasswordEncoder delegate,
+      int threads,
+      int queueCapacity,
+      long retryAfterSeconds,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+    this.waitTimer =
+        Timer.builder("antares.password.hashing.wait")
+            .description("Time spent waiting for a password hashing thread")
+            .register(meterRegistry);
+    this.encodeTimer = hashingTimer(meterRegistry, "encode");
+    this.matchesTimer = hashingTimer(meterRegistry, "matches");
+    this.rejections =
+        Counter.builder("antares.password.hashing.rejected")
+            .description("Password hashing operations rejected because the queue was full")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public @Nullable String encode(@Nullable CharSequence rawPassword) {
+    return submit(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(@Nullable CharSequence rawPassword, @Nullable String encodedPassword) {
+    return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /** Cheap (no hashing involved): evaluated on the calling thread. */
+  @Override
+  public boolean upgradeEncoding(@Nullable String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  /** Stops the pool on shutdown (inferred destroy method). */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Timer timer, Callable<T> operation) {
+    long submittedAt = System.nanoTime();
+
+    Future<T> future;
+    try {
+      future =
+          executor.submit(
+              () -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(operation);
+              });
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      throw new PasswordHashingUnavailableException(retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("antares.password.hashing")
+        .description("Time spent hashing or verifying a password, queueing excluded")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+}
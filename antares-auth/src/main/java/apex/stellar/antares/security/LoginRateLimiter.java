@@ -0,0 +1,93 @@
+package apex.stellar.antares.security;
+
+import apex.stellar.antares.exception.LoginRateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Node-local pre-filter of the login endpoint, rejecting obvious floods before any I/O.
+ *
+ * <p>Login attempts are limited per client IP and per email with {@link SlidingWindowRateLimiter}s.
+ * A rejected attempt never reaches Redis, Postgres or the password encoder. The limits are
+ * deliberately looser than the account lock of {@code LoginAttemptService}, which remains the
+ * cluster-wide source of truth.
+ */
+@Component
+public class LoginRateLimiter {
+
+  private final SlidingWindowRateLimiter ipLimiter;
+  private final SlidingWindowRateLimiter emailLimiter;
+  private final Counter ipRejections;
+  private final Counter emailRejections;
+
+  /**
+   * Creates the per-IP and per-email limiters.
+   *
+   * @param meterRegistry The registry exposing the rejection counters.
+   * @param properties The window and limits of the login attempts.
+   */
+  public LoginRateLimiter(MeterRegistry meterRegistry, RateLimitProperties properties) {
+    Duration window = Duration.ofMillis(properties.window());
+    this.ipLimiter =
+        new SlidingWindowRateLimiter(properties.ipLimit(), window, properties.maxKeys());
+    this.emailLimiter =
+        new SlidingWindowRateLimiter(properties.emailLimit(), window, properties.maxKeys());
+    this.ipRejections = rejectionCounter(meterRegistry, "ip");
+    this.emailRejections = rejectionCounter(meterRegistry, "email");
+  }
+
+  /**
+   * Checks that a login attempt is within the local limits.
+   *
+   * @param clientIp The client IP address.
+   * @param email The email the attempt is made for.
+   * @throws LoginRateLimitedException if either limit is exceeded.
+   */
+  public void check(String clientIp, String email) {
+    long retryAfterMs = ipLimiter.tryAcquire(clientIp);
+    if (retryAfterMs > 0) {
+      ipRejections.increment();
+      throw new LoginRateLimitedException(toSeconds(retryAfterMs));
+    }
+
+    retryAfterMs = emailLimiter.tryAcquire(email.toLowerCase(Locale.ROOT));
+    if (retryAfterMs > 0) {
+      emailRejections.increment();
+      throw new LoginRateLimitedException(toSeconds(retryAfterMs));
+    }
+  }
+
+  private static Counter rejectionCounter(MeterRegistry meterRegistry, String key) {
+    return Counter.builder("antares.login.rate-limited")
+        .description("Login attempts rejected by the node-local rate limiter")
+        .tag("key", key)
+        .register(meterRegistry);
+  }
+
+  private static long toSeconds(long millis) {
+    return Math.max(1, (millis + 999) / 1000);
+  }
+
+  /**
+   * Inner configuration record for the login rate limit properties. Maps properties starting with
+   * 'application.security.login.rate-limit'.
+   *
+   * <p>{@code window} (milliseconds) is the length of the sliding window, {@code ipLimit} and
+   * {@code emailLimit} the maximum numbers of attempts per client IP and per email within it, and
+   * {@code maxKeys} the maximum number of keys tracked by each limiter.
+   */
+  @ConfigurationProperties(prefix = "application.security.login.rate-limit")
+  @Validated
+  public record RateLimitProperties(
+      @NotNull @Positive Long window,
+      @NotNull @Positive Integer ipLimit,
+      @NotNull @Positive Integer emailLimit,
+      @NotNull @Positive Long maxKeys) {}
+}
@@ -0,0 +1,100 @@
+package apex.stellar.antares.security;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Authenticates a {@link PreloadedUserAuthenticationToken} against the user it carries, rather than
+ * loading the user again as {@link DaoAuthenticationProvider} does.
+ *
+ * <p>The login loads its user once, concurrently with the lock check: a second lookup would cost an
+ * extra query for every unknown email (misses are not cached), the very path of brute-force
+ * attempts. The verification otherwise follows {@link DaoAuthenticationProvider}: the account
+ * status checks, a password verified against a dummy hash when the email is unknown (so that its
+ * response time does not reveal it), and the rehash of passwords stored with an outdated encoding,
+ * persisted through the {@link UserDetailsPasswordService}.
+ */
+public class PreloadedUserAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider {
+
+  private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+  private final PasswordEncoder passwordEncoder;
+  private final UserDetailsPasswordService userDetailsPasswordService;
+
+  /** Hash verified when the email is unknown, computed on the first unknown email. */
+  private volatile @Nullable String userNotFoundEncodedPassword;
+
+  /**
+   * Creates the provider.
+   *
+   * @param passwordEncoder The encoder verifying (and upgrading) the passwords.
+   * @param userDetailsPasswordService The service persisting upgraded password hashes.
+   */
+  public PreloadedUserAuthenticationProvider(
+      PasswordEncoder passwordEncoder, UserDetailsPasswordService userDetailsPasswordService) {
+    this.passwordEncoder = passwordEncoder;
+    this.userDetailsPasswordService = userDetailsPasswordService;
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return PreloadedUserAuthenticationToken.class.isAssignableFrom(authentication);
+  }
+
+  @Override
+  protected UserDetails retrieveUser(
+      String username, UsernamePasswordAuthenticationToken authentication) {
+    UserDetails user = ((PreloadedUserAuthenticationToken) authentication).getUser();
+    if (user == null) {
+      mitigateAgainstTimingAttack(authentication);
+      throw new UsernameNotFoundException("Unknown user");
+    }
+    return user;
+  }
+
+  @Override
+  protected void additionalAuthenticationChecks(
+      UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) {
+    if (authentication.getCredentials() == null
+        || !passwordEncoder.matches(
+            authentication.getCredentials().toString(), userDetails.getPassword())) {
+      throw new BadCredentialsException(
+          messages.getMessage(
+              "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+    }
+  }
+
+  @Override
+  protected Authentication createSuccessAuthentication(
+      Object principal, Authentication authentication, UserDetails user) {
+    UserDetails authenticatedUser = user;
+    if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+      String presentedPassword = String.valueOf(authentication.getCredentials());
+      authenticatedUser =
+          userDetailsPasswordService.updatePassword(
+              user, passwordEncoder.encode(presentedPassword));
+    }
+    return super.createSuccessAuthentication(principal, authentication, authenticatedUser);
+  }
+
+  /** Verifies the password presented against a dummy hash, as for a known email. */
+  private void mitigateAgainstTimingAttack(UsernamePasswordAuthenticationToken authentication) {
+    if (authentication.getCredentials() == null) {
+      return;
+    }
+    String encodedPassword = userNotFoundEncodedPassword;
+    if (encodedPassword == null) {
+      encodedPassword = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
+      userNotFoundEncodedPassword = encodedPassword;
+    }
+    passwordEncoder.matches(authentication.getCredentials().toString(), encodedPassword);
+  }
+}
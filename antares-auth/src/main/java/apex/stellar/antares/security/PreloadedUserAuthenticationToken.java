@@ -0,0 +1,40 @@
+package apex.stellar.antares.security;
+
+import java.io.Serial;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Login request (email and password) carrying the user loaded beforehand for that email, or none if
+ * the email is unknown. Authenticated by the {@link PreloadedUserAuthenticationProvider}, which
+ * does not load the user again.
+ */
+public class PreloadedUserAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+  @Serial private static final long serialVersionUID = 1L;
+
+  private final transient @Nullable UserDetails user;
+
+  /**
+   * Creates an unauthenticated login request.
+   *
+   * @param email The email presented.
+   * @param password The raw password presented.
+   * @param user The user loaded for that email, or {@code null} if there is none.
+   */
+  public PreloadedUserAuthenticationToken(
+      String email, String password, @Nullable UserDetails user) {
+    super(email, password);
+    this.user = user;
+  }
+
+  /**
+   * Returns the user loaded for the email presented.
+   *
+   * @return The user, or {@code null} if the email is unknown.
+   */
+  public @Nullable UserDetails getUser() {
+    return user;
+  }
+}
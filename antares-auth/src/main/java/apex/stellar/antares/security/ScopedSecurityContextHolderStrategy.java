@@ -0,0 +1,160 @@
+package apex.stellar.antares.security;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.util.Assert;
+
+/**
+ * {@link SecurityContextHolderStrategy} storing the security context in a {@link ScopedValue}
+ * rather than a thread-local.
+ *
+ * <p>Each request is run in a scope of its own (see {@link SecurityContextScopeFilter}), binding an
+ * empty slot that Spring Security then fills as usual. The slot is bound, not copied: reading the
+ * principal costs no thread-local lookup, and nothing is left behind on the (possibly virtual)
+ * request thread once the scope ends. The subtasks forked by the request inherit the owner's
+ * context through {@link #inherit(Callable)}, as a read-only copy in a slot of their own: a subtask
+ * may replace its context ({@link #setContext}, {@link #clearContext}), which never affects its
+ * owner or siblings, but not modify the inherited one ({@link SecurityContext#setAuthentication}
+ * throws an {@link UnsupportedOperationException}). Only the security context is inherited this
+ * way: the locale, held by Spring's thread-local {@code LocaleContextHolder}, is propagated by the
+ * {@code FailFastTaskScope} itself.
+ *
+ * <p>Outside a scope (startup, scheduled tasks, tests calling the service layer directly), the
+ * strategy falls back to a plain thread-local, like Spring Security's default strategy.
+ */
+public final class ScopedSecurityContextHolderStrategy implements SecurityContextHolderStrategy {
+
+  private static final ScopedValue<Slot> SLOT = ScopedValue.newInstance();
+  private static final ThreadLocal<@Nullable Supplier<SecurityContext>> FALLBACK =
+      new ThreadLocal<>();
+
+  /**
+   * Runs an operation in a new scope, with an empty security context.
+   *
+   * @param operation The operation.
+   * @param <T> The type of its result.
+   * @return The result of the operation.
+   * @throws Exception the exception thrown by the operation.
+   */
+  public static <T> T callInNewScope(Callable<T> operation) throws Exception {
+    return ScopedValue.where(SLOT, new Slot(null)).call(operation::call);
+  }
+
+  /**
+   * Wraps a subtask so that it runs with the security context of the calling thread.
+   *
+   * <p>The subtask gets a slot of its own, initialized with a read-only copy of the caller's
+   * context: nothing the subtask does is visible to the caller. Outside a scope, the subtask is
+   * returned as is.
+   *
+   * @param task The subtask, to be run on another thread.
+   * @param <T> The type of its result.
+   * @return The wrapped subtask.
+   */
+  public static <T> Callable<T> inherit(Callable<T> task) {
+    if (!SLOT.isBound()) {
+      return task;
+    }
+    Supplier<SecurityContext> current = SLOT.get().context;
+    SecurityContext context =
+        new InheritedSecurityContext(current != null ? current.get().getAuthentication() : null);
+    return () -> ScopedValue.where(SLOT, new Slot(() -> context)).call(task::call);
+  }
+
+  @Override
+  public void clearContext() {
+    if (SLOT.isBound()) {
+      SLOT.get().context = null;
+    } else {
+      FALLBACK.remove();
+    }
+  }
+
+  @Override
+  public SecurityContext getContext() {
+    return getDeferredContext().get();
+  }
+
+  @Override
+  public Supplier<SecurityContext> getDeferredContext() {
+    Supplier<SecurityContext> context = current();
+    if (context == null) {
+      SecurityContext emptyContext = createEmptyContext();
+      context = () -> emptyContext;
+      store(context);
+    }
+    return context;
+  }
+
+  @Override
+  public void setContext(SecurityContext context) {
+    Assert.notNull(context, "Only non-null SecurityContext instances are permitted");
+    store(() -> context);
+  }
+
+  @Override
+  public void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+    Assert.notNull(deferredContext, "Only non-null Supplier instances are permitted");
+    store(
+        () -> {
+          SecurityContext context = deferredContext.get();
+          Assert.notNull(context, "A Supplier<SecurityContext> returned null and is not allowed.");
+          return context;
+        });
+  }
+
+  @Override
+  public SecurityContext createEmptyContext() {
+    return new SecurityContextImpl();
+  }
+
+  private static @Nullable Supplier<SecurityContext> current() {
+    return SLOT.isBound() ? SLOT.get().context : FALLBACK.get();
+  }
+
+  private static void store(Supplier<SecurityContext> context) {
+    if (SLOT.isBound()) {
+      SLOT.get().context = context;
+    } else {
+      FALLBACK.set(context);
+    }
+  }
+
+  /**
+   * The context of a scope, set by Spring Security once the scope is bound (hence mutable). Only
+   * ever accessed by the thread the scope is bound to: subtasks get slots of their own.
+   */
+  private static final class Slot {
+
+    private @Nullable Supplier<SecurityContext> context;
+
+    private Slot(@Nullable Supplier<SecurityContext> context) {
+      this.context = context;
+    }
+  }
+
+  /**
+   * The read-only copy of a context handed to a subtask.
+   *
+   * @param authentication The authentication of the owner's context, if any.
+   */
+  private record InheritedSecurityContext(@Nullable Authentication authentication)
+      implements SecurityContext {
+
+    @Override
+    public @Nullable Authentication getAuthentication() {
+      return authentication;
+    }
+
+    @Override
+    public void setAuthentication(@Nullable Authentication authentication) {
+      throw new UnsupportedOperationException(
+          "A subtask cannot modify the inherited security context; set a new one instead");
+    }
+  }
+}
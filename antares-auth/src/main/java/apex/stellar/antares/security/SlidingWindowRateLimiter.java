@@ -0,0 +1,97 @@
+package apex.stellar.antares.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process, memory-bounded sliding-window rate limiter.
+ *
+ * <p>Uses the sliding window counter approximation: each key keeps the number of permits granted in
+ * the current and the previous fixed window, and the previous count is weighted by the share of the
+ * previous window still covered by the sliding one. The state of a key is an immutable snapshot
+ * replaced with a compare-and-set, so acquiring a permit never blocks.
+ *
+ * <p>Keys are held in a size-bounded Caffeine cache and dropped once idle for two windows: a flood
+ * of distinct keys evicts the least useful entries instead of growing the heap.
+ */
+public class SlidingWindowRateLimiter {
+
+  private final int limit;
+  private final long windowMs;
+  private final LongSupplier clock;
+  private final Cache<String, AtomicReference<Window>> windows;
+
+  /**
+   * Creates a limiter using the system clock.
+   *
+   * @param limit The maximum number of permits per key within any sliding window.
+   * @param window The length of the sliding window.
+   * @param maxKeys The maximum number of tracked keys.
+   */
+  public SlidingWindowRateLimiter(int limit, Duration window, long maxKeys) {
+    this(limit, window, maxKeys, System::currentTimeMillis);
+  }
+
+  SlidingWindowRateLimiter(int limit, Duration window, long maxKeys, LongSupplier clock) {
+    this.limit = limit;
+    this.windowMs = window.toMillis();
+    this.clock = clock;
+    this.windows =
+        Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(window.multipliedBy(2))
+            .build();
+  }
+
+  /**
+   * Tries to acquire a permit for the key.
+   *
+   * @param key The rate-limited key (e.g., a client IP).
+   * @return 0 if the permit was granted, otherwise the delay in milliseconds before the current
+   *     window ends.
+   */
+  public long tryAcquire(String key) {
+    AtomicReference<Window> state = windows.getIfPresent(key);
+    if (state == null) {
+      state = windows.get(key, ignored -> new AtomicReference<>(new Window(0, 0, 0)));
+    }
+
+    long now = clock.getAsLong();
+    long windowStart = now - Math.floorMod(now, windowMs);
+    while (true) {
+      Window current = state.get();
+      Window rolled = current.rollTo(windowStart, windowMs);
+      double previousWeight = 1.0 - (double) (now - windowStart) / windowMs;
+      if (rolled.previous() * previousWeight + rolled.current() + 1 > limit) {
+        return windowStart + windowMs - now;
+      }
+      if (state.compareAndSet(current, rolled.increment())) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Permits granted for a key in two consecutive fixed windows.
+   *
+   * @param start The start of the current window (epoch milliseconds).
+   * @param previous The permits granted in the previous window.
+   * @param current The permits granted in the current window.
+   */
+  private record Window(long start, int previous, int current) {
+
+    Window rollTo(long windowStart, long windowMs) {
+      if (start == windowStart) {
+        return this;
+      }
+      return new Window(windowStart, start == windowStart - windowMs ? current : 0, 0);
+    }
+
+    Window increment() {
+      return new Window(start, previous, current + 1);
+    }
+  }
+}
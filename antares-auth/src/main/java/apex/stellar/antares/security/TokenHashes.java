@@ -0,0 +1,31 @@
+package apex.stellar.antares.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Hashes tokens before they are used as keys (refresh tokens in Redis, forward-auth decisions in
+ * memory), so that a raw token is never stored.
+ */
+public final class TokenHashes {
+
+  private TokenHashes() {}
+
+  /**
+   * Hashes a raw token.
+   *
+   * @param token The raw token.
+   * @return Its SHA-256 hash, Base64url-encoded without padding.
+   */
+  public static String sha256(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package apex.stellar.antares.service;
 
+import apex.stellar.antares.concurrent.FailFastTaskScope;
 import apex.stellar.antares.dto.AuthenticationRequest;
 import apex.stellar.antares.dto.RegisterRequest;
 import apex.stellar.antares.dto.TokenRefreshResponse;
@@ -11,20 +12,37 @@ import apex.stellar.antares.mapper.UserMapper;
 import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
 import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.security.PreloadedUserAuthenticationProvider;
+import apex.stellar.antares.security.PreloadedUserAuthenticationToken;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.jspecify.annotations.Nullable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-/** Service for handling user authentication, registration, token issuance, and logout. */
+/**
+ * Service for handling user authentication, registration, token issuance, and logout.
+ *
+ * <p>The authentication flows are deliberately not transactional: each repository call runs in its
+ * own short transaction, so a pooled database connection is never held while BCrypt runs or while
+ * Redis is called. Their independent steps run concurrently, on virtual threads (see {@link
+ * FailFastTaskScope}).
+ */
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
 
+  /** The unique constraint on the users' email, as named by PostgreSQL (see the V1 migration). */
+  private static final String EMAIL_UNIQUE_CONSTRAINT = "users_email_key";
+
   private final UserRepository repository;
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
@@ -33,31 +51,58 @@ public class AuthenticationService {
   private final RefreshTokenService refreshTokenService;
   private final CookieService cookieService;
   private final LoginAttemptService loginAttemptService;
+  private final TokenGenerationService tokenGenerationService;
+  private final UserDetailsService userDetailsService;
 
   /**
    * Registers a new user and issues JWT tokens.
    *
+   * <p>Not transactional: the password is hashed before the (short) insert transaction, so that no
+   * database connection is held during BCrypt hashing or Redis calls. The hashing overlaps the
+   * check of the email, and is cancelled if the email is already in use. A concurrent registration
+   * of the same email is caught by the unique constraint on the email; any other integrity
+   * violation is rethrown as is.
+   *
    * @param request The registration request containing user details.
    * @param response The HTTP response to set cookies.
    * @return UserResponse containing the registered user's details.
    * @throws DataConflictException if the email is already in use.
    */
-  @Transactional
   public UserResponse register(RegisterRequest request, HttpServletResponse response) {
 
-    if (repository.findByEmail(request.email()).isPresent()) {
-      throw new DataConflictException("error.email.in.use", request.email());
+    String encodedPassword;
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      scope.fork(
+          () -> {
+            if (repository.findByEmail(request.email()).isPresent()) {
+              throw new DataConflictException("error.email.in.use", request.email());
+            }
+            return null;
+          });
+      FailFastTaskScope.Subtask<String> hashing =
+          scope.fork(() -> passwordEncoder.encode(request.password()));
+      scope.join();
+      encodedPassword = hashing.get();
     }
 
-    User savedUser =
-        repository.save(
-            User.builder()
-                .firstName(request.firstName())
-                .lastName(request.lastName())
-                .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
-                .role(Role.ROLE_USER)
-                .build());
+    User newUser =
+        User.builder()
+            .firstName(request.firstName())
+            .lastName(request.lastName())
+            .email(request.email())
+            .password(encodedPassword)
+            .role(Role.ROLE_USER)
+            .build();
+
+    User savedUser;
+    try {
+      savedUser = repository.save(newUser);
+    } catch (DataIntegrityViolationException e) {
+      if (!violatesUniqueEmail(e)) {
+        throw e;
+      }
+      throw new DataConflictException("error.email.in.use", request.email());
+    }
 
     issueTokensAndSetCookies(savedUser, response);
 
@@ -67,30 +112,45 @@ public class AuthenticationService {
   /**
    * Authenticates a user and issues JWT tokens.
    *
+   * <p>The user is loaded once (through the cached {@link UserDetailsService}), concurrently with
+   * the lock check, then handed to the authentication (see {@link
+   * PreloadedUserAuthenticationProvider}): an unknown email costs a single query. The load runs on
+   * the calling thread rather than in a subtask, so that a failed lock check never interrupts it:
+   * an interrupt during a database call would close its pooled connection. The principal of the
+   * authentication is the {@link User} the tokens and the response are built from. The password is
+   * only verified once the account is known not to be locked, so that a locked account does not
+   * cost a BCrypt verification.
+   *
    * @param request The authentication request containing user credentials.
    * @param response The HTTP response to set cookies.
    * @return UserResponse containing the authenticated user's details.
-   * @throws ResourceNotFoundException if the user email does not exist.
+   * @throws BadCredentialsException if the email does not exist or the password is wrong.
    */
-  @Transactional
   public UserResponse login(AuthenticationRequest request, HttpServletResponse response) {
 
-    // Vérifier si le compte est verrouillé
-    if (loginAttemptService.isBlocked(request.email())) {
-      long secondsRemaining = loginAttemptService.getBlockTimeRemaining(request.email());
-      throw new AccountLockedException("error.account.locked", secondsRemaining / 60);
+    // Vérifier si le compte est verrouillé, pendant le chargement de l'utilisateur
+    UserDetails loadedUser;
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      scope.fork(
+          () -> {
+            LoginAttemptService.LoginAttemptStatus attemptStatus =
+                loginAttemptService.getStatus(request.email());
+            if (attemptStatus.locked()) {
+              throw new AccountLockedException(
+                  "error.account.locked", attemptStatus.lockRemainingSeconds() / 60);
+            }
+            return null;
+          });
+      loadedUser = findUser(request.email());
+      scope.join();
     }
 
     try {
-      authenticationManager.authenticate(
-          new UsernamePasswordAuthenticationToken(request.email(), request.password()));
-
-      User user =
-          repository
-              .findByEmail(request.email())
-              .orElseThrow(
-                  () ->
-                      new ResourceNotFoundException("error.user.not.found.email", request.email()));
+      Authentication authentication =
+          authenticationManager.authenticate(
+              new PreloadedUserAuthenticationToken(
+                  request.email(), request.password(), loadedUser));
+      User user = (User) authentication.getPrincipal();
 
       // Réinitialiser les tentatives en cas de succès
       loginAttemptService.loginSucceeded(request.email());
@@ -108,26 +168,30 @@ public class AuthenticationService {
   /**
    * Refreshes JWT tokens using the provided refresh token.
    *
+   * <p>The old refresh token is consumed and replaced atomically. Duplicate refreshes within the
+   * grace period (e.g., several tabs) receive the same new refresh token; past it, a replayed token
+   * is rejected.
+   *
    * @param oldRefreshToken The (raw) old refresh token from the user's cookie.
    * @param response The HTTP response to set new cookies.
    * @return TokenRefreshResponse containing the new access token.
    * @throws ResourceNotFoundException if the refresh token is not found in Redis.
    */
-  @Transactional
   public TokenRefreshResponse refreshToken(String oldRefreshToken, HttpServletResponse response) {
 
-    String newAccessToken =
-        issueTokensAndSetCookies(
-            refreshTokenService
-                .findUserByToken(oldRefreshToken)
-                .orElseThrow(() -> new ResourceNotFoundException("error.token.refresh.notfound")),
-            response);
+    RefreshTokenService.RotatedRefreshToken rotated =
+        refreshTokenService
+            .rotateRefreshToken(oldRefreshToken, jwtService::generateToken)
+            .orElseThrow(() -> new ResourceNotFoundException("error.token.refresh.notfound"));
+
+    setTokenCookies(rotated.accessToken(), rotated.refreshToken(), response);
 
-    return new TokenRefreshResponse(newAccessToken);
+    return new TokenRefreshResponse(rotated.accessToken());
   }
 
   /**
-   * Logs out the user by deleting their refresh token from Redis and clearing cookies.
+   * Logs out the user everywhere by deleting their refresh token from Redis, revoking their access
+   * tokens on every node and clearing cookies.
    *
    * @param currentUser The currently authenticated user.
    * @param response The HTTP response to clear cookies.
@@ -135,10 +199,65 @@ public class AuthenticationService {
   public void logout(User currentUser, HttpServletResponse response) {
 
     refreshTokenService.deleteTokenForUser(currentUser);
+    tokenGenerationService.revokeAll(currentUser.getId());
     cookieService.clearCookie(jwtService.getAccessTokenCookieName(), response);
     cookieService.clearCookie(jwtService.getRefreshTokenCookieName(), response);
   }
 
+  /**
+   * Starts a new session for an already authenticated user (e.g., after a password change ended
+   * their previous sessions), issuing new tokens in cookies.
+   *
+   * @param user The authenticated user.
+   * @param response The HTTP response to set the cookies.
+   */
+  public void startSession(User user, HttpServletResponse response) {
+
+    issueTokensAndSetCookies(user, response);
+  }
+
+  /**
+   * Reissues the access token of a user whose claims changed (email, locale), in a cookie. Until it
+   * expires, the previous token would otherwise carry the former values (e.g., the locale read in
+   * claims-only mode). The refresh token is left as is.
+   *
+   * @param user The updated user.
+   * @param response The HTTP response to set the cookie.
+   */
+  public void reissueAccessToken(User user, HttpServletResponse response) {
+
+    cookieService.addCookie(
+        jwtService.getAccessTokenCookieName(),
+        jwtService.generateToken(user),
+        jwtService.getAccessTokenDurationMs(),
+        response);
+  }
+
+  /**
+   * Checks whether an integrity violation is that of the unique constraint on the users' email,
+   * rather than any other constraint (e.g., a value too long, a check constraint).
+   */
+  private static boolean violatesUniqueEmail(DataIntegrityViolationException e) {
+    for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+      if (cause instanceof ConstraintViolationException violation) {
+        return EMAIL_UNIQUE_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Loads the user of a login. An unknown email is left to the authentication, which reports it as
+   * bad credentials.
+   */
+  private @Nullable UserDetails findUser(String email) {
+    try {
+      return userDetailsService.loadUserByUsername(email);
+    } catch (UsernameNotFoundException e) {
+      return null;
+    }
+  }
+
   /**
    * Centralized method to issue new tokens and set them in cookies.
    *
@@ -149,6 +268,20 @@ public class AuthenticationService {
   private String issueTokensAndSetCookies(User user, HttpServletResponse response) {
 
     String accessToken = jwtService.generateToken(user);
+    setTokenCookies(accessToken, refreshTokenService.createRefreshToken(user), response);
+
+    return accessToken;
+  }
+
+  /**
+   * Sets the access and refresh tokens in their respective cookies.
+   *
+   * @param accessToken The access token.
+   * @param refreshToken The raw refresh token.
+   * @param response The HTTP response.
+   */
+  private void setTokenCookies(
+      String accessToken, String refreshToken, HttpServletResponse response) {
 
     cookieService.addCookie(
         jwtService.getAccessTokenCookieName(),
@@ -158,10 +291,8 @@ public class AuthenticationService {
 
     cookieService.addCookie(
         jwtService.getRefreshTokenCookieName(),
-        refreshTokenService.createRefreshToken(user),
+        refreshToken,
         jwtService.getRefreshTokenDurationMs(),
         response);
-
-    return accessToken;
   }
 }
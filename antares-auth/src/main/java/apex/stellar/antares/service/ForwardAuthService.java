@@ -0,0 +1,151 @@
+package apex.stellar.antares.service;
+
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.UserAuthenticationConverter;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import apex.stellar.antares.security.TokenHashes;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service taking the access decisions of the forward-auth endpoint ({@code /verify}).
+ *
+ * <p>Traefik calls this endpoint on every request to an administration service, usually replaying
+ * the same token over and over. Decisions are therefore cached in a bounded in-process cache keyed
+ * by the SHA-256 hash of the token (the raw token is never retained):
+ *
+ * <ul>
+ *   <li>Allow/deny decisions are cached until the token's {@code exp}.
+ *   <li>Invalid tokens (bad signature, expired, wrong issuer/audience, unknown user) are cached
+ *       negatively for a short, configurable period.
+ *   <li>Concurrent lookups of the same token are single-flighted: only one thread verifies it.
+ *   <li>Cached decisions are dropped as soon as the user revokes their tokens (see {@link
+ *       TokenGenerationService}).
+ * </ul>
+ */
+@Service
+public class ForwardAuthService {
+
+  private final JwtDecoder jwtDecoder;
+  private final UserAuthenticationConverter userAuthenticationConverter;
+  private final TokenGenerationService tokenGenerationService;
+  private final AccessTokenExpiryPolicy accessTokenExpiryPolicy;
+  private final Duration negativeTtl;
+  private final Cache<String, CachedDecision> decisions;
+
+  /**
+   * Creates the service and its decision cache.
+   *
+   * @param jwtDecoder The decoder verifying the token signature and claims.
+   * @param userAuthenticationConverter The converter resolving the principal and its authorities.
+   * @param tokenGenerationService The service telling whether a cached token was revoked since.
+   * @param accessTokenExpiryPolicy The policy bounding how long a decision stays cached.
+   * @param meterRegistry The registry exposing the decision cache metrics.
+   * @param jwtProperties The JWT properties (decision cache size and negative TTL).
+   */
+  public ForwardAuthService(
+      JwtDecoder jwtDecoder,
+      UserAuthenticationConverter userAuthenticationConverter,
+      TokenGenerationService tokenGenerationService,
+      AccessTokenExpiryPolicy accessTokenExpiryPolicy,
+      MeterRegistry meterRegistry,
+      JwtProperties jwtProperties) {
+    this.jwtDecoder = jwtDecoder;
+    this.userAuthenticationConverter = userAuthenticationConverter;
+    this.tokenGenerationService = tokenGenerationService;
+    this.accessTokenExpiryPolicy = accessTokenExpiryPolicy;
+    this.negativeTtl = Duration.ofMillis(jwtProperties.verify().negativeTtl());
+    this.decisions =
+        Caffeine.newBuilder()
+            .maximumSize(jwtProperties.verify().cacheMaxSize())
+            .expireAfter(
+                Expiry.creating(
+                    (String key, CachedDecision cached) -> durationUntil(cached.expiresAt())))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, decisions, "forward-auth");
+  }
+
+  /**
+   * Decides whether the bearer of the token may access the administration services.
+   *
+   * @param token The raw access token, or {@code null} if the request carried none.
+   * @return The access decision.
+   */
+  public Decision decide(String token) {
+    if (token == null || token.isBlank()) {
+      return Decision.UNAUTHENTICATED;
+    }
+    CachedDecision cached = decisions.get(TokenHashes.sha256(token), ignored -> evaluate(token));
+
+    // The user may have revoked their tokens since the decision was cached (in-memory check)
+    if (cached.userId() != null
+        && tokenGenerationService.isRevoked(cached.userId(), cached.generation())) {
+      return Decision.UNAUTHENTICATED;
+    }
+    return cached.decision();
+  }
+
+  /** Verifies the token and derives the decision from the principal's authorities. */
+  private CachedDecision evaluate(String token) {
+    Jwt jwt;
+    try {
+      jwt = jwtDecoder.decode(token);
+    } catch (JwtException e) {
+      return rejected();
+    }
+
+    try {
+      boolean isAdmin =
+          userAuthenticationConverter.convert(jwt).getAuthorities().stream()
+              .anyMatch(authority -> Role.ROLE_ADMIN.name().equals(authority.getAuthority()));
+
+      Number userId = jwt.getClaim(JwtService.USER_ID_CLAIM);
+      Number generation = jwt.getClaim(JwtService.GENERATION_CLAIM);
+      return new CachedDecision(
+          isAdmin ? Decision.GRANTED : Decision.FORBIDDEN,
+          accessTokenExpiryPolicy.effectiveExpiry(jwt),
+          userId != null ? userId.longValue() : null,
+          generation != null ? generation.longValue() : 0L);
+    } catch (UsernameNotFoundException e) {
+      return rejected();
+    }
+  }
+
+  private CachedDecision rejected() {
+    return new CachedDecision(Decision.UNAUTHENTICATED, Instant.now().plus(negativeTtl), null, 0L);
+  }
+
+  private static Duration durationUntil(Instant instant) {
+    if (instant == null) {
+      return Duration.ZERO;
+    }
+    Duration remaining = Duration.between(Instant.now(), instant);
+    return remaining.isNegative() ? Duration.ZERO : remaining;
+  }
+
+  /** Outcome of a forward-auth verification. */
+  public enum Decision {
+    /** The token is valid and belongs to an administrator. */
+    GRANTED,
+    /** The token is valid, but its bearer lacks the administrator role. */
+    FORBIDDEN,
+    /** The token is missing or invalid. */
+    UNAUTHENTICATED
+  }
+
+  private record CachedDecision(
+      Decision decision, Instant expiresAt, @Nullable Long userId, long generation) {}
+}
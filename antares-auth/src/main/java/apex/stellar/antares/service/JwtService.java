@@ -1,18 +1,19 @@
 package apex.stellar.antares.service;
 
 import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.JwtSigningKeys;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
-import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
@@ -27,13 +28,58 @@ import org.springframework.web.util.WebUtils;
  *
  * <p><b>Note:</b> Token validation and parsing are delegated to the Spring Security OAuth2 Resource
  * Server configuration and are not handled by this service.
+ *
+ * <p>The latency of token generation is exposed by the {@code antares.token.generate} timer.
  */
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
+  /** Claim holding the space-separated authorities of the user. */
+  public static final String SCOPE_CLAIM = "scope";
+
+  /** Claim holding the user's unique identifier. */
+  public static final String USER_ID_CLAIM = "uid";
+
+  /** Claim holding the user's preferred locale at issuance. */
+  public static final String LOCALE_CLAIM = "locale";
+
+  /** Claim holding the user's token generation at issuance (see {@link TokenGenerationService}). */
+  public static final String GENERATION_CLAIM = "ver";
+
   private final JwtProperties jwtProperties;
   private final JwtEncoder jwtEncoder;
+  private final JwtSigningKeys jwtSigningKeys;
+  private final TokenGenerationService tokenGenerationService;
+  private final AccessTokenExpiryPolicy accessTokenExpiryPolicy;
+  private final Timer generationTimer;
+
+  /**
+   * Creates the service.
+   *
+   * @param jwtProperties The JWT properties.
+   * @param jwtEncoder The encoder signing the tokens.
+   * @param jwtSigningKeys The signing keys, providing the token header.
+   * @param tokenGenerationService The service providing the 'ver' claim.
+   * @param accessTokenExpiryPolicy The policy deciding the token expiry.
+   * @param meterRegistry The registry exposing the token generation latency.
+   */
+  public JwtService(
+      JwtProperties jwtProperties,
+      JwtEncoder jwtEncoder,
+      JwtSigningKeys jwtSigningKeys,
+      TokenGenerationService tokenGenerationService,
+      AccessTokenExpiryPolicy accessTokenExpiryPolicy,
+      MeterRegistry meterRegistry) {
+    this.jwtProperties = jwtProperties;
+    this.jwtEncoder = jwtEncoder;
+    this.jwtSigningKeys = jwtSigningKeys;
+    this.tokenGenerationService = tokenGenerationService;
+    this.accessTokenExpiryPolicy = accessTokenExpiryPolicy;
+    this.generationTimer =
+        Timer.builder("antares.token.generate")
+            .description("Latency of access token generation, signature included")
+            .register(meterRegistry);
+  }
 
   /**
    * Retrieves the configured name for the access token cookie.
@@ -75,13 +121,21 @@ public class JwtService {
    * Generates a signed JWT access token for the provided user details.
    *
    * <p>This method constructs a {@link JwtClaimsSet} containing standard claims (iss, aud, sub,
-   * exp, iat, jti) and a custom 'scope' claim representing the user's authorities. The token is
-   * signed using the {@link JwtEncoder} with the HMAC SHA-256 algorithm.
+   * exp, iat, jti), the expiry being jittered by the {@link AccessTokenExpiryPolicy} and a custom
+   * 'scope' claim representing the user's authorities. When the user is a persisted {@link User},
+   * the 'uid' and 'locale' claims are added as well, so that a lightweight principal can be built
+   * from the token alone, along with the 'ver' claim allowing its revocation (see {@link
+   * TokenGenerationService}). The token is signed using the {@link JwtEncoder}, with the header
+   * (algorithm and 'kid') provided by {@link JwtSigningKeys}.
    *
    * @param userDetails The user for whom the token is being generated.
    * @return The signed JWT string.
    */
   public String generateToken(UserDetails userDetails) {
+    return generationTimer.record(() -> encodeToken(userDetails));
+  }
+
+  private String encodeToken(UserDetails userDetails) {
     Instant now = Instant.now();
 
     // Convert authorities to a space-separated string, compliant with the standard OAuth2 "scope"
@@ -91,19 +145,25 @@ public class JwtService {
             .map(GrantedAuthority::getAuthority)
             .collect(Collectors.joining(" "));
 
-    JwtClaimsSet claims =
+    JwtClaimsSet.Builder claims =
         JwtClaimsSet.builder()
             .issuer(jwtProperties.issuer())
             .audience(Collections.singletonList(jwtProperties.audience()))
             .issuedAt(now)
-            .expiresAt(now.plus(getAccessTokenDurationMs(), ChronoUnit.MILLIS))
+            .expiresAt(accessTokenExpiryPolicy.expiresAt(now))
             .subject(userDetails.getUsername())
             .id(UUID.randomUUID().toString())
-            .claim("scope", scope)
-            .build();
+            .claim(SCOPE_CLAIM, scope);
+
+    if (userDetails instanceof User user && user.getId() != null) {
+      claims
+          .claim(USER_ID_CLAIM, user.getId())
+          .claim(LOCALE_CLAIM, user.getLocale())
+          .claim(GENERATION_CLAIM, tokenGenerationService.generationForIssuance(user.getId()));
+    }
 
     JwtEncoderParameters parameters =
-        JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims);
+        JwtEncoderParameters.from(jwtSigningKeys.header(), claims.build());
 
     return jwtEncoder.encode(parameters).getTokenValue();
   }
@@ -1,9 +1,11 @@
 package apex.stellar.antares.service;
 
-import java.util.concurrent.TimeUnit;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 /**
@@ -11,16 +13,62 @@ import org.springframework.stereotype.Service;
  * prevent brute-force attacks.
  *
  * <p>It leverages Redis to store attempt counts and lock status with automatic expiration (TTL),
- * ensuring a stateless and scalable implementation.
+ * ensuring a stateless and scalable implementation. Each operation is a single round trip: the
+ * read-modify-write flows run as Lua scripts, executed atomically (EVALSHA), so that concurrent
+ * failures cannot overshoot the maximum number of attempts.
+ *
+ * <p>The latency of each operation is exposed by the {@code antares.redis.operation} timer, tagged
+ * {@code store=login-attempts}.
  */
 @Service
-@RequiredArgsConstructor
 public class LoginAttemptService {
 
   private static final String ATTEMPT_PREFIX = "login_attempts:";
   private static final String LOCK_PREFIX = "account_locked:";
 
+  // KEYS: attempt key, lock key. Returns {attempts, locked (0/1), lock TTL (ms)}.
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static final RedisScript<List<Long>> STATUS_SCRIPT =
+      (RedisScript)
+          RedisScript.of(
+              """
+              local attempts = tonumber(redis.call('GET', KEYS[1]) or '0')
+              local ttl = redis.call('PTTL', KEYS[2])
+              if ttl == -2 then
+                return {attempts, 0, 0}
+              end
+              return {attempts, 1, math.max(ttl, 0)}
+              """,
+              List.class);
+
+  // KEYS: attempt key, lock key. ARGV: max attempts, lock duration (ms).
+  // Returns {attempts, locked (0/1), lock TTL (ms)}. Failures on a locked account are not counted.
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static final RedisScript<List<Long>> FAILURE_SCRIPT =
+      (RedisScript)
+          RedisScript.of(
+              """
+              local ttl = redis.call('PTTL', KEYS[2])
+              if ttl ~= -2 then
+                return {0, 1, math.max(ttl, 0)}
+              end
+              local attempts = redis.call('INCR', KEYS[1])
+              if attempts == 1 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+              end
+              if attempts >= tonumber(ARGV[1]) then
+                redis.call('SET', KEYS[2], 'true', 'PX', ARGV[2])
+                redis.call('DEL', KEYS[1])
+                return {attempts, 1, tonumber(ARGV[2])}
+              end
+              return {attempts, 0, 0}
+              """,
+              List.class);
+
   private final StringRedisTemplate redisTemplate;
+  private final Timer failureTimer;
+  private final Timer resetTimer;
+  private final Timer statusTimer;
 
   // Injectable configuration with safe defaults (5 attempts, 15-minute lock)
   @Value("${application.security.login.max-attempts:5}")
@@ -29,35 +77,38 @@ public class LoginAttemptService {
   @Value("${application.security.login.lock-duration:900000}")
   private long lockDurationMs;
 
+  /**
+   * Creates the service.
+   *
+   * @param redisTemplate The template running the attempt scripts.
+   * @param meterRegistry The registry exposing the latency of the Redis operations.
+   */
+  public LoginAttemptService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.failureTimer = redisTimer(meterRegistry, "failure");
+    this.resetTimer = redisTimer(meterRegistry, "reset");
+    this.statusTimer = redisTimer(meterRegistry, "status");
+  }
+
   /**
    * Records a failed login attempt for the specified email.
    *
    * <p>This method increments the failure count in Redis. If the count reaches the configured
    * maximum, the account is locked for the defined duration, and the attempt counter is cleared.
+   * Failures on an already locked account neither count nor extend the lock.
    *
    * @param email The email of the user who failed to log in.
+   * @return The attempt status after this failure.
    */
-  public void loginFailed(String email) {
-    String attemptKey = ATTEMPT_PREFIX + email;
-    String lockKey = LOCK_PREFIX + email;
-
-    // Atomically increment the attempt count
-    Long attempts = redisTemplate.opsForValue().increment(attemptKey);
-
-    // On the first failure, set the expiration for the attempt counter window
-    // ensuring we don't keep stale counters forever.
-    if (attempts != null && attempts == 1) {
-      redisTemplate.expire(attemptKey, lockDurationMs, TimeUnit.MILLISECONDS);
-    }
-
-    // Check if the security threshold is reached
-    if (attempts != null && attempts >= maxAttempts) {
-      // Lock the account by setting a specific flag key
-      redisTemplate.opsForValue().set(lockKey, "true", lockDurationMs, TimeUnit.MILLISECONDS);
-
-      // Clean up the attempt counter as the penalty is now applied
-      redisTemplate.delete(attemptKey);
-    }
+  public LoginAttemptStatus loginFailed(String email) {
+    return toStatus(
+        failureTimer.record(
+            () ->
+                redisTemplate.execute(
+                    FAILURE_SCRIPT,
+                    keys(email),
+                    Integer.toString(maxAttempts),
+                    Long.toString(lockDurationMs))));
   }
 
   /**
@@ -68,31 +119,54 @@ public class LoginAttemptService {
    * @param email The email of the authenticated user.
    */
   public void loginSucceeded(String email) {
-    redisTemplate.delete(ATTEMPT_PREFIX + email);
-    redisTemplate.delete(LOCK_PREFIX + email);
+    resetTimer.record(() -> redisTemplate.delete(keys(email)));
   }
 
   /**
-   * Checks if the account associated with the email is currently locked.
+   * Retrieves the attempt count and the lock status of the account associated with the email.
    *
    * @param email The email to check.
-   * @return {@code true} if the account is locked, {@code false} otherwise.
+   * @return The current attempt status.
    */
-  public boolean isBlocked(String email) {
-    return Boolean.TRUE.equals(redisTemplate.hasKey(LOCK_PREFIX + email));
+  public LoginAttemptStatus getStatus(String email) {
+    return toStatus(statusTimer.record(() -> redisTemplate.execute(STATUS_SCRIPT, keys(email))));
+  }
+
+  private static List<String> keys(String email) {
+    return List.of(ATTEMPT_PREFIX + email, LOCK_PREFIX + email);
+  }
+
+  private static Timer redisTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("antares.redis.operation")
+        .description("Latency of the Redis operations, per store and operation")
+        .tag("store", "login-attempts")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  private static LoginAttemptStatus toStatus(List<Long> result) {
+    if (result == null || result.size() < 3) {
+      return new LoginAttemptStatus(0, false, 0);
+    }
+    return new LoginAttemptStatus(result.get(0), result.get(1) == 1, result.get(2));
   }
 
   /**
-   * Retrieves the remaining time in seconds before the account is unlocked.
+   * Login attempt status of an account.
    *
-   * @param email The locked email.
-   * @return The remaining lock duration in seconds, or 0 if the account is not locked.
+   * @param attempts The number of failed attempts in the current window.
+   * @param locked Whether the account is currently locked.
+   * @param lockRemainingMs The remaining lock duration in milliseconds, or 0 if not locked.
    */
-  public long getBlockTimeRemaining(String email) {
-    Long ttl = redisTemplate.getExpire(LOCK_PREFIX + email, TimeUnit.SECONDS);
+  public record LoginAttemptStatus(long attempts, boolean locked, long lockRemainingMs) {
 
-    // Redis getExpire returns -2 if the key does not exist, or -1 if it has no expiry.
-    // We normalize these values to 0 for the API response.
-    return (ttl != null && ttl > 0) ? ttl : 0;
+    /**
+     * Returns the remaining lock duration in seconds.
+     *
+     * @return The remaining lock duration in seconds, or 0 if the account is not locked.
+     */
+    public long lockRemainingSeconds() {
+      return lockRemainingMs / 1000;
+    }
   }
 }
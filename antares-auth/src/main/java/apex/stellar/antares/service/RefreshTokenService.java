@@ -1,68 +1,166 @@
 package apex.stellar.antares.service;
 
 import apex.stellar.antares.config.JwtProperties;
-import apex.stellar.antares.model.RefreshToken;
 import apex.stellar.antares.model.User;
-import apex.stellar.antares.repository.RefreshTokenRepository;
+import apex.stellar.antares.repository.RefreshTokenStore;
 import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.security.TokenHashes;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for managing the lifecycle of refresh tokens using Spring Data Redis.
+ * Service for managing the lifecycle of refresh tokens.
+ *
+ * <p>Only the SHA-256 hash of a token is stored, in the {@link RefreshTokenStore}. Each operation
+ * (issue, rotate, revoke) is a single atomic round trip to Redis.
+ *
+ * <p>Several browser tabs often refresh with the same cookie at once. To keep the losers of that
+ * race signed in, a rotated token keeps yielding the same replacement for a short grace period:
+ *
+ * <ul>
+ *   <li>On this node, duplicate rotations of a token are single-flighted and share the pair issued
+ *       by the first one, as long as its refresh token is live: a session revoked since (logout,
+ *       password change, new login) is not handed out again. The first rotation runs on its
+ *       caller's thread and publishes its pair through a {@link CompletableFuture}: the Redis round
+ *       trip, the user lookup and the signing of the access token never run within a computation of
+ *       the cache, which would block the rotations of other tokens.
+ *   <li>Across nodes, the replacement is kept in Redis next to the rotated token, encrypted
+ *       (AES-GCM) with a key derived from the rotated raw token: reading Redis is not enough to
+ *       recover it, presenting the rotated token is.
+ * </ul>
+ *
+ * <p>Refreshes are counted by outcome ({@code rotated}, {@code shared} within the grace period,
+ * {@code rejected}) in {@code antares.token.refresh}: its rate is the refresh arrival curve,
+ * flattened by the expiry jitter of the access tokens (see {@code AccessTokenExpiryPolicy}).
  */
 @Service
-@RequiredArgsConstructor
 public class RefreshTokenService {
 
-  private final RefreshTokenRepository refreshTokenRepository;
+  private static final String GRACE_KEY_LABEL = "antares-refresh-grace";
+  private static final int GCM_IV_LENGTH = 12;
+  private static final int GCM_TAG_BITS = 128;
+  private static final long MAX_RECENT_ROTATIONS = 10_000;
+  private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+  private final RefreshTokenStore refreshTokenStore;
   private final UserRepository userRepository;
   private final JwtProperties jwtProperties;
+  private final Duration gracePeriod;
+  private final @Nullable AsyncCache<String, RotatedRefreshToken> recentRotations;
+  private final Counter rotatedRefreshes;
+  private final Counter sharedRefreshes;
+  private final Counter rejectedRefreshes;
+
+  /**
+   * Creates the service and, unless the grace period is disabled, its cache of recent rotations.
+   *
+   * @param refreshTokenStore The Redis store of the refresh tokens.
+   * @param userRepository The repository resolving the owner of a token.
+   * @param jwtProperties The JWT properties (refresh token lifetime and grace period).
+   * @param meterRegistry The registry exposing the refresh counters.
+   */
+  public RefreshTokenService(
+      RefreshTokenStore refreshTokenStore,
+      UserRepository userRepository,
+      JwtProperties jwtProperties,
+      MeterRegistry meterRegistry) {
+    this.refreshTokenStore = refreshTokenStore;
+    this.userRepository = userRepository;
+    this.jwtProperties = jwtProperties;
+    this.gracePeriod = Duration.ofMillis(jwtProperties.refreshToken().gracePeriod());
+    this.recentRotations =
+        gracePeriod.isZero()
+            ? null
+            : Caffeine.newBuilder()
+                .expireAfterWrite(gracePeriod)
+                .maximumSize(MAX_RECENT_ROTATIONS)
+                .buildAsync();
+    this.rotatedRefreshes = refreshCounter(meterRegistry, "rotated");
+    this.sharedRefreshes = refreshCounter(meterRegistry, "shared");
+    this.rejectedRefreshes = refreshCounter(meterRegistry, "rejected");
+  }
 
   /**
-   * Creates a new refresh token for the given user.
-   * Enforces "one session per user" by invalidating any existing token.
+   * Creates a new refresh token for the given user. Enforces "one session per user" by invalidating
+   * any existing token, atomically.
    *
    * @param user The user.
    * @return The raw token string.
    */
   public String createRefreshToken(User user) {
-    // 1. Invalidate previous session
-    deleteTokenForUser(user);
-
-    // 2. Generate and Hash token
     String rawToken = UUID.randomUUID().toString();
-    String hashedToken = hashValue(rawToken);
-
-    // 3. Save to Redis via Repository
-    RefreshToken token = RefreshToken.builder()
-        .id(hashedToken)
-        .userId(user.getId())
-        .expiration(jwtProperties.refreshToken().expiration() / 1000) // Seconds
-        .build();
-
-    refreshTokenRepository.save(token);
-
+    refreshTokenStore.issue(user.getId(), TokenHashes.sha256(rawToken), tokenLifetime());
     return rawToken;
   }
 
   /**
-   * Finds a user associated with a raw refresh token.
+   * Exchanges a raw refresh token for a new token pair. The presented token is consumed atomically;
+   * presenting it again within the grace period yields the same refresh token (and, on the same
+   * node, the same access token) instead of a failure, unless that refresh token is no longer live.
+   * Past that period, it is rejected.
    *
    * @param rawToken The raw token from cookie.
-   * @return The User if found and valid.
+   * @param accessTokenIssuer The function issuing an access token for the owner of the token.
+   * @return The user and the new token pair, or empty if the presented token is invalid.
    */
-  public Optional<User> findUserByToken(String rawToken) {
-    String hashedToken = hashValue(rawToken);
+  public Optional<RotatedRefreshToken> rotateRefreshToken(
+      String rawToken, Function<User, String> accessTokenIssuer) {
+    String tokenHash = TokenHashes.sha256(rawToken);
+    if (recentRotations == null) {
+      return rotate(rawToken, tokenHash, accessTokenIssuer);
+    }
+
+    // Duplicates wait for the first rotation, then reuse its pair (rejections and failures are
+    // not kept: the cache drops the futures completed with null or exceptionally)
+    CompletableFuture<RotatedRefreshToken> rotation = new CompletableFuture<>();
+    CompletableFuture<RotatedRefreshToken> firstRotation =
+        recentRotations.asMap().putIfAbsent(tokenHash, rotation);
+    if (firstRotation == null) {
+      try {
+        Optional<RotatedRefreshToken> rotated = rotate(rawToken, tokenHash, accessTokenIssuer);
+        rotation.complete(rotated.orElse(null));
+        return rotated;
+      } catch (RuntimeException | Error e) {
+        rotation.completeExceptionally(e);
+        throw e;
+      }
+    }
 
-    return refreshTokenRepository.findById(hashedToken)
-        .flatMap(refreshToken -> userRepository.findById(refreshToken.getUserId()));
+    RotatedRefreshToken rotated;
+    try {
+      rotated = firstRotation.join();
+    } catch (CompletionException | CancellationException e) {
+      // The first rotation failed, possibly after consuming the token: the grace period in Redis
+      // still yields its replacement, if any
+      return rotate(rawToken, tokenHash, accessTokenIssuer);
+    }
+    // The replacement may have been revoked since, possibly on another node
+    if (rotated == null || !refreshTokenStore.exists(TokenHashes.sha256(rotated.refreshToken()))) {
+      recentRotations.asMap().remove(tokenHash, firstRotation);
+      rejectedRefreshes.increment();
+      return Optional.empty();
+    }
+    sharedRefreshes.increment();
+    return Optional.of(rotated);
   }
 
   /**
@@ -71,18 +169,109 @@ public class RefreshTokenService {
    * @param user The user.
    */
   public void deleteTokenForUser(User user) {
-    // Thanks to @Indexed on userId, we can find the token by user ID efficiently
-    refreshTokenRepository.findByUserId(user.getId())
-        .ifPresent(refreshTokenRepository::delete);
+    refreshTokenStore.revoke(user.getId());
   }
 
-  private String hashValue(String value) {
+  private Optional<RotatedRefreshToken> rotate(
+      String rawToken, String tokenHash, Function<User, String> accessTokenIssuer) {
+    String newRawToken = UUID.randomUUID().toString();
+    String sealedNewToken = gracePeriod.isZero() ? "" : seal(rawToken, newRawToken);
+
+    Optional<RefreshTokenStore.Rotation> rotation =
+        refreshTokenStore.rotate(
+            tokenHash,
+            TokenHashes.sha256(newRawToken),
+            sealedNewToken,
+            tokenLifetime(),
+            gracePeriod);
+
+    // Rotated by another node within the grace period: share its refresh token
+    Optional<String> refreshToken =
+        rotation.flatMap(
+            result ->
+                result.sealedToken() == null
+                    ? Optional.of(newRawToken)
+                    : unseal(rawToken, result.sealedToken()));
+    Optional<RotatedRefreshToken> rotated =
+        refreshToken.flatMap(
+            token ->
+                userRepository
+                    .findById(rotation.get().userId())
+                    .map(
+                        user ->
+                            new RotatedRefreshToken(user, accessTokenIssuer.apply(user), token)));
+
+    if (rotated.isEmpty()) {
+      rejectedRefreshes.increment();
+    } else if (rotation.get().sealedToken() == null) {
+      rotatedRefreshes.increment();
+    } else {
+      sharedRefreshes.increment();
+    }
+    return rotated;
+  }
+
+  private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("antares.token.refresh")
+        .description("Refresh token exchanges, by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  /** Encrypts the replacement token with a key derived from the rotated one. */
+  private static String seal(String rawToken, String newRawToken) {
+    try {
+      byte[] iv = new byte[GCM_IV_LENGTH];
+      SECURE_RANDOM.nextBytes(iv);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, graceKey(rawToken), new GCMParameterSpec(GCM_TAG_BITS, iv));
+      byte[] ciphertext = cipher.doFinal(newRawToken.getBytes(StandardCharsets.UTF_8));
+
+      byte[] sealed = new byte[iv.length + ciphertext.length];
+      System.arraycopy(iv, 0, sealed, 0, iv.length);
+      System.arraycopy(ciphertext, 0, sealed, iv.length, ciphertext.length);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(sealed);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("AES-GCM encryption not available", e);
+    }
+  }
+
+  /** Decrypts a replacement token, or returns empty if it was not sealed for this token. */
+  private static Optional<String> unseal(String rawToken, String sealedToken) {
     try {
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
-      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException("SHA-256 algorithm not available", e);
+      byte[] sealed = Base64.getUrlDecoder().decode(sealedToken);
+      Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+      cipher.init(
+          Cipher.DECRYPT_MODE,
+          graceKey(rawToken),
+          new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_LENGTH));
+      byte[] plaintext = cipher.doFinal(sealed, GCM_IV_LENGTH, sealed.length - GCM_IV_LENGTH);
+      return Optional.of(new String(plaintext, StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException | IllegalArgumentException e) {
+      return Optional.empty();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Derives the AES key from the raw token (HMAC-SHA256 keyed by the token). Unlike the stored
+   * SHA-256 hash, it cannot be computed without the raw token.
+   */
+  private static SecretKeySpec graceKey(String rawToken) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(rawToken.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    return new SecretKeySpec(mac.doFinal(GRACE_KEY_LABEL.getBytes(StandardCharsets.UTF_8)), "AES");
+  }
+
+  private Duration tokenLifetime() {
+    return Duration.ofMillis(jwtProperties.refreshToken().expiration());
+  }
+
+  /**
+   * Result of a refresh token rotation.
+   *
+   * @param user The owner of the token.
+   * @param accessToken The new access token.
+   * @param refreshToken The new raw refresh token.
+   */
+  public record RotatedRefreshToken(User user, String accessToken, String refreshToken) {}
+}
@@ -0,0 +1,204 @@
+package apex.stellar.antares.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import apex.stellar.antares.config.JwtProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service maintaining the per-user token generations, used to revoke every access token of a user
+ * at once (logout, password change).
+ *
+ * <p>Each access token carries the generation of its user at issuance ({@code ver} claim). Revoking
+ * moves the generation forward: tokens carrying an older one are then rejected. A generation is the
+ * time of the last revocation (epoch milliseconds, bumped past the previous generation if need be),
+ * so that it only matters until the tokens issued before it expire: once the longest access token
+ * lifetime has elapsed, the entry is dropped, and the next revocation still yields a higher
+ * generation. Generations live in a Redis sorted set scored by generation (the source of truth),
+ * trimmed by age, and are mirrored in memory on every node, so that verifying a token never leaves
+ * the JVM:
+ *
+ * <ul>
+ *   <li>The mirror is loaded whenever the node (re)subscribes to the {@link #GENERATION_CHANNEL}
+ *       channel, and reloaded periodically; only users who revoked their tokens within the longest
+ *       access token lifetime are present, and each reload drops the older entries (in Redis too).
+ *   <li>Every revocation is pushed to the other nodes on the {@link #GENERATION_CHANNEL} channel.
+ *       Pushes sent while a node is disconnected are lost: the reload on resubscription, or the
+ *       periodic one if the subscription never dropped, catches up with them.
+ *   <li>Tokens are minted with the generation read from Redis, so that a node which has not
+ *       received a push yet never issues a token that would be rejected once it does.
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenGenerationService implements MessageListener, SubscriptionListener {
+
+  /** Redis Pub/Sub channel carrying the new generations ({@code <user id>:<generation>}). */
+  public static final String GENERATION_CHANNEL = "token:generation";
+
+  private static final String GENERATIONS_KEY = "token:generations";
+
+  /** Clock skew tolerated by the default {@code JwtTimestampValidator}. */
+  private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+  // KEYS: generations key. ARGV: user ID, now (ms). Returns the new generation.
+  private static final RedisScript<Long> REVOKE_SCRIPT =
+      RedisScript.of(
+          """
+          local previous = tonumber(redis.call('ZSCORE', KEYS[1], ARGV[1]) or '0')
+          local generation = math.max(previous + 1, tonumber(ARGV[2]))
+          redis.call('ZADD', KEYS[1], generation, ARGV[1])
+          return generation
+          """,
+          Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final JwtProperties jwtProperties;
+  private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+  /**
+   * Loads the generations from Redis, on a fixed delay ({@code
+   * application.security.token-generations.reload-interval}). The generations older than the
+   * longest access token lifetime are dropped beforehand, in Redis and in memory.
+   */
+  @Scheduled(
+      initialDelayString = "${application.security.token-generations.reload-interval}",
+      fixedDelayString = "${application.security.token-generations.reload-interval}")
+  public void loadGenerations() {
+    long cutoff = System.currentTimeMillis() - retention().toMillis();
+    try {
+      ZSetOperations<String, String> zSetOperations = redisTemplate.opsForZSet();
+      zSetOperations.removeRangeByScore(GENERATIONS_KEY, Double.NEGATIVE_INFINITY, cutoff);
+      Set<ZSetOperations.TypedTuple<String>> loaded =
+          zSetOperations.rangeByScoreWithScores(GENERATIONS_KEY, cutoff, Double.POSITIVE_INFINITY);
+      if (loaded != null) {
+        loaded.forEach(
+            entry -> update(Long.valueOf(entry.getValue()), entry.getScore().longValue()));
+      }
+      generations.values().removeIf(generation -> generation < cutoff);
+      log.debug("Loaded the token generations of {} users", generations.size());
+    } catch (RuntimeException e) {
+      log.warn("Failed to load the token generations: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Loads the generations once subscribed to the {@link #GENERATION_CHANNEL} channel, on startup
+   * and after every reconnection, so that no push missed while unsubscribed goes unnoticed.
+   */
+  @Override
+  public void onChannelSubscribed(byte @NonNull [] channel, long count) {
+    loadGenerations();
+    log.info("Subscribed to the token generations, {} users loaded", generations.size());
+  }
+
+  /**
+   * Reads the current generation of a user from Redis, to be embedded in a new token.
+   *
+   * @param userId The user ID.
+   * @return The current generation (0 if the user did not revoke their tokens lately).
+   */
+  public long generationForIssuance(Long userId) {
+    Double generation = redisTemplate.opsForZSet().score(GENERATIONS_KEY, userId.toString());
+    return generation != null ? update(userId, generation.longValue()) : currentGeneration(userId);
+  }
+
+  /**
+   * Returns the generation of a user, as known by this node.
+   *
+   * @param userId The user ID.
+   * @return The current generation (0 if the user did not revoke their tokens lately).
+   */
+  public long currentGeneration(Long userId) {
+    return generations.getOrDefault(userId, 0L);
+  }
+
+  /**
+   * Checks whether a token was revoked, from its 'uid' and 'ver' claims.
+   *
+   * @param jwt The verified token.
+   * @return {@code true} if the token was issued before the last revocation of its user.
+   */
+  public boolean isRevoked(Jwt jwt) {
+    Object userId = jwt.getClaim(JwtService.USER_ID_CLAIM);
+    if (!(userId instanceof Number id)) {
+      return false; // Legacy token: short-lived, it expires on its own
+    }
+    Object generation = jwt.getClaim(JwtService.GENERATION_CLAIM);
+    return isRevoked(id.longValue(), generation instanceof Number ver ? ver.longValue() : 0L);
+  }
+
+  /**
+   * Checks whether a token was revoked.
+   *
+   * @param userId The user ID.
+   * @param generation The generation the token was issued with.
+   * @return {@code true} if the token was issued before the last revocation of its user.
+   */
+  public boolean isRevoked(Long userId, long generation) {
+    return generation < currentGeneration(userId);
+  }
+
+  /**
+   * Revokes every access token issued so far to the user, on all nodes.
+   *
+   * @param userId The user ID.
+   */
+  public void revokeAll(Long userId) {
+    Long generation =
+        redisTemplate.execute(
+            REVOKE_SCRIPT,
+            List.of(GENERATIONS_KEY),
+            userId.toString(),
+            String.valueOf(System.currentTimeMillis()));
+    update(userId, generation);
+    try {
+      redisTemplate.convertAndSend(GENERATION_CHANNEL, userId + ":" + generation);
+    } catch (RuntimeException e) {
+      // The generation is persisted: other nodes pick it up on their next reload
+      log.warn("Failed to publish the token generation of user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /** Applies a new generation pushed by any node. */
+  @Override
+  public void onMessage(@NonNull Message message, byte @Nullable [] pattern) {
+    String[] parts = new String(message.getBody(), UTF_8).split(":", 2);
+    try {
+      update(Long.valueOf(parts[0]), Long.parseLong(parts[1]));
+    } catch (RuntimeException e) {
+      log.warn("Ignoring malformed token generation message: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * How long a generation matters: the longest access token lifetime (the jitter only shortens it),
+   * plus the clock skew allowance.
+   */
+  private Duration retention() {
+    return Duration.ofMillis(jwtProperties.accessToken().expiration()).plus(CLOCK_SKEW);
+  }
+
+  /** Generations only move forward, whatever the order in which updates arrive. */
+  private long update(Long userId, long generation) {
+    return generations.merge(userId, generation, Math::max);
+  }
+}
@@ -7,16 +7,25 @@ import apex.stellar.antares.dto.UserResponse;
 import apex.stellar.antares.exception.InvalidPasswordException;
 import apex.stellar.antares.mapper.UserMapper;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserPrincipal;
 import apex.stellar.antares.repository.UserRepository;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Service class for user-related operations, including profile and preferences management. All
- * methods that modify data are transactional.
+ * Service class for user-related operations, including profile and preferences management. Profile
+ * and preferences updates are transactional; a password change is not, so that its BCrypt hashing
+ * never holds a database connection (its single save runs in a transaction of its own).
+ *
+ * <p>Updates are written through to the "users" cache once committed (see {@link
+ * UserSnapshotService#writeThrough}), instead of evicting the entry and reloading it on the next
+ * request.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +34,38 @@ public class UserService {
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
   private final UserMapper userMapper;
+  private final UserDetailsService userDetailsService;
+  private final UserSnapshotService userSnapshotService;
+  private final TokenGenerationService tokenGenerationService;
+  private final RefreshTokenService refreshTokenService;
+
+  /**
+   * Resolves the full {@link User} entity behind the current authentication.
+   *
+   * <p>In claims-only mode the principal is a lightweight {@link UserPrincipal}, and the entity is
+   * loaded lazily (through the cached {@link UserDetailsService}) only by the endpoints that need
+   * it. Otherwise, the principal already is the entity and is returned as is.
+   *
+   * @param authentication The current authentication.
+   * @return The authenticated {@link User}, or empty if it cannot be resolved.
+   */
+  public Optional<User> resolveCurrentUser(Authentication authentication) {
+
+    if (authentication.getPrincipal() instanceof User user) {
+      return Optional.of(user);
+    }
+
+    if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+      try {
+        return Optional.of((User) userDetailsService.loadUserByUsername(principal.email()));
+      } catch (UsernameNotFoundException e) {
+        // The account was deleted or renamed since the token was issued
+        return Optional.empty();
+      }
+    }
+
+    return Optional.empty();
+  }
 
   /**
    * Updates the core profile information (name, email) of a user.
@@ -34,12 +75,14 @@ public class UserService {
    * @return The updated {@link UserResponse} DTO.
    */
   @Transactional
-  @CacheEvict(value = "users", key = "#currentUser.email")
   public UserResponse updateProfile(User currentUser, ProfileUpdateRequest request) {
 
+    String previousEmail = currentUser.getEmail();
     userMapper.updateFromProfile(request, currentUser);
+    User saved = userRepository.save(currentUser);
+    userSnapshotService.writeThrough(saved, previousEmail);
 
-    return userMapper.toUserResponse(userRepository.save(currentUser));
+    return userMapper.toUserResponse(saved);
   }
 
   /**
@@ -50,24 +93,27 @@ public class UserService {
    * @return The updated {@link UserResponse} DTO.
    */
   @Transactional
-  @CacheEvict(value = "users", key = "#currentUser.email")
   public UserResponse updatePreferences(User currentUser, PreferencesUpdateRequest request) {
 
     userMapper.updateFromPreferences(request, currentUser);
+    User saved = userRepository.save(currentUser);
+    userSnapshotService.writeThrough(saved, currentUser.getEmail());
 
-    return userMapper.toUserResponse(userRepository.save(currentUser));
+    return userMapper.toUserResponse(saved);
   }
 
   /**
    * Changes the password for the currently authenticated user.
    *
+   * <p>As on logout, every session of the user is ended: their access tokens are revoked and their
+   * refresh token deleted. The caller is responsible for issuing a new session to the user, if the
+   * current one is to survive.
+   *
    * @param request The DTO containing passwords.
    * @param currentUser The user entity to update (from security context).
    * @throws InvalidPasswordException if the current password is incorrect, or if the new passwords
    *     do not match.
    */
-  @Transactional
-  @CacheEvict(value = "users", key = "#currentUser.email")
   public void changePassword(ChangePasswordRequest request, User currentUser) {
 
     if (!passwordEncoder.matches(request.currentPassword(), currentUser.getPassword())) {
@@ -78,7 +124,12 @@ public class UserService {
       throw new InvalidPasswordException("error.password.mismatch");
     }
 
+    // Both BCrypt operations run outside any transaction: only the save borrows a connection
     currentUser.setPassword(passwordEncoder.encode(request.newPassword()));
-    userRepository.save(currentUser);
+    userSnapshotService.writeThrough(userRepository.save(currentUser), currentUser.getEmail());
+
+    // Tokens issued with the old password are revoked on every node, refresh token included
+    tokenGenerationService.revokeAll(currentUser.getId());
+    refreshTokenService.deleteTokenForUser(currentUser);
   }
 }
@@ -0,0 +1,114 @@
+package apex.stellar.antares.service;
+
+import apex.stellar.antares.cache.TwoTierCache;
+import apex.stellar.antares.cache.TwoTierCacheManager;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserSnapshot;
+import apex.stellar.antares.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service loading the cached {@link UserSnapshot}s backing the {@code UserDetailsService}.
+ *
+ * <p>Lookups are cached (in-process, then Redis) in the "users" cache, keyed by email. The services
+ * updating a user write the new state straight back into the cache (see {@link #writeThrough}), so
+ * that the next request does not have to reload it.
+ *
+ * <p>The lookup is synchronized: on a miss, concurrent requests for the same user wait for a single
+ * database query, and hot entries are refreshed in the background before they expire (see {@link
+ * TwoTierCache}), through a lookup of their own registered at startup (see {@link
+ * #registerRefreshLoader}).
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSnapshotService {
+
+  private static final String USERS_CACHE = "users";
+
+  private final UserRepository userRepository;
+  private final MessageSource messageSource;
+  private final CacheManager cacheManager;
+
+  /**
+   * Registers the lookup refreshing the "users" entries in the background, when the cache supports
+   * it. It reads the database directly: the cached lookup would only return the entry being
+   * refreshed. A user no longer found is not cached again, and expires.
+   */
+  @PostConstruct
+  void registerRefreshLoader() {
+    if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+      twoTierCacheManager.registerRefreshLoader(
+          USERS_CACHE,
+          email ->
+              userRepository.findByEmail(email.toString()).map(UserSnapshot::from).orElse(null));
+    }
+  }
+
+  /**
+   * Loads the snapshot of a user by email.
+   *
+   * @param email The user's email.
+   * @return The snapshot of the user.
+   * @throws UsernameNotFoundException if no user has this email.
+   */
+  @Cacheable(value = USERS_CACHE, key = "#email", sync = true)
+  public UserSnapshot loadByEmail(String email) {
+    return userRepository
+        .findByEmail(email)
+        .map(UserSnapshot::from)
+        .orElseThrow(
+            () ->
+                new UsernameNotFoundException(
+                    messageSource.getMessage(
+                        "error.user.not.found.email",
+                        new Object[] {email},
+                        LocaleContextHolder.getLocale())));
+  }
+
+  /**
+   * Writes the saved state of a user to the cache.
+   *
+   * <p>Within a transaction, the write is deferred until after the commit: a rolled back update
+   * leaves the cached (still accurate) state untouched. The snapshot is taken at that time, so that
+   * it includes the changes applied on flush (e.g., the modification timestamp). If the email
+   * changed, the entry of the previous email is evicted.
+   *
+   * @param user The saved user.
+   * @param previousEmail The email the user was cached under before the update.
+   */
+  public void writeThrough(User user, String previousEmail) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      write(user, previousEmail);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            write(user, previousEmail);
+          }
+        });
+  }
+
+  private void write(User user, String previousEmail) {
+    Cache users = cacheManager.getCache(USERS_CACHE);
+    if (users == null) {
+      return;
+    }
+    users.put(user.getEmail(), UserSnapshot.from(user));
+    if (!user.getEmail().equals(previousEmail)) {
+      users.evict(previousEmail);
+    }
+  }
+}
@@ -0,0 +1,362 @@
+package apex.stellar.antares.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+/** Unit tests for {@link TwoTierCache}. */
+@ExtendWith(MockitoExtension.class)
+class TwoTierCacheTest {
+
+  @Mock private TwoTierCache.InvalidationPublisher invalidationPublisher;
+
+  private SimpleMeterRegistry meterRegistry;
+  private Cache remote;
+  private TwoTierCache cache;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    remote = spy(new ConcurrentMapCache("users"));
+    cache =
+        new TwoTierCache(
+            Caffeine.newBuilder().maximumSize(100).build(),
+            remote,
+            invalidationPublisher,
+            meterRegistry);
+  }
+
+  @Test
+  @DisplayName("get: a remote hit should populate the local tier")
+  void get_remoteHit_shouldPopulateLocalTier() {
+    // Given
+    remote.put("john@example.com", "john");
+
+    // When
+    cache.get("john@example.com");
+    Cache.ValueWrapper second = cache.get("john@example.com");
+
+    // Then: the second lookup is served locally
+    assertNotNull(second);
+    assertEquals("john", second.get());
+    verify(remote, times(1)).get("john@example.com");
+    long localHits =
+        meterRegistry
+            .get("antares.cache.lookup")
+            .tag("tier", "l1")
+            .tag("result", "hit")
+            .timer()
+            .count();
+    assertEquals(1, localHits);
+  }
+
+  @Test
+  @DisplayName("get(key, loader): should load once, store in both tiers and serve locally")
+  void getWithLoader_shouldLoadOnceAndStoreInBothTiers() {
+    // Given
+    AtomicInteger loads = new AtomicInteger();
+
+    // When
+    String first = cache.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+    String second = cache.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // Then
+    assertEquals("jane-1", first);
+    assertEquals("jane-1", second);
+    assertEquals(1, loads.get());
+    assertEquals("jane-1", remote.get("jane@example.com").get());
+    verifyNoInteractions(invalidationPublisher);
+  }
+
+  @Test
+  @DisplayName("get(key, loader): concurrent callers should share a single load")
+  void getWithLoader_concurrentCallers_shouldShareLoad() throws Exception {
+    // Given: a load blocking until released
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader =
+        () -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          assertTrue(releaseLoad.await(5, TimeUnit.SECONDS));
+          return "jane";
+        };
+
+    // When
+    Future<String> first = executor.submit(() -> cache.get("jane@example.com", loader));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+    Future<String> second = executor.submit(() -> cache.get("jane@example.com", loader));
+    releaseLoad.countDown();
+
+    // Then
+    assertEquals("jane", first.get(5, TimeUnit.SECONDS));
+    assertEquals("jane", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, loads.get());
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("get(key, loader): a slow load should not block the lookups of other keys")
+  void getWithLoader_slowLoad_shouldNotBlockOtherKeys() throws Exception {
+    // Given: a load of another key blocking until released
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    Future<String> slow =
+        executor.submit(
+            () ->
+                cache.get(
+                    "jane@example.com",
+                    () -> {
+                      loading.countDown();
+                      assertTrue(releaseLoad.await(5, TimeUnit.SECONDS));
+                      return "jane";
+                    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    // When & Then
+    try {
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(5),
+          () -> {
+            assertEquals("john", cache.get("john@example.com", () -> "john"));
+            cache.put("joe@example.com", "joe");
+            assertEquals("joe", cache.get("joe@example.com").get());
+          });
+    } finally {
+      releaseLoad.countDown();
+    }
+    assertEquals("jane", slow.get(5, TimeUnit.SECONDS));
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("get(key, loader): a write landing during a load should win in both tiers")
+  void getWithLoader_writeDuringLoad_shouldKeepWrittenValue() throws Exception {
+    // Given: a load reading the database before the write commits
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    Future<String> load =
+        executor.submit(
+            () ->
+                cache.get(
+                    "jane@example.com",
+                    () -> {
+                      loading.countDown();
+                      assertTrue(releaseLoad.await(5, TimeUnit.SECONDS));
+                      return "old-hash";
+                    }));
+    assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+    // When
+    cache.put("jane@example.com", "new-hash");
+    releaseLoad.countDown();
+
+    // Then: the loading caller got its value, but neither tier caches it
+    assertEquals("old-hash", load.get(5, TimeUnit.SECONDS));
+    assertEquals("new-hash", remote.get("jane@example.com").get());
+    assertEquals("new-hash", cache.get("jane@example.com").get());
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("evict: should clear both tiers and broadcast the invalidation")
+  void evict_shouldClearBothTiersAndPublish() {
+    // Given
+    cache.put("john@example.com", "john");
+
+    // When
+    cache.evict("john@example.com");
+
+    // Then
+    assertNull(cache.get("john@example.com"));
+    assertNull(remote.get("john@example.com"));
+    verify(invalidationPublisher, times(2)).publish("users", "john@example.com");
+  }
+
+  @Test
+  @DisplayName("evictLocal: should only drop the local copy")
+  void evictLocal_shouldKeepRemoteEntry() {
+    // Given
+    cache.put("john@example.com", "john");
+
+    // When
+    cache.evictLocal("john@example.com");
+    Cache.ValueWrapper result = cache.get("john@example.com");
+
+    // Then: the value is fetched again from the remote tier
+    assertNotNull(result);
+    assertEquals("john", result.get());
+    verify(remote).get("john@example.com");
+  }
+
+  @Test
+  @DisplayName("clear: should clear both tiers and broadcast a full invalidation")
+  void clear_shouldPublishFullInvalidation() {
+    // When
+    cache.clear();
+
+    // Then
+    verify(remote).clear();
+    verify(invalidationPublisher).publish("users", null);
+  }
+
+  @Test
+  @DisplayName("get(key, loader): a due entry should be refreshed through the refresh loader")
+  void getWithLoader_dueEntry_shouldRefreshAhead() {
+    // Given: an aggressive policy, so that any local hit is due
+    TwoTierCache refreshing = refreshAheadCache(Double.MAX_VALUE);
+    List<Object> refreshedKeys = new CopyOnWriteArrayList<>();
+    refreshing.setRefreshLoader(
+        key -> {
+          refreshedKeys.add(key);
+          return "jane-refreshed";
+        });
+    AtomicInteger loads = new AtomicInteger();
+    refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // When
+    String served = refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // Then: the caller got the cached value, the caller's loader was not replayed, and both tiers
+    // hold the refreshed value
+    assertEquals("jane-1", served);
+    assertEquals(1, loads.get());
+    assertEquals(List.of("jane@example.com"), refreshedKeys);
+    assertEquals("jane-refreshed", remote.get("jane@example.com").get());
+    assertEquals("jane-refreshed", refreshing.get("jane@example.com").get());
+    assertEquals(
+        1.0, meterRegistry.get("antares.cache.refresh").tag("result", "success").counter().count());
+    verify(invalidationPublisher).publish("users", "jane@example.com");
+  }
+
+  @Test
+  @DisplayName("get(key, loader): without a refresh loader, a due entry should not be refreshed")
+  void getWithLoader_withoutRefreshLoader_shouldNotRefresh() {
+    // Given
+    TwoTierCache refreshing = refreshAheadCache(Double.MAX_VALUE);
+    AtomicInteger loads = new AtomicInteger();
+    refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // When
+    String served = refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // Then
+    assertEquals("jane-1", served);
+    assertEquals(1, loads.get());
+    assertEquals("jane-1", remote.get("jane@example.com").get());
+  }
+
+  @Test
+  @DisplayName(
+      "get(key, loader): a refresh racing a write-through should not restore the old value")
+  void getWithLoader_refreshRacingWriteThrough_shouldKeepWrittenValue() throws Exception {
+    // Given: refreshes run on their own thread, and the refresh load blocks until released
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    TwoTierCache refreshing = refreshAheadCache(Double.MAX_VALUE, executor);
+    CountDownLatch refreshLoading = new CountDownLatch(1);
+    CountDownLatch releaseRefresh = new CountDownLatch(1);
+    refreshing.setRefreshLoader(
+        key -> {
+          // The refresh reads the database before the password change commits
+          refreshLoading.countDown();
+          try {
+            assertTrue(releaseRefresh.await(5, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return "old-hash";
+        });
+    refreshing.get("jane@example.com", () -> "old-hash");
+
+    // When: a local hit triggers the refresh, then the new value is written through
+    refreshing.get("jane@example.com", () -> "old-hash");
+    assertTrue(refreshLoading.await(5, TimeUnit.SECONDS));
+    refreshing.put("jane@example.com", "new-hash");
+    releaseRefresh.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // Then: both tiers keep the written value, and the refresh is not counted
+    assertEquals("new-hash", remote.get("jane@example.com").get());
+    assertEquals("new-hash", refreshing.get("jane@example.com").get());
+    assertEquals(
+        0.0, meterRegistry.get("antares.cache.refresh").tag("result", "success").counter().count());
+  }
+
+  @Test
+  @DisplayName("get(key, loader): an entry far from expiry should not be refreshed")
+  void getWithLoader_freshEntry_shouldNotRefresh() {
+    // Given
+    TwoTierCache refreshing = refreshAheadCache(1.0);
+    AtomicInteger loads = new AtomicInteger();
+    refreshing.setRefreshLoader(key -> "jane-" + loads.incrementAndGet());
+
+    // When
+    for (int i = 0; i < 100; i++) {
+      refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+    }
+
+    // Then
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  @DisplayName("get(key, loader): an evicted entry should not be refreshed")
+  void getWithLoader_evictedEntry_shouldNotRefresh() {
+    // Given
+    TwoTierCache refreshing = refreshAheadCache(Double.MAX_VALUE);
+    AtomicInteger loads = new AtomicInteger();
+    refreshing.setRefreshLoader(key -> "jane-" + loads.incrementAndGet());
+    refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+    refreshing.evict("jane@example.com");
+    remote.put("jane@example.com", "jane-updated");
+
+    // When: the entry is cached again from Redis, without a known expiry
+    refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+    String served = refreshing.get("jane@example.com", () -> "jane-" + loads.incrementAndGet());
+
+    // Then
+    assertEquals("jane-updated", served);
+    assertEquals(1, loads.get());
+  }
+
+  private TwoTierCache refreshAheadCache(double beta) {
+    return refreshAheadCache(beta, Runnable::run);
+  }
+
+  private TwoTierCache refreshAheadCache(double beta, Executor executor) {
+    return new TwoTierCache(
+        Caffeine.newBuilder().maximumSize(100).build(),
+        remote,
+        invalidationPublisher,
+        meterRegistry,
+        new TwoTierCache.RefreshAhead(
+            RedisCacheWriter.TtlFunction.just(Duration.ofMinutes(5)), beta, executor, 100));
+  }
+}
@@ -0,0 +1,88 @@
+package apex.stellar.antares.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserSnapshot;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/** Unit tests for {@link UserSnapshotRedisSerializer}. */
+class UserSnapshotRedisSerializerTest {
+
+  private final UserSnapshotRedisSerializer serializer = new UserSnapshotRedisSerializer();
+
+  private static User user() {
+    return User.builder()
+        .id(42L)
+        .firstName("Ada")
+        .lastName("Lovelace")
+        .email("ada@example.com")
+        .password("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoO5hHjFsYnLqDtB0Yjqk6Jb1gjyQnHc2e")
+        .role(Role.ROLE_USER)
+        .enabled(true)
+        .locale("fr")
+        .theme("dark")
+        .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000))
+        .updatedAt(LocalDateTime.of(2025, 6, 7, 8, 9, 10, 11_000))
+        .build();
+  }
+
+  @Test
+  @DisplayName("serialize/deserialize: should round-trip every field")
+  void shouldRoundTrip() {
+    // Given
+    UserSnapshot snapshot = UserSnapshot.from(user());
+
+    // When
+    UserSnapshot decoded = serializer.deserialize(serializer.serialize(snapshot));
+
+    // Then
+    assertEquals(snapshot, decoded);
+  }
+
+  @Test
+  @DisplayName("serialize/deserialize: should preserve null fields")
+  void shouldRoundTripNulls() {
+    // Given
+    UserSnapshot snapshot =
+        new UserSnapshot(
+            null, null, null, "a@b.c", "hash", Role.ROLE_ADMIN, true, "en", "light", null, null);
+
+    // When & Then
+    assertEquals(snapshot, serializer.deserialize(serializer.serialize(snapshot)));
+  }
+
+  @Test
+  @DisplayName("deserialize: should treat other formats as a cache miss")
+  void deserialize_unsupportedFormat_shouldReturnNull() {
+    // Given
+    byte[] nextVersion = serializer.serialize(UserSnapshot.from(user()));
+    nextVersion[0] = UserSnapshotRedisSerializer.VERSION + 1;
+    byte[] truncated = Arrays.copyOf(serializer.serialize(UserSnapshot.from(user())), 20);
+    byte[] jdkSerialized = new JdkSerializationRedisSerializer().serialize(user());
+
+    // When & Then
+    assertNull(serializer.deserialize(nextVersion));
+    assertNull(serializer.deserialize(truncated));
+    assertNull(serializer.deserialize(jdkSerialized));
+    assertNull(serializer.deserialize(new byte[0]));
+  }
+
+  @Test
+  @DisplayName("serialize: should be smaller than the JDK serialization of the entity")
+  void shouldBeSmallerThanJdkSerialization() {
+    // When
+    byte[] jdkBytes = new JdkSerializationRedisSerializer().serialize(user());
+    byte[] snapshotBytes = serializer.serialize(UserSnapshot.from(user()));
+
+    // Then (decoding times: see UserSnapshotSerializationBenchmark)
+    assertTrue(
+        snapshotBytes.length * 3 < jdkBytes.length,
+        () -> snapshotBytes.length + " bytes, against " + jdkBytes.length);
+  }
+}
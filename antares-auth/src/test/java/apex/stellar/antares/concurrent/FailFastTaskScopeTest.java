@@ -0,0 +1,101 @@
+package apex.stellar.antares.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+/** Unit tests for {@link FailFastTaskScope}. */
+class FailFastTaskScopeTest {
+
+  @Test
+  @DisplayName("join: should run the subtasks concurrently and expose their results")
+  void join_shouldRunSubtasksConcurrently() {
+    // Given: two subtasks which can only complete together
+    CountDownLatch bothStarted = new CountDownLatch(2);
+
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      FailFastTaskScope.Subtask<String> first = scope.fork(() -> awaitSibling(bothStarted, "a"));
+      FailFastTaskScope.Subtask<String> second = scope.fork(() -> awaitSibling(bothStarted, "b"));
+
+      // When
+      scope.join();
+
+      // Then
+      assertEquals("a", first.get());
+      assertEquals("b", second.get());
+    }
+  }
+
+  @Test
+  @DisplayName("join: should cancel the siblings and rethrow the first failure as is")
+  void join_withFailure_shouldCancelSiblings() {
+    // Given: a subtask failing once its sibling is running
+    CountDownLatch siblingStarted = new CountDownLatch(1);
+    AtomicBoolean siblingInterrupted = new AtomicBoolean();
+    IllegalArgumentException failure = new IllegalArgumentException("failed");
+
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      FailFastTaskScope.Subtask<Void> sibling =
+          scope.fork(
+              () -> {
+                siblingStarted.countDown();
+                try {
+                  Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                  siblingInterrupted.set(true);
+                }
+                return null;
+              });
+      scope.fork(
+          () -> {
+            siblingStarted.await();
+            throw failure;
+          });
+
+      // When & Then: the sibling is interrupted and awaited before the failure is rethrown
+      assertSame(failure, assertThrows(IllegalArgumentException.class, scope::join));
+      assertTrue(siblingInterrupted.get());
+      assertThrows(IllegalStateException.class, sibling::get);
+    }
+  }
+
+  @Test
+  @DisplayName("join: should wrap checked exceptions")
+  void join_withCheckedException_shouldWrapIt() {
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      scope.fork(
+          () -> {
+            throw new Exception("checked");
+          });
+
+      IllegalStateException thrown = assertThrows(IllegalStateException.class, scope::join);
+      assertEquals("checked", thrown.getCause().getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("fork: should run the subtasks with the locale of the owner thread")
+  void fork_shouldPropagateLocale() {
+    LocaleContextHolder.setLocale(Locale.FRENCH);
+    try (FailFastTaskScope scope = new FailFastTaskScope()) {
+      FailFastTaskScope.Subtask<Locale> locale = scope.fork(LocaleContextHolder::getLocale);
+      scope.join();
+
+      assertEquals(Locale.FRENCH, locale.get());
+    } finally {
+      LocaleContextHolder.resetLocaleContext();
+    }
+  }
+
+  private static String awaitSibling(CountDownLatch bothStarted, String result)
+      throws InterruptedException {
+    bothStarted.countDown();
+    bothStarted.await();
+    return result;
+  }
+}
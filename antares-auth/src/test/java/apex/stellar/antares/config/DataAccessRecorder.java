@@ -0,0 +1,121 @@
+package apex.stellar.antares.config;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL statements and Redis commands sent by the application, so that integration tests
+ * can hold each endpoint to a budget (see {@link #assertBudget}).
+ *
+ * <p>SQL statements are seen by Hibernate (as a {@link StatementInspector}), Redis commands by
+ * Lettuce once their reply is decoded (as a {@link CommandLatencyRecorder}): a Lua script counts as
+ * a single command, and every command of a request is recorded before the request completes.
+ * Recording is global to the application, which the sequential MockMvc requests of a test make
+ * equivalent to per-request.
+ */
+public class DataAccessRecorder implements StatementInspector, CommandLatencyRecorder {
+
+  private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+  private final Queue<String> commands = new ConcurrentLinkedQueue<>();
+  private volatile boolean recording;
+
+  /**
+   * Performs a request, then asserts the number of SQL statements and Redis commands it sent.
+   *
+   * @param name The name of the request, used in failure messages.
+   * @param maxStatements The maximum number of SQL statements.
+   * @param maxCommands The maximum number of Redis commands.
+   * @param request The request.
+   * @throws Exception if the request fails.
+   */
+  public void assertBudget(String name, int maxStatements, int maxCommands, Request request)
+      throws Exception {
+    Recording recording = record(request);
+    assertAll(
+        name,
+        () ->
+            assertTrue(
+                recording.statements().size() <= maxStatements,
+                () ->
+                    "%s: %d SQL statements, budget %d: %s"
+                        .formatted(
+                            name,
+                            recording.statements().size(),
+                            maxStatements,
+                            recording.statements())),
+        () ->
+            assertTrue(
+                recording.commands().size() <= maxCommands,
+                () ->
+                    "%s: %d Redis commands, budget %d: %s"
+                        .formatted(
+                            name, recording.commands().size(), maxCommands, recording.commands())));
+  }
+
+  /**
+   * Performs a request, recording the SQL statements and Redis commands it sent.
+   *
+   * @param request The request.
+   * @return The recorded statements and commands.
+   * @throws Exception if the request fails.
+   */
+  public Recording record(Request request) throws Exception {
+    statements.clear();
+    commands.clear();
+    recording = true;
+    try {
+      request.perform();
+    } finally {
+      recording = false;
+    }
+    return new Recording(List.copyOf(statements), List.copyOf(commands));
+  }
+
+  @Override
+  public String inspect(String sql) {
+    if (recording) {
+      statements.add(sql);
+    }
+    return sql;
+  }
+
+  @Override
+  public void recordCommandLatency(
+      SocketAddress local,
+      SocketAddress remote,
+      ProtocolKeyword commandType,
+      long firstResponseLatency,
+      long completionLatency) {
+    if (recording) {
+      commands.add(commandType.toString());
+    }
+  }
+
+  /**
+   * The data access of a request.
+   *
+   * @param statements The SQL statements, in order.
+   * @param commands The Redis command types, in order.
+   */
+  public record Recording(List<String> statements, List<String> commands) {}
+
+  /** A request whose data access is recorded. */
+  @FunctionalInterface
+  public interface Request {
+
+    /**
+     * Performs the request.
+     *
+     * @throws Exception if the request fails.
+     */
+    void perform() throws Exception;
+  }
+}
@@ -0,0 +1,31 @@
+package apex.stellar.antares.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.data.redis.autoconfigure.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Plugs the {@link DataAccessRecorder} into Hibernate and Lettuce.
+ *
+ * <p>The recorder replaces the default Lettuce latency collector, which the tests do not use.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class DataAccessRecorderConfig {
+
+  @Bean
+  DataAccessRecorder dataAccessRecorder() {
+    return new DataAccessRecorder();
+  }
+
+  @Bean
+  HibernatePropertiesCustomizer statementRecorderCustomizer(DataAccessRecorder recorder) {
+    return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, recorder);
+  }
+
+  @Bean
+  ClientResourcesBuilderCustomizer commandRecorderCustomizer(DataAccessRecorder recorder) {
+    return builder -> builder.commandLatencyRecorder(recorder);
+  }
+}
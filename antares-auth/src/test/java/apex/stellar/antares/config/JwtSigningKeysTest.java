@@ -0,0 +1,128 @@
+package apex.stellar.antares.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/** Unit tests for {@link JwtSigningKeys}. */
+class JwtSigningKeysTest {
+
+  @Test
+  @DisplayName("HS256: should use the MAC header and publish no key")
+  void hs256_shouldPublishEmptyKeySet() {
+    // When
+    JwtSigningKeys keys = new JwtSigningKeys(properties("HS256", null));
+
+    // Then
+    assertFalse(keys.isAsymmetric());
+    assertEquals("HS256", keys.header().getAlgorithm().getName());
+    assertEquals(List.of(), keys.publicJwkSet().get("keys"));
+  }
+
+  @Test
+  @DisplayName("ES256: should sign with the first key and publish every public key")
+  void es256_shouldSignWithActiveKeyAndPublishAllKeys() throws Exception {
+    // Given: an active key and a retiring, verify-only key
+    ECKey active = new ECKeyGenerator(Curve.P_256).keyID("key-2").generate();
+    ECKey retiring = new ECKeyGenerator(Curve.P_256).keyID("key-1").generate();
+    String jwkSet = new JWKSet(List.of(active, retiring.toPublicJWK())).toString(false);
+
+    // When
+    JwtSigningKeys keys = new JwtSigningKeys(properties("ES256", jwkSet));
+
+    // Then
+    assertTrue(keys.isAsymmetric());
+    assertEquals("key-2", keys.header().getKeyId());
+
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> published =
+        (List<Map<String, Object>>) keys.publicJwkSet().get("keys");
+    assertEquals(2, published.size());
+    assertTrue(published.stream().noneMatch(key -> key.containsKey("d")));
+
+    // A token signed with the retiring key is still accepted during the overlap window
+    NimbusJwtDecoder decoder =
+        NimbusJwtDecoder.withJwkSource(new ImmutableJWKSet<>(keys.publicKeys()))
+            .jwsAlgorithm(SignatureAlgorithm.ES256)
+            .build();
+    Jwt decoded = decoder.decode(sign(retiring));
+    assertEquals("john@example.com", decoded.getSubject());
+  }
+
+  @Test
+  @DisplayName("ES256: should reject a JWK set whose active key is not private")
+  void es256_shouldRejectPublicActiveKey() throws Exception {
+    // Given
+    ECKey key = new ECKeyGenerator(Curve.P_256).keyID("key-1").generate();
+    String jwkSet = new JWKSet(key.toPublicJWK()).toString(false);
+
+    // When & Then
+    JwtProperties properties = properties("ES256", jwkSet);
+    assertThrows(IllegalStateException.class, () -> new JwtSigningKeys(properties));
+  }
+
+  @Test
+  @DisplayName("ES256: should fail when no JWK set is configured")
+  void es256_withoutJwkSet_shouldFail() {
+    // When & Then
+    JwtProperties properties = properties("ES256", "");
+    assertThrows(IllegalStateException.class, () -> new JwtSigningKeys(properties));
+  }
+
+  @Test
+  @DisplayName("ES256: should generate an ephemeral key without JWK set, if explicitly allowed")
+  void es256_withoutJwkSet_whenEphemeralKeyAllowed_shouldGenerateKey() {
+    // When
+    JwtSigningKeys keys = new JwtSigningKeys(properties("ES256", "", true));
+
+    // Then
+    assertNotNull(keys.signingKey());
+    assertEquals(keys.signingKey().getKeyID(), keys.header().getKeyId());
+  }
+
+  private static String sign(ECKey key) {
+    NimbusJwtEncoder encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(key)));
+    Instant now = Instant.now();
+    JwtClaimsSet claims =
+        JwtClaimsSet.builder()
+            .subject("john@example.com")
+            .issuedAt(now)
+            .expiresAt(now.plusSeconds(60))
+            .build();
+    JwsHeader header = JwsHeader.with(SignatureAlgorithm.ES256).keyId(key.getKeyID()).build();
+    return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+  }
+
+  private static JwtProperties properties(String algorithm, String jwkSet) {
+    return properties(algorithm, jwkSet, false);
+  }
+
+  private static JwtProperties properties(String algorithm, String jwkSet, boolean ephemeralKey) {
+    return new JwtProperties(
+        "secret",
+        "test-issuer",
+        "test-audience",
+        new JwtProperties.AccessToken(60000L, "access", 0L, null, 0L),
+        new JwtProperties.RefreshToken(3600000L, "refresh", 0L),
+        new JwtProperties.CookieProperties(false, "stellar.atlas"),
+        false,
+        new JwtProperties.Signing(algorithm, jwkSet, 0, ephemeralKey),
+        null);
+  }
+}
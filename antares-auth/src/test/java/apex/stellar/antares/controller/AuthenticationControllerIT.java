@@ -8,10 +8,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import apex.stellar.antares.config.BaseIntegrationTest;
+import apex.stellar.antares.config.DataAccessRecorder;
 import apex.stellar.antares.dto.AuthenticationRequest;
 import apex.stellar.antares.dto.RegisterRequest;
 import apex.stellar.antares.repository.UserRepository;
 import jakarta.servlet.http.Cookie;
+import java.util.UUID;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.RedisConnection;
@@ -32,6 +34,7 @@ class AuthenticationControllerIT extends BaseIntegrationTest {
   @Autowired private MockMvc mockMvc;
   @Autowired private JsonMapper objectMapper;
   @Autowired private UserRepository userRepository;
+  @Autowired private DataAccessRecorder dataAccessRecorder;
 
   /** Cleans the database before each test (except for admin users). */
   @BeforeEach
@@ -210,4 +213,103 @@ class AuthenticationControllerIT extends BaseIntegrationTest {
         .perform(post("/antares/auth/refresh-token").cookie(invalidRefreshTokenCookie).with(csrf()))
         .andExpect(status().isNotFound());
   }
+
+  @Test
+  @DisplayName("Budgets: each step of the flow should stay within its SQL and Redis budget")
+  void testAuthenticationFlow_shouldStayWithinDataAccessBudgets() throws Exception {
+    // Given: a first flow loads the Lua scripts, so that EVALSHA never falls back to EVAL (its
+    // recorder is not plugged in, so nothing is asserted)
+    runFlow(new DataAccessRecorder());
+
+    // When/Then: budgets of a first login (cold user cache), documented per step
+    runFlow(dataAccessRecorder);
+  }
+
+  /**
+   * Registers, logs in, refreshes, reads the profile and logs out a new user, asserting the budget
+   * of each request.
+   */
+  private void runFlow(DataAccessRecorder recorder) throws Exception {
+    String email = "budget." + UUID.randomUUID() + "@example.com";
+
+    // SELECT (email check), INSERT; ZSCORE (generation), EVALSHA (refresh token)
+    recorder.assertBudget(
+        "register",
+        2,
+        2,
+        () ->
+            mockMvc
+                .perform(
+                    post("/antares/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            objectMapper.writeValueAsString(
+                                new RegisterRequest("Budget", "User", email, "password123"))))
+                .andExpect(status().isCreated()));
+
+    // SELECT (user details, also the principal); EVALSHA (attempts), GET + SET (users cache),
+    // DEL (attempts), ZSCORE (generation), EVALSHA (refresh token)
+    MvcResult[] login = new MvcResult[1];
+    recorder.assertBudget(
+        "login",
+        1,
+        6,
+        () ->
+            login[0] =
+                mockMvc
+                    .perform(
+                        post("/antares/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(
+                                objectMapper.writeValueAsString(
+                                    new AuthenticationRequest(email, "password123"))))
+                    .andExpect(status().isOk())
+                    .andReturn());
+    Cookie[] cookies = login[0].getResponse().getCookies();
+
+    // SELECT (user details, loaded once); EVALSHA (attempts), GET (users cache), EVALSHA (failure)
+    recorder.assertBudget(
+        "login (unknown email)",
+        1,
+        3,
+        () ->
+            mockMvc
+                .perform(
+                    post("/antares/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            objectMapper.writeValueAsString(
+                                new AuthenticationRequest("unknown." + email, "password123"))))
+                .andExpect(status().isUnauthorized()));
+
+    // SELECT (owner); EVALSHA (rotation), ZSCORE (generation)
+    recorder.assertBudget(
+        "refresh-token",
+        1,
+        2,
+        () ->
+            mockMvc
+                .perform(post("/antares/auth/refresh-token").cookie(cookies).with(csrf()))
+                .andExpect(status().isOk()));
+
+    // Served from the in-process users cache
+    recorder.assertBudget(
+        "me",
+        0,
+        0,
+        () ->
+            mockMvc
+                .perform(get("/antares/users/me").cookie(cookies).with(csrf()))
+                .andExpect(status().isOk()));
+
+    // EVALSHA (revocation), EVALSHA + PUBLISH (generation, + EVAL on its first use)
+    recorder.assertBudget(
+        "logout",
+        0,
+        4,
+        () ->
+            mockMvc
+                .perform(post("/antares/auth/logout").cookie(cookies).with(csrf()))
+                .andExpect(status().isOk()));
+  }
 }
@@ -68,6 +68,14 @@ class AuthenticationControllerVerifyIT extends BaseIntegrationTest {
                     "https://stellar.apex/auth/login?returnUrl=https%3A%2F%2Fadmin.stellar.atlas%2Fdashboard"));
   }
 
+  @Test
+  @DisplayName("Verify: Invalid token should redirect to login")
+  void testVerify_whenTokenInvalid_shouldRedirectToLogin() throws Exception {
+    mockMvc
+        .perform(get("/antares/auth/verify").cookie(new Cookie("stellar_access_token", "garbage")))
+        .andExpect(status().isFound());
+  }
+
   @Test
   @DisplayName("Verify: Authenticated USER (not admin) should be forbidden (403)")
   void testVerify_whenUserRole_shouldReturnForbidden() throws Exception {
@@ -0,0 +1,28 @@
+package apex.stellar.antares.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+/** Integration tests for the JWKS endpoint. */
+class JwksControllerIT extends BaseIntegrationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Test
+  @DisplayName("JWKS: should be public and cacheable")
+  void testGetJwks_shouldBePublicAndCacheable() throws Exception {
+    mockMvc
+        .perform(get("/.well-known/jwks.json"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "max-age=900, public"))
+        .andExpect(jsonPath("$.keys").isArray());
+  }
+}
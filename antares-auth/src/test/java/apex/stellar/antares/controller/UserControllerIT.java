@@ -1,17 +1,22 @@
 package apex.stellar.antares.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import apex.stellar.antares.config.BaseIntegrationTest;
+import apex.stellar.antares.config.DataAccessRecorder;
 import apex.stellar.antares.dto.AuthenticationRequest;
 import apex.stellar.antares.dto.ChangePasswordRequest;
 import apex.stellar.antares.dto.PreferencesUpdateRequest;
 import apex.stellar.antares.dto.ProfileUpdateRequest;
 import apex.stellar.antares.dto.RegisterRequest;
 import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.service.JwtService;
 import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +28,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import tools.jackson.databind.json.JsonMapper;
@@ -34,11 +40,15 @@ import tools.jackson.databind.json.JsonMapper;
 @AutoConfigureMockMvc
 class UserControllerIT extends BaseIntegrationTest {
 
+  private static final String ACCESS_TOKEN_COOKIE = "stellar_access_token";
+  private static final String REFRESH_TOKEN_COOKIE = "stellar_refresh_token";
+
   private final String initialEmail = "profile.user@example.com";
   private final String initialPassword = "password123";
   @Autowired private MockMvc mockMvc;
   @Autowired private JsonMapper objectMapper;
   @Autowired private UserRepository userRepository;
+  @Autowired private DataAccessRecorder dataAccessRecorder;
   private Cookie[] authCookies; // Stores auth cookies for test requests
 
   /** Cleans Redis after each test. */
@@ -127,6 +137,83 @@ class UserControllerIT extends BaseIntegrationTest {
         .andExpect(jsonPath("$.theme").value("dark"));
   }
 
+  @Test
+  @DisplayName("Update Preferences: should reissue the access token with the new locale")
+  void testUpdatePreferences_withNewLocale_shouldReissueAccessToken(
+      @Autowired JwtDecoder jwtDecoder) throws Exception {
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                patch("/antares/users/me/preferences")
+                    .cookie(authCookies)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PreferencesUpdateRequest("fr", "dark"))))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // Then: the new token carries the new locale, instead of the former one until it expires
+    Cookie accessTokenCookie = result.getResponse().getCookie(ACCESS_TOKEN_COOKIE);
+    assertNotNull(accessTokenCookie);
+    assertEquals(
+        "fr",
+        jwtDecoder.decode(accessTokenCookie.getValue()).getClaimAsString(JwtService.LOCALE_CLAIM));
+    mockMvc
+        .perform(get("/antares/users/me").cookie(accessTokenCookie).with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.locale").value("fr"));
+  }
+
+  @Test
+  @DisplayName("Update Preferences: should keep the access token if no claim changed")
+  void testUpdatePreferences_withSameLocale_shouldKeepAccessToken() throws Exception {
+    // When: only the theme changes
+    MvcResult result =
+        mockMvc
+            .perform(
+                patch("/antares/users/me/preferences")
+                    .cookie(authCookies)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new PreferencesUpdateRequest("en", "dark"))))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // Then
+    assertNull(result.getResponse().getCookie(ACCESS_TOKEN_COOKIE));
+  }
+
+  @Test
+  @DisplayName("Update Profile: should reissue the access token with the new email")
+  void testUpdateProfile_withNewEmail_shouldReissueAccessToken() throws Exception {
+    // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                put("/antares/users/me/profile")
+                    .cookie(authCookies)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new ProfileUpdateRequest("Profile", "User", "renamed@example.com"))))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // Then: the new token identifies the user by the new email
+    Cookie accessTokenCookie = result.getResponse().getCookie(ACCESS_TOKEN_COOKIE);
+    assertNotNull(accessTokenCookie);
+    mockMvc
+        .perform(get("/antares/users/me").cookie(accessTokenCookie).with(csrf()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.email").value("renamed@example.com"));
+  }
+
   @Test
   @DisplayName("Change Password: should succeed and invalidate old password")
   void testChangePassword_shouldSucceedAndInvalidateOldPassword() throws Exception {
@@ -136,17 +223,29 @@ class UserControllerIT extends BaseIntegrationTest {
         new ChangePasswordRequest(initialPassword, newPassword, newPassword);
 
     // When
+    MvcResult result =
+        mockMvc
+            .perform(
+                put("/antares/users/me/password")
+                    .cookie(authCookies)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(passwordRequest)))
+            // Then
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // --- Verification ---
+    // Then: The old refresh token is revoked, the current session lives on with new cookies
+    Cookie newRefreshTokenCookie = result.getResponse().getCookie(REFRESH_TOKEN_COOKIE);
+    assertNotNull(newRefreshTokenCookie);
     mockMvc
-        .perform(
-            put("/antares/users/me/password")
-                .cookie(authCookies)
-                .with(csrf())
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(objectMapper.writeValueAsString(passwordRequest)))
-        // Then
+        .perform(post("/antares/auth/refresh-token").cookie(authCookies).with(csrf()))
+        .andExpect(status().isNotFound());
+    mockMvc
+        .perform(post("/antares/auth/refresh-token").cookie(newRefreshTokenCookie).with(csrf()))
         .andExpect(status().isOk());
 
-    // --- Verification ---
     // Then: Login with old password should fail
     AuthenticationRequest loginWithOldPassword =
         new AuthenticationRequest(initialEmail, initialPassword);
@@ -167,4 +266,58 @@ class UserControllerIT extends BaseIntegrationTest {
                 .content(objectMapper.writeValueAsString(loginWithNewPassword)))
         .andExpect(status().isOk());
   }
+
+  @Test
+  @DisplayName("Budgets: user endpoints should stay within their SQL and Redis budgets")
+  void testUserEndpoints_shouldStayWithinDataAccessBudgets() throws Exception {
+    // Served from the in-process users cache, loaded by the login
+    dataAccessRecorder.assertBudget(
+        "me",
+        0,
+        0,
+        () ->
+            mockMvc
+                .perform(get("/antares/users/me").cookie(authCookies).with(csrf()))
+                .andExpect(status().isOk()));
+
+    // SELECT + UPDATE (merge); SET + PUBLISH (users cache write-through), ZSCORE (generation of
+    // the access token reissued with the new locale)
+    dataAccessRecorder.assertBudget(
+        "preferences",
+        2,
+        3,
+        () ->
+            mockMvc
+                .perform(
+                    patch("/antares/users/me/preferences")
+                        .cookie(authCookies)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            objectMapper.writeValueAsString(
+                                new PreferencesUpdateRequest("fr", "dark"))))
+                .andExpect(status().isOk()));
+
+    // SELECT + UPDATE (merge); SET + PUBLISH (write-through), EVALSHA + PUBLISH (generation),
+    // EVALSHA (refresh token revocation); ZSCORE + EVALSHA (new session); + EVAL on the first use
+    // of each script
+    dataAccessRecorder.assertBudget(
+        "password",
+        2,
+        9,
+        () ->
+            mockMvc
+                .perform(
+                    put("/antares/users/me/password")
+                        .cookie(authCookies)
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(
+                            objectMapper.writeValueAsString(
+                                new ChangePasswordRequest(
+                                    initialPassword,
+                                    "newStrongPassword123",
+                                    "newStrongPassword123"))))
+                .andExpect(status().isOk()));
+  }
 }
@@ -0,0 +1,263 @@
+package apex.stellar.antares.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.dto.AuthenticationRequest;
+import apex.stellar.antares.dto.RegisterRequest;
+import apex.stellar.antares.load.OpenModelLoadGenerator.WeightedOperation;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * End-to-end load test of the authentication endpoints, over HTTP against the embedded server,
+ * Postgres and Redis.
+ *
+ * <p>Requests arrive following an open model (see {@link OpenModelLoadGenerator}) with a mix close
+ * to production traffic: mostly profile reads and forward-auth checks, some refreshes and logins,
+ * few registrations. Excluded from the regular build; run with the {@code load} profile:
+ *
+ * <pre>
+ * ./mvnw -P load verify -Dload.rate=200 -Dload.duration=PT1M
+ * </pre>
+ *
+ * <p>Other knobs: {@code load.warmup} (ISO-8601 duration), {@code load.users} (sessions opened
+ * beforehand) and {@code load.max-error-rate} (per endpoint, failing the test above it). The
+ * percentiles are logged, and the full distributions written to {@code target/load/<mode>/}, along
+ * with the throughput, the peak concurrency, the peak platform threads and the memory per
+ * concurrent request (see {@link ResourceSampler}) of the run.
+ *
+ * <p>This class runs the server on platform threads; {@link VirtualThreadAuthLoadIT} runs the same
+ * load on virtual threads, and the two modes are then compared in the log. The difference shows
+ * under a high concurrency, e.g. {@code -Dload.rate=2000}.
+ */
+@Slf4j
+@Tag("load")
+class AuthLoadIT extends BaseIntegrationTest {
+
+  private static final String PASSWORD = "password123";
+  private static final String SUMMARY = "summary.properties";
+
+  private final double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+  private final Duration duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+  private final Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+  private final int users = Integer.parseInt(System.getProperty("load.users", "50"));
+  private final double maxErrorRate =
+      Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  @Autowired private JsonMapper objectMapper;
+  @Autowired private JwtProperties jwtProperties;
+  @LocalServerPort private int port;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  // Sessions used by refresh, verify and me; logins use their own users, as a login replaces the
+  // refresh token of its user
+  private final List<Session> sessions = new ArrayList<>();
+  private final List<String> loginEmails = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    for (int i = 0; i < users; i++) {
+      String email = register();
+      sessions.add(login(email).orElseThrow());
+      loginEmails.add(register());
+    }
+  }
+
+  @Test
+  @DisplayName("Auth endpoints should sustain the target rate within the error budget")
+  void authEndpoints_underOpenLoad() throws Exception {
+    List<WeightedOperation> mix =
+        List.of(
+            new WeightedOperation("register", 5, () -> register() != null),
+            new WeightedOperation("login", 15, () -> login(pick(loginEmails)).isPresent()),
+            new WeightedOperation("refresh-token", 10, () -> pick(sessions).refresh()),
+            // Non-admin sessions are expected to be forbidden by the forward auth
+            new WeightedOperation(
+                "verify", 30, () -> pick(sessions).get("/antares/auth/verify") == 403),
+            new WeightedOperation("me", 40, () -> pick(sessions).get("/antares/users/me") == 200));
+
+    // Warm-up: JIT, connection pools and caches, results discarded
+    new OpenModelLoadGenerator(rate, 1_000, 1).run(mix, warmup);
+    ResourceSampler.Sampled<LoadReport> sampled =
+        new ResourceSampler()
+            .sample(() -> new OpenModelLoadGenerator(rate, 1_000, 42).run(mix, duration));
+    LoadReport report = sampled.result();
+
+    String mode = virtualThreads ? "virtual" : "platform";
+    Properties summary = new Properties();
+    summary.setProperty("throughput", "%.1f".formatted(report.throughput()));
+    summary.setProperty("peakConcurrency", Integer.toString(report.peakConcurrency()));
+    summary.setProperty("peakPlatformThreads", Integer.toString(sampled.peakThreads()));
+    summary.setProperty(
+        "memoryPerConcurrentRequest",
+        Long.toString(sampled.memoryPerConcurrentRequest(report.peakConcurrency())));
+    log.info(
+        "Load run on {} threads at {} req/s for {}: {}{}",
+        mode,
+        rate,
+        duration,
+        summary,
+        report.format());
+
+    Path directory = Path.of("target", "load", mode);
+    report.writeHistograms(directory);
+    try (Writer writer = Files.newBufferedWriter(directory.resolve(SUMMARY))) {
+      summary.store(writer, "Load run at " + rate + " req/s for " + duration);
+    }
+    logComparison();
+    for (LoadReport.EndpointRecorder endpoint : report.endpoints()) {
+      assertTrue(
+          endpoint.errorRate() <= maxErrorRate,
+          () -> endpoint.name() + " error rate " + endpoint.errorRate() + " > " + maxErrorRate);
+    }
+  }
+
+  /** Logs the summaries of both thread modes side by side, once both have run. */
+  private static void logComparison() throws IOException {
+    Path platform = Path.of("target", "load", "platform", SUMMARY);
+    Path virtual = Path.of("target", "load", "virtual", SUMMARY);
+    if (!Files.exists(platform) || !Files.exists(virtual)) {
+      return;
+    }
+    Properties platformSummary = new Properties();
+    Properties virtualSummary = new Properties();
+    try (Reader platformReader = Files.newBufferedReader(platform);
+        Reader virtualReader = Files.newBufferedReader(virtual)) {
+      platformSummary.load(platformReader);
+      virtualSummary.load(virtualReader);
+    }
+
+    StringBuilder comparison =
+        new StringBuilder("%n%-28s %12s %12s%n".formatted("", "platform", "virtual"));
+    for (String key : new TreeSet<>(platformSummary.stringPropertyNames())) {
+      comparison.append(
+          "%-28s %12s %12s%n"
+              .formatted(key, platformSummary.getProperty(key), virtualSummary.getProperty(key)));
+    }
+    log.info("Thread modes compared (see target/load/*/):{}", comparison);
+  }
+
+  /** Registers a new user, returning its email (or {@code null} on failure). */
+  private String register() throws Exception {
+    // Unique across runs and thread modes, which share the database
+    String email = "load." + UUID.randomUUID() + "@example.com";
+    HttpResponse<Void> response =
+        post("/antares/auth/register", new RegisterRequest("Load", "User", email, PASSWORD), null);
+    return response.statusCode() == 201 ? email : null;
+  }
+
+  private Optional<Session> login(String email) throws Exception {
+    HttpResponse<Void> response =
+        post("/antares/auth/login", new AuthenticationRequest(email, PASSWORD), null);
+    if (response.statusCode() != 200) {
+      return Optional.empty();
+    }
+    Session session = new Session();
+    session.update(response);
+    return Optional.of(session);
+  }
+
+  private HttpResponse<Void> post(String path, Object body, String cookies) throws Exception {
+    HttpRequest.Builder request =
+        HttpRequest.newBuilder(uri(path))
+            .header(HttpHeaders.CONTENT_TYPE, "application/json")
+            .POST(
+                body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+    if (cookies != null) {
+      request.header(HttpHeaders.COOKIE, cookies);
+    }
+    return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private static <T> T pick(List<T> pool) {
+    return pool.get(ThreadLocalRandom.current().nextInt(pool.size()));
+  }
+
+  /**
+   * The cookies of a logged-in user. The cookie domain of the test profile does not match
+   * localhost, so they are read from the Set-Cookie headers and sent back explicitly.
+   */
+  private class Session {
+
+    private String accessToken;
+    private String refreshToken;
+
+    synchronized void update(HttpResponse<?> response) {
+      for (String header : response.headers().allValues(HttpHeaders.SET_COOKIE)) {
+        String pair =
+            header.substring(0, header.indexOf(';') < 0 ? header.length() : header.indexOf(';'));
+        int separator = pair.indexOf('=');
+        String name = pair.substring(0, separator);
+        String value = pair.substring(separator + 1);
+        if (name.equals(jwtProperties.accessToken().name())) {
+          accessToken = value;
+        } else if (name.equals(jwtProperties.refreshToken().name())) {
+          refreshToken = value;
+        }
+      }
+    }
+
+    synchronized String cookies() {
+      return jwtProperties.accessToken().name()
+          + "="
+          + accessToken
+          + "; "
+          + jwtProperties.refreshToken().name()
+          + "="
+          + refreshToken;
+    }
+
+    int get(String path) throws Exception {
+      HttpRequest request =
+          HttpRequest.newBuilder(uri(path)).header(HttpHeaders.COOKIE, cookies()).GET().build();
+      return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    boolean refresh() throws Exception {
+      HttpResponse<Void> response = post("/antares/auth/refresh-token", null, cookies());
+      if (response.statusCode() != 200) {
+        return false;
+      }
+      update(response);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package apex.stellar.antares.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Results of a load run, per endpoint: throughput, error rate and latency percentiles (recorded
+ * with HdrHistogram, in microseconds, from 1 µs to 1 minute at 3 significant digits).
+ */
+public class LoadReport {
+
+  private final Duration elapsed;
+  private final int peakConcurrency;
+  private final List<EndpointRecorder> endpoints;
+
+  LoadReport(Duration elapsed, int peakConcurrency, Collection<EndpointRecorder> endpoints) {
+    this.elapsed = elapsed;
+    this.peakConcurrency = peakConcurrency;
+    this.endpoints = List.copyOf(endpoints);
+  }
+
+  /**
+   * Returns the throughput of the run, all endpoints and outcomes included.
+   *
+   * @return The requests per second.
+   */
+  public double throughput() {
+    return endpoints.stream().mapToLong(EndpointRecorder::requests).sum()
+        / (elapsed.toNanos() / 1e9);
+  }
+
+  /**
+   * Returns the highest number of requests in flight at once during the run.
+   *
+   * @return The peak concurrency.
+   */
+  public int peakConcurrency() {
+    return peakConcurrency;
+  }
+
+  /**
+   * Returns the results of every endpoint.
+   *
+   * @return The endpoint results.
+   */
+  public List<EndpointRecorder> endpoints() {
+    return endpoints;
+  }
+
+  /**
+   * Formats the report as a table, one line per endpoint.
+   *
+   * @return The formatted report.
+   */
+  public String format() {
+    StringBuilder report =
+        new StringBuilder(
+            String.format(
+                "%n%-14s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint",
+                "requests",
+                "req/s",
+                "errors",
+                "p50 (ms)",
+                "p90 (ms)",
+                "p99 (ms)",
+                "p99.9(ms)",
+                "max (ms)"));
+    for (EndpointRecorder endpoint : endpoints) {
+      Histogram latencies = endpoint.latencies;
+      report.append(
+          String.format(
+              "%-14s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+              endpoint.name,
+              endpoint.requests(),
+              endpoint.requests() / (elapsed.toNanos() / 1e9),
+              endpoint.errorRate() * 100,
+              millis(latencies.getValueAtPercentile(50)),
+              millis(latencies.getValueAtPercentile(90)),
+              millis(latencies.getValueAtPercentile(99)),
+              millis(latencies.getValueAtPercentile(99.9)),
+              millis(latencies.getMaxValue())));
+    }
+    return report.toString();
+  }
+
+  /**
+   * Writes the full percentile distribution of every endpoint ({@code <endpoint>.hgrm}, in
+   * milliseconds), to be plotted or compared between runs.
+   *
+   * @param directory The output directory.
+   * @throws IOException if a file cannot be written.
+   */
+  public void writeHistograms(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    for (EndpointRecorder endpoint : endpoints) {
+      try (PrintStream out = new PrintStream(directory.resolve(endpoint.name + ".hgrm").toFile())) {
+        endpoint.latencies.outputPercentileDistribution(out, 1000.0);
+      }
+    }
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  /** Thread-safe recorder of the results of one endpoint. */
+  public static class EndpointRecorder {
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(1, TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointRecorder(String name) {
+      this.name = name;
+    }
+
+    void record(long latencyNanos, boolean success) {
+      latencies.recordValue(
+          Math.min(latencies.getHighestTrackableValue(), Math.max(1, latencyNanos / 1000)));
+      (success ? successes : errors).increment();
+    }
+
+    void recordDropped() {
+      errors.increment();
+    }
+
+    /**
+     * Returns the endpoint name.
+     *
+     * @return The name.
+     */
+    public String name() {
+      return name;
+    }
+
+    /**
+     * Returns the number of requests, dropped ones included.
+     *
+     * @return The request count.
+     */
+    public long requests() {
+      return successes.sum() + errors.sum();
+    }
+
+    /**
+     * Returns the share of requests that failed or got an unexpected response.
+     *
+     * @return The error rate, between 0 and 1.
+     */
+    public double errorRate() {
+      long requests = requests();
+      return requests == 0 ? 0 : (double) errors.sum() / requests;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package apex.stellar.antares.load;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Open-model load generator: requests arrive at a target rate, whether or not the previous ones
+ * have completed (Poisson arrivals, as from many independent clients).
+ *
+ * <p>Each request runs on its own virtual thread. Its latency is measured from its <i>intended</i>
+ * start, so that a stalled server shows up in the percentiles instead of silently lowering the
+ * offered load (coordinated omission). Arrivals beyond {@code maxInFlight} concurrent requests are
+ * counted as errors rather than queued.
+ */
+public class OpenModelLoadGenerator {
+
+  private final double ratePerSecond;
+  private final int maxInFlight;
+  private final long seed;
+
+  /**
+   * Creates the generator.
+   *
+   * @param ratePerSecond The mean arrival rate, all operations included.
+   * @param maxInFlight The maximum number of concurrent requests.
+   * @param seed The seed of the arrival times and of the operation picks.
+   */
+  public OpenModelLoadGenerator(double ratePerSecond, int maxInFlight, long seed) {
+    this.ratePerSecond = ratePerSecond;
+    this.maxInFlight = maxInFlight;
+    this.seed = seed;
+  }
+
+  /**
+   * Runs the mix for the given duration, then waits for the requests in flight.
+   *
+   * @param mix The weighted operations.
+   * @param duration How long requests keep arriving.
+   * @return The per-endpoint report.
+   * @throws InterruptedException if interrupted while running.
+   */
+  public LoadReport run(List<WeightedOperation> mix, Duration duration)
+      throws InterruptedException {
+    Map<String, LoadReport.EndpointRecorder> recorders =
+        mix.stream()
+            .map(WeightedOperation::endpoint)
+            .distinct()
+            .collect(Collectors.toMap(Function.identity(), LoadReport.EndpointRecorder::new));
+    int totalWeight = mix.stream().mapToInt(WeightedOperation::weight).sum();
+    Random random = new Random(seed);
+    Semaphore inFlight = new Semaphore(maxInFlight);
+
+    long start = System.nanoTime();
+    long end = start + duration.toNanos();
+    long intendedStart = start;
+    int peakConcurrency = 0;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      while (true) {
+        // Exponential inter-arrival times make a Poisson process of the given rate
+        intendedStart += (long) (-Math.log(1 - random.nextDouble()) / ratePerSecond * 1e9);
+        if (intendedStart >= end) {
+          break;
+        }
+        WeightedOperation operation = pick(mix, random.nextInt(totalWeight));
+        LoadReport.EndpointRecorder recorder = recorders.get(operation.endpoint());
+
+        long delay = intendedStart - System.nanoTime();
+        if (delay > 0) {
+          LockSupport.parkNanos(delay);
+        }
+        if (!inFlight.tryAcquire()) {
+          recorder.recordDropped();
+          continue;
+        }
+        peakConcurrency = Math.max(peakConcurrency, maxInFlight - inFlight.availablePermits());
+        long scheduledAt = intendedStart;
+        executor.execute(
+            () -> {
+              try {
+                boolean success = execute(operation);
+                recorder.record(System.nanoTime() - scheduledAt, success);
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+      executor.shutdown();
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        executor.shutdownNow();
+      }
+    }
+    return new LoadReport(
+        Duration.ofNanos(System.nanoTime() - start), peakConcurrency, recorders.values());
+  }
+
+  private static boolean execute(WeightedOperation operation) {
+    try {
+      return operation.operation().execute();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static WeightedOperation pick(List<WeightedOperation> mix, int ticket) {
+    for (WeightedOperation operation : mix) {
+      ticket -= operation.weight();
+      if (ticket < 0) {
+        return operation;
+      }
+    }
+    throw new IllegalStateException("Empty operation mix");
+  }
+
+  /** A request of the mix, telling whether it got the expected response. */
+  @FunctionalInterface
+  public interface LoadOperation {
+
+    /**
+     * Sends the request.
+     *
+     * @return {@code true} if the response is the expected one.
+     * @throws Exception on I/O failures (counted as errors).
+     */
+    boolean execute() throws Exception;
+  }
+
+  /**
+   * An operation and its share of the arrivals.
+   *
+   * @param endpoint The name the operation is reported under.
+   * @param weight The relative frequency of the operation.
+   * @param operation The operation.
+   */
+  public record WeightedOperation(String endpoint, int weight, LoadOperation operation) {}
+}
@@ -0,0 +1,105 @@
+package apex.stellar.antares.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples the memory and the platform threads of the JVM (which hosts the server under test) while
+ * a load run executes.
+ *
+ * <p>Memory is the resident set size on Linux (thread stacks included), and the committed heap and
+ * non-heap memory elsewhere. Virtual threads are not counted as threads: their stacks live in the
+ * heap.
+ */
+public final class ResourceSampler {
+
+  private static final Path PROC_STATUS = Path.of("/proc/self/status");
+  private static final long SAMPLING_PERIOD_MS = 100;
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  /**
+   * Runs the load, sampling the resources until it returns.
+   *
+   * @param load The load run.
+   * @param <T> The type of its result.
+   * @return The result of the run and the resources it used.
+   * @throws Exception if the run fails.
+   */
+  public <T> Sampled<T> sample(Callable<T> load) throws Exception {
+    System.gc();
+    long baseline = memoryBytes();
+    AtomicLong peakMemory = new AtomicLong(baseline);
+    AtomicInteger peakThreads = new AtomicInteger(threads.getThreadCount());
+
+    Thread sampler =
+        Thread.ofPlatform()
+            .daemon()
+            .name("load-resource-sampler")
+            .start(
+                () -> {
+                  while (!Thread.currentThread().isInterrupted()) {
+                    peakMemory.accumulateAndGet(memoryBytes(), Math::max);
+                    peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                    try {
+                      TimeUnit.MILLISECONDS.sleep(SAMPLING_PERIOD_MS);
+                    } catch (InterruptedException e) {
+                      return;
+                    }
+                  }
+                });
+    try {
+      T result = load.call();
+      return new Sampled<>(result, baseline, peakMemory.get(), peakThreads.get());
+    } finally {
+      sampler.interrupt();
+      sampler.join();
+    }
+  }
+
+  private long memoryBytes() {
+    try {
+      for (String line : Files.readAllLines(PROC_STATUS)) {
+        if (line.startsWith("VmRSS:")) {
+          // Format: "VmRSS:    123456 kB"
+          return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      // Not Linux: fall back to the JVM view
+    }
+    return memory.getHeapMemoryUsage().getCommitted()
+        + memory.getNonHeapMemoryUsage().getCommitted();
+  }
+
+  /**
+   * A load run and the resources it used.
+   *
+   * @param result The result of the run.
+   * @param baselineMemory The memory used before the run, in bytes.
+   * @param peakMemory The highest memory sampled during the run, in bytes.
+   * @param peakThreads The highest number of live platform threads sampled during the run.
+   * @param <T> The type of the result.
+   */
+  public record Sampled<T>(T result, long baselineMemory, long peakMemory, int peakThreads) {
+
+    /**
+     * Returns the memory growth during the run, per request in flight at the peak.
+     *
+     * @param peakConcurrency The peak number of requests in flight.
+     * @return The bytes per concurrent request.
+     */
+    public long memoryPerConcurrentRequest(int peakConcurrency) {
+      return Math.max(0, peakMemory - baselineMemory) / Math.max(1, peakConcurrency);
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package apex.stellar.antares.load;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The {@link AuthLoadIT} load, with the server on virtual threads: Tomcat requests run on virtual
+ * threads, BCrypt stays on its platform pool and pinnings are reported by the {@code
+ * VirtualThreadPinningMonitor}.
+ */
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadAuthLoadIT extends AuthLoadIT {}
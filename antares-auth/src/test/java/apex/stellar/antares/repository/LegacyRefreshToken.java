@@ -0,0 +1,26 @@
+package apex.stellar.antares.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
+import org.springframework.data.redis.core.index.Indexed;
+
+/**
+ * The former Spring Data Redis mapping of a refresh token, kept as the baseline of {@link
+ * RefreshTokenStoreBenchmarkIT}.
+ */
+@Getter
+@Setter
+@Builder
+@RedisHash("refresh_tokens")
+public class LegacyRefreshToken {
+
+  @Id private String id;
+
+  @Indexed private Long userId;
+
+  @TimeToLive private Long expiration;
+}
@@ -0,0 +1,15 @@
+package apex.stellar.antares.repository;
+
+import java.util.Optional;
+import org.jspecify.annotations.NonNull;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * The former refresh token repository, kept as the baseline of {@link
+ * RefreshTokenStoreBenchmarkIT}.
+ */
+public interface LegacyRefreshTokenRepository
+    extends CrudRepository<@NonNull LegacyRefreshToken, @NonNull String> {
+
+  Optional<LegacyRefreshToken> findByUserId(Long userId);
+}
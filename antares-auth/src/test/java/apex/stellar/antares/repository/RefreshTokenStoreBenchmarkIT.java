@@ -0,0 +1,214 @@
+package apex.stellar.antares.repository;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+
+/**
+ * Compares the {@link RefreshTokenStore} with the former Spring Data Redis repository ({@link
+ * LegacyRefreshTokenRepository}) on the same workload: one login, then one refresh per session.
+ *
+ * <p>Reports, for each implementation, the Redis commands per operation (from {@code INFO
+ * commandstats}), the memory per session (from {@code MEMORY USAGE}) and the client-side latency.
+ */
+@Slf4j
+@Import(RefreshTokenStoreBenchmarkIT.LegacyRepositoryConfig.class)
+class RefreshTokenStoreBenchmarkIT extends BaseIntegrationTest {
+
+  private static final int SESSIONS = 1_000;
+  private static final Duration TTL = Duration.ofDays(7);
+
+  @Autowired private StringRedisTemplate redisTemplate;
+  @Autowired private RefreshTokenStore refreshTokenStore;
+  @Autowired private LegacyRefreshTokenRepository legacyRepository;
+
+  @BeforeEach
+  void flushRedis() {
+    redisTemplate.execute(
+        (RedisConnection connection) -> {
+          connection.serverCommands().flushAll();
+          return null;
+        });
+  }
+
+  @Test
+  @DisplayName("Benchmark: the store should use fewer commands and bytes than the repository")
+  void compareStoreWithLegacyRepository() {
+    String[] tokens = new String[SESSIONS];
+
+    // --- Legacy repository ---
+    Measure legacyLogin =
+        measure(
+            userId -> {
+              legacyRepository.findByUserId(userId).ifPresent(legacyRepository::delete);
+              tokens[(int) userId] = hash();
+              legacyRepository.save(legacyToken(tokens[(int) userId], userId));
+            });
+    long legacyBytes = usedBytes();
+    Measure legacyRefresh =
+        measure(
+            userId -> {
+              Long owner =
+                  legacyRepository.findById(tokens[(int) userId]).orElseThrow().getUserId();
+              legacyRepository.findByUserId(owner).ifPresent(legacyRepository::delete);
+              legacyRepository.save(legacyToken(hash(), owner));
+            });
+
+    flushRedis();
+
+    // --- Store ---
+    Measure storeLogin =
+        measure(
+            userId -> {
+              tokens[(int) userId] = hash();
+              refreshTokenStore.issue(userId, tokens[(int) userId], TTL);
+            });
+    long storeBytes = usedBytes();
+    Measure storeRefresh =
+        measure(
+            userId ->
+                refreshTokenStore
+                    .rotate(tokens[(int) userId], hash(), "", TTL, Duration.ZERO)
+                    .orElseThrow());
+
+    log.info(
+        """
+
+        Refresh token storage ({} sessions)
+                        | commands/login | commands/refresh | bytes/session | login p50/p99 (us) \
+        | refresh p50/p99 (us)
+          repository    | {} | {} | {} | {} | {}
+          store         | {} | {} | {} | {} | {}\
+        """,
+        SESSIONS,
+        legacyLogin.commandsPerOperation(),
+        legacyRefresh.commandsPerOperation(),
+        legacyBytes / SESSIONS,
+        legacyLogin.latency(),
+        legacyRefresh.latency(),
+        storeLogin.commandsPerOperation(),
+        storeRefresh.commandsPerOperation(),
+        storeBytes / SESSIONS,
+        storeLogin.latency(),
+        storeRefresh.latency());
+
+    assertTrue(storeLogin.commandsPerOperation() < legacyLogin.commandsPerOperation());
+    assertTrue(storeRefresh.commandsPerOperation() < legacyRefresh.commandsPerOperation());
+    assertTrue(storeBytes < legacyBytes);
+  }
+
+  /** Runs the operation once per session, recording the Redis commands and the latencies. */
+  private Measure measure(LongConsumer operation) {
+    resetCommandStats();
+
+    long[] latencies = new long[SESSIONS];
+    for (int userId = 0; userId < SESSIONS; userId++) {
+      long start = System.nanoTime();
+      operation.accept(userId);
+      latencies[userId] = System.nanoTime() - start;
+    }
+
+    return new Measure(executedCommands(), latencies);
+  }
+
+  private void resetCommandStats() {
+    redisTemplate.execute(
+        (RedisConnection connection) -> {
+          connection.serverCommands().resetConfigStats();
+          return null;
+        });
+  }
+
+  /** Sums the calls of every command except the ones issued by the benchmark itself. */
+  private long executedCommands() {
+    Properties stats =
+        redisTemplate.execute(
+            (RedisConnection connection) -> connection.serverCommands().info("commandstats"));
+    assertNotNull(stats);
+
+    return stats.stringPropertyNames().stream()
+        .filter(name -> name.startsWith("cmdstat_"))
+        .filter(name -> !name.startsWith("cmdstat_info") && !name.startsWith("cmdstat_config"))
+        .mapToLong(name -> parseCalls(stats.getProperty(name)))
+        .sum();
+  }
+
+  private static long parseCalls(String stat) {
+    // Format: calls=12,usec=34,usec_per_call=2.83,...
+    return Arrays.stream(stat.split(","))
+        .filter(field -> field.startsWith("calls="))
+        .mapToLong(field -> Long.parseLong(field.substring("calls=".length())))
+        .sum();
+  }
+
+  /** Sums the memory used by every key of the (otherwise empty) database. */
+  private long usedBytes() {
+    Long total =
+        redisTemplate.execute(
+            (RedisCallback<Long>)
+                connection -> {
+                  long bytes = 0;
+                  try (Cursor<byte[]> keys =
+                      connection
+                          .keyCommands()
+                          .scan(ScanOptions.scanOptions().count(1000).build())) {
+                    while (keys.hasNext()) {
+                      Object usage =
+                          connection.execute("MEMORY", "USAGE".getBytes(UTF_8), keys.next());
+                      bytes += usage instanceof Long value ? value : 0;
+                    }
+                  }
+                  return bytes;
+                });
+    return total != null ? total : 0;
+  }
+
+  private static LegacyRefreshToken legacyToken(String id, Long userId) {
+    return LegacyRefreshToken.builder().id(id).userId(userId).expiration(TTL.toSeconds()).build();
+  }
+
+  private static String hash() {
+    return UUID.randomUUID().toString();
+  }
+
+  private record Measure(long commands, long[] latencies) {
+
+    double commandsPerOperation() {
+      return (double) commands / latencies.length;
+    }
+
+    String latency() {
+      long[] sorted = latencies.clone();
+      Arrays.sort(sorted);
+      return percentile(sorted, 0.50) + "/" + percentile(sorted, 0.99);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+      return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1_000;
+    }
+  }
+
+  /** Enables the legacy Spring Data Redis repository for this benchmark only. */
+  @TestConfiguration
+  @EnableRedisRepositories(basePackageClasses = LegacyRefreshTokenRepository.class)
+  static class LegacyRepositoryConfig {}
+}
@@ -0,0 +1,111 @@
+package apex.stellar.antares.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/** Integration tests for {@link RefreshTokenStore} against a real Redis. */
+class RefreshTokenStoreIT extends BaseIntegrationTest {
+
+  private static final Duration TTL = Duration.ofMinutes(5);
+
+  @Autowired private RefreshTokenStore refreshTokenStore;
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @AfterEach
+  void cleanUpRedis() {
+    redisTemplate.execute(
+        (RedisConnection connection) -> {
+          connection.serverCommands().flushAll();
+          return null;
+        });
+  }
+
+  @Test
+  @DisplayName("issue: should replace the previous session of the user")
+  void issue_shouldRevokePreviousToken() {
+    // When
+    refreshTokenStore.issue(1L, "first", TTL);
+    refreshTokenStore.issue(1L, "second", TTL);
+
+    // Then
+    assertFalse(refreshTokenStore.exists("first"));
+    assertEquals("1", redisTemplate.opsForValue().get("rt:second"));
+    assertTrue(redisTemplate.getExpire("rt:second") > 0);
+    assertTrue(redisTemplate.getExpire("rtu:1") > 0);
+  }
+
+  @Test
+  @DisplayName("rotate: should consume the old token exactly once")
+  void rotate_shouldBeSingleUse() {
+    // Given
+    refreshTokenStore.issue(1L, "old", TTL);
+
+    // When
+    Optional<RefreshTokenStore.Rotation> first =
+        refreshTokenStore.rotate("old", "new", "sealed", TTL, Duration.ZERO);
+    Optional<RefreshTokenStore.Rotation> replay =
+        refreshTokenStore.rotate("old", "other", "sealed", TTL, Duration.ZERO);
+
+    // Then
+    assertEquals(Optional.of(new RefreshTokenStore.Rotation(1L, null)), first);
+    assertEquals(Optional.empty(), replay);
+    assertEquals("1", redisTemplate.opsForValue().get("rt:new"));
+    assertEquals("new", redisTemplate.opsForValue().get("rtu:1"));
+    assertFalse(refreshTokenStore.exists("old"));
+  }
+
+  @Test
+  @DisplayName("rotate: should yield the sealed replacement to duplicates within the grace period")
+  void rotate_withinGracePeriod_shouldYieldSealedReplacement() {
+    // Given
+    refreshTokenStore.issue(1L, "old", TTL);
+    refreshTokenStore.rotate("old", "new", "sealed-new", TTL, Duration.ofSeconds(10));
+
+    // When
+    Optional<RefreshTokenStore.Rotation> duplicate =
+        refreshTokenStore.rotate("old", "other", "sealed-other", TTL, Duration.ofSeconds(10));
+
+    // Then: the duplicate did not rotate anything
+    assertEquals(Optional.of(new RefreshTokenStore.Rotation(1L, "sealed-new")), duplicate);
+    assertFalse(refreshTokenStore.exists("other"));
+    assertEquals("new", redisTemplate.opsForValue().get("rtu:1"));
+  }
+
+  @Test
+  @DisplayName("rotate: should reject duplicates once the replacement was revoked")
+  void rotate_afterRevocation_shouldRejectDuplicates() {
+    // Given
+    refreshTokenStore.issue(1L, "old", TTL);
+    refreshTokenStore.rotate("old", "new", "sealed-new", TTL, Duration.ofSeconds(10));
+    refreshTokenStore.revoke(1L);
+
+    // When & Then
+    assertFalse(refreshTokenStore.exists("new"));
+    assertEquals(
+        Optional.empty(),
+        refreshTokenStore.rotate("old", "other", "sealed-other", TTL, Duration.ofSeconds(10)));
+  }
+
+  @Test
+  @DisplayName("revoke: should delete both keys of the session")
+  void revoke_shouldDeleteSession() {
+    // Given
+    refreshTokenStore.issue(1L, "token", TTL);
+
+    // When
+    refreshTokenStore.revoke(1L);
+
+    // Then
+    assertFalse(refreshTokenStore.exists("token"));
+    assertFalse(redisTemplate.hasKey("rtu:1"));
+  }
+}
@@ -0,0 +1,131 @@
+package apex.stellar.antares.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+
+/** Unit tests for {@link RingBufferHttpExchangeRepository}. */
+class RingBufferHttpExchangeRepositoryTest {
+
+  private static final Duration SLOW = Duration.ofSeconds(1);
+
+  @Test
+  @DisplayName("findAll: should keep the latest exchanges, newest first")
+  void findAll_shouldReturnLatestExchangesNewestFirst() {
+    // Given
+    RingBufferHttpExchangeRepository repository = repository(3, 1.0, Map.of(), List.of());
+
+    // When
+    IntStream.range(0, 5).forEach(i -> repository.add(exchange("/users/" + i, 200, 10)));
+
+    // Then
+    assertEquals(List.of("/users/4", "/users/3", "/users/2"), paths(repository.findAll()));
+  }
+
+  @Test
+  @DisplayName("add: should always record server errors and slow exchanges, despite sampling")
+  void add_shouldAlwaysRecordErrorsAndSlowExchanges() {
+    // Given
+    RingBufferHttpExchangeRepository repository = repository(10, 0.0, Map.of(), List.of());
+
+    // When
+    repository.add(exchange("/ok", 200, 10));
+    repository.add(exchange("/denied", 403, 10));
+    repository.add(exchange("/failed", 503, 10));
+    repository.add(exchange("/slow", 200, 1500));
+
+    // Then
+    assertEquals(List.of("/slow", "/failed"), paths(repository.findAll()));
+  }
+
+  @Test
+  @DisplayName("add: should apply the sample rate of the first matching path pattern")
+  void add_shouldApplyPathSampleRates() {
+    // Given
+    RingBufferHttpExchangeRepository repository =
+        repository(1000, 1.0, Map.of("/antares/auth/verify", 0.0), List.of());
+
+    // When
+    IntStream.range(0, 100).forEach(i -> repository.add(exchange("/antares/auth/verify", 200, 10)));
+    repository.add(exchange("/antares/auth/login", 200, 10));
+
+    // Then
+    assertEquals(List.of("/antares/auth/login"), paths(repository.findAll()));
+  }
+
+  @Test
+  @DisplayName("add: should never record excluded paths, not even their errors")
+  void add_shouldSkipExcludedPaths() {
+    // Given
+    RingBufferHttpExchangeRepository repository =
+        repository(10, 1.0, Map.of(), List.of("/actuator/**"));
+
+    // When
+    repository.add(exchange("/actuator/health", 503, 10));
+    repository.add(exchange("/users/me", 200, 10));
+
+    // Then
+    assertEquals(List.of("/users/me"), paths(repository.findAll()));
+    assertTrue(repository.isExcluded("/actuator/health"));
+    assertFalse(repository.isExcluded("/users/me"));
+  }
+
+  @Test
+  @DisplayName("add: should keep applying the path policies beyond the memoized paths")
+  void add_manyDistinctPaths_shouldKeepApplyingPolicies() {
+    // Given
+    RingBufferHttpExchangeRepository repository =
+        repository(10, 0.0, Map.of("/users/*/profile", 1.0), List.of("/actuator/**"));
+
+    // When: more distinct paths than memoized, then paths never seen before
+    IntStream.range(0, 1000).forEach(i -> repository.add(exchange("/users/" + i, 200, 10)));
+    repository.add(exchange("/users/1001/profile", 200, 10));
+    repository.add(exchange("/actuator/info", 503, 10));
+
+    // Then
+    assertEquals(List.of("/users/1001/profile"), paths(repository.findAll()));
+    assertTrue(repository.isExcluded("/actuator/metrics"));
+  }
+
+  @Test
+  @DisplayName("add: should keep the buffer consistent under concurrent writes")
+  void add_concurrentWrites_shouldKeepCapacity() {
+    // Given
+    RingBufferHttpExchangeRepository repository = repository(50, 1.0, Map.of(), List.of());
+
+    // When
+    IntStream.range(0, 10_000)
+        .parallel()
+        .forEach(i -> repository.add(exchange("/users/" + i, 200, 10)));
+
+    // Then
+    assertEquals(50, repository.findAll().size());
+  }
+
+  private static RingBufferHttpExchangeRepository repository(
+      int capacity, double sampleRate, Map<String, Double> pathRates, List<String> excluded) {
+    return new RingBufferHttpExchangeRepository(capacity, sampleRate, SLOW, pathRates, excluded);
+  }
+
+  private static HttpExchange exchange(String path, int status, long timeTakenMs) {
+    return new HttpExchange(
+        Instant.now(),
+        new HttpExchange.Request(URI.create("http://localhost" + path), null, "GET", Map.of()),
+        new HttpExchange.Response(status, Map.of()),
+        null,
+        null,
+        Duration.ofMillis(timeTakenMs));
+  }
+
+  private static List<String> paths(List<HttpExchange> exchanges) {
+    return exchanges.stream().map(exchange -> exchange.getRequest().getUri().getPath()).toList();
+  }
+}
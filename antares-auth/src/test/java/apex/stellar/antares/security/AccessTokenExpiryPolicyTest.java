@@ -0,0 +1,117 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.JwtProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/** Unit tests for {@link AccessTokenExpiryPolicy}. */
+class AccessTokenExpiryPolicyTest {
+
+  private static final long EXPIRATION = 900_000;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("expiresAt: should shorten each lifetime by at most the jitter")
+  void expiresAt_shouldApplyBoundedJitter() {
+    // Given
+    AccessTokenExpiryPolicy policy = policy(90_000, null, 0);
+    Instant now = Instant.now();
+
+    // When
+    Set<Instant> expiries = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      expiries.add(policy.expiresAt(now));
+    }
+
+    // Then: spread, but within [lifetime - jitter, lifetime]
+    assertTrue(expiries.size() > 1);
+    for (Instant expiry : expiries) {
+      Duration lifetime = Duration.between(now, expiry);
+      assertTrue(lifetime.toMillis() <= EXPIRATION);
+      assertTrue(lifetime.toMillis() >= EXPIRATION - 90_000);
+    }
+    assertEquals(100, meterRegistry.get("antares.token.lifetime").timer().count());
+  }
+
+  @Test
+  @DisplayName("effectiveExpiry: should spread the tokens issued before reissue-before")
+  void effectiveExpiry_shouldSpreadTokensToReissue() {
+    // Given
+    Instant reissueBefore = Instant.now();
+    AccessTokenExpiryPolicy policy = policy(0, reissueBefore, 300_000);
+
+    // When
+    Set<Instant> deadlines = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      Jwt jwt = jwt(UUID.randomUUID().toString(), reissueBefore.minusSeconds(60));
+      Instant deadline = policy.effectiveExpiry(jwt);
+
+      // Then: stable for a given token, within the spread window
+      assertEquals(deadline, policy.effectiveExpiry(jwt));
+      assertFalse(deadline.isBefore(reissueBefore));
+      assertTrue(deadline.isBefore(reissueBefore.plusMillis(300_000)));
+      deadlines.add(deadline);
+    }
+    assertTrue(deadlines.size() > 90);
+  }
+
+  @Test
+  @DisplayName("validate: should only reject tokens issued before reissue-before, once due")
+  void validate_shouldRejectDueTokensIssuedBeforeCutoff() {
+    // Given: no spread, every old token is due at the cut-off
+    Instant reissueBefore = Instant.now().minusSeconds(1);
+    AccessTokenExpiryPolicy policy = policy(0, reissueBefore, 0);
+
+    // When & Then
+    assertTrue(policy.validate(jwt("old", reissueBefore.minusSeconds(60))).hasErrors());
+    assertFalse(policy.validate(jwt("new", reissueBefore.plusMillis(1))).hasErrors());
+    assertEquals(1.0, meterRegistry.get("antares.token.early-expired").counter().count());
+  }
+
+  @Test
+  @DisplayName("effectiveExpiry: should keep 'exp' without reissue-before")
+  void effectiveExpiry_withoutCutoff_shouldKeepExp() {
+    // Given
+    AccessTokenExpiryPolicy policy = policy(0, null, 300_000);
+    Jwt jwt = jwt("token", Instant.now());
+
+    // When & Then
+    assertEquals(jwt.getExpiresAt(), policy.effectiveExpiry(jwt));
+    assertFalse(policy.validate(jwt).hasErrors());
+  }
+
+  private AccessTokenExpiryPolicy policy(long jitter, Instant reissueBefore, long reissueSpread) {
+    JwtProperties properties =
+        new JwtProperties(
+            "secret",
+            "issuer",
+            "audience",
+            new JwtProperties.AccessToken(
+                EXPIRATION, "access", jitter, reissueBefore, reissueSpread),
+            null,
+            null,
+            false,
+            null,
+            null);
+    return new AccessTokenExpiryPolicy(properties, meterRegistry);
+  }
+
+  private static Jwt jwt(String id, Instant issuedAt) {
+    return Jwt.withTokenValue("token-" + id)
+        .header("alg", "HS256")
+        .jti(id)
+        .issuedAt(issuedAt)
+        .expiresAt(issuedAt.plusMillis(EXPIRATION))
+        .build();
+  }
+}
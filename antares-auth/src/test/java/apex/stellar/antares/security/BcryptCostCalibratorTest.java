@@ -0,0 +1,37 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link BcryptCostCalibrator}. */
+class BcryptCostCalibratorTest {
+
+  @Test
+  @DisplayName("calibrate: should keep the minimum cost when the target is below one hash")
+  void calibrate_withTinyTarget_shouldReturnMinCost() {
+    // When
+    BcryptCostCalibrator.Calibration calibration =
+        BcryptCostCalibrator.calibrate(Duration.ofNanos(1), 4, 6);
+
+    // Then
+    assertEquals(4, calibration.cost());
+    assertTrue(calibration.estimatedLatency().toNanos() > 0);
+  }
+
+  @Test
+  @DisplayName("calibrate: should not exceed the maximum cost")
+  void calibrate_withHugeTarget_shouldCapAtMaxCost() {
+    // When
+    BcryptCostCalibrator.Calibration minimum =
+        BcryptCostCalibrator.calibrate(Duration.ofNanos(1), 4, 6);
+    BcryptCostCalibrator.Calibration calibration =
+        BcryptCostCalibrator.calibrate(Duration.ofMinutes(1), 4, 6);
+
+    // Then: each cost increment doubles the estimate
+    assertEquals(6, calibration.cost());
+    assertTrue(calibration.estimatedLatency().compareTo(minimum.estimatedLatency()) > 0);
+  }
+}
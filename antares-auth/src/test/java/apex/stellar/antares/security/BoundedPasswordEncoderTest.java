@@ -0,0 +1,101 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import apex.stellar.antares.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Unit tests for {@link BoundedPasswordEncoder}. */
+@ExtendWith(MockitoExtension.class)
+class BoundedPasswordEncoderTest {
+
+  @Mock private PasswordEncoder delegate;
+
+  private SimpleMeterRegistry meterRegistry;
+  private BoundedPasswordEncoder encoder;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    encoder = new BoundedPasswordEncoder(delegate, 1, 1, 2, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    encoder.close();
+  }
+
+  @Test
+  @DisplayName("encode/matches: should delegate on the hashing pool")
+  void shouldDelegateOnHashingPool() {
+    // Given
+    when(delegate.encode("secret"))
+        .thenAnswer(invocation -> Thread.currentThread().getName() + ":hash");
+    when(delegate.matches("secret", "hash")).thenReturn(true);
+
+    // When & Then
+    assertTrue(encoder.encode("secret").startsWith("password-hashing-"));
+    assertTrue(encoder.matches("secret", "hash"));
+    assertEquals(2, meterRegistry.get("antares.password.hashing.wait").timer().count());
+    assertEquals(
+        1,
+        meterRegistry.get("antares.password.hashing").tag("operation", "matches").timer().count());
+  }
+
+  @Test
+  @DisplayName("matches: should fail fast when the thread and the queue are busy")
+  void matches_whenSaturated_shouldReject() throws Exception {
+    // Given: the only thread is blocked and the only queue slot is taken
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    when(delegate.matches(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              started.countDown();
+              return release.await(5, TimeUnit.SECONDS);
+            });
+
+    CompletableFuture<Boolean> running =
+        CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<Boolean> queued =
+        CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+    while (meterRegistry.get("executor.queued").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    // When
+    PasswordHashingUnavailableException exception =
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("c", "hash"));
+
+    // Then
+    assertEquals(2, exception.getRetryAfterSeconds());
+    assertEquals(1.0, meterRegistry.get("antares.password.hashing.rejected").counter().count());
+
+    release.countDown();
+    assertTrue(running.get(5, TimeUnit.SECONDS));
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  @DisplayName("encode: should propagate the delegate's runtime exceptions")
+  void encode_shouldPropagateRuntimeException() {
+    // Given
+    when(delegate.encode("secret")).thenThrow(new IllegalArgumentException("boom"));
+
+    // When & Then
+    assertThrows(IllegalArgumentException.class, () -> encoder.encode("secret"));
+  }
+}
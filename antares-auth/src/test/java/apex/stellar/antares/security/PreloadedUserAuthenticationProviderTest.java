@@ -0,0 +1,121 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/** Unit tests for {@link PreloadedUserAuthenticationProvider}. */
+@ExtendWith(MockitoExtension.class)
+class PreloadedUserAuthenticationProviderTest {
+
+  @Mock private PasswordEncoder passwordEncoder;
+  @Mock private UserDetailsPasswordService userDetailsPasswordService;
+
+  private PreloadedUserAuthenticationProvider provider;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    provider = new PreloadedUserAuthenticationProvider(passwordEncoder, userDetailsPasswordService);
+    user =
+        User.builder()
+            .id(1L)
+            .email("john.doe@example.com")
+            .password("hash")
+            .role(Role.ROLE_USER)
+            .build();
+  }
+
+  @Test
+  @DisplayName("authenticate: should authenticate the carried user, with it as principal")
+  void authenticate_withValidPassword_shouldReturnUser() {
+    // Given
+    when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+
+    // When
+    Authentication authentication =
+        provider.authenticate(
+            new PreloadedUserAuthenticationToken(user.getEmail(), "password", user));
+
+    // Then
+    assertTrue(authentication.isAuthenticated());
+    assertSame(user, authentication.getPrincipal());
+    verifyNoInteractions(userDetailsPasswordService);
+  }
+
+  @Test
+  @DisplayName("authenticate: should reject a wrong password")
+  void authenticate_withWrongPassword_shouldThrow() {
+    // Given
+    when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+
+    // When & Then
+    assertThrows(
+        BadCredentialsException.class,
+        () ->
+            provider.authenticate(
+                new PreloadedUserAuthenticationToken(user.getEmail(), "wrong", user)));
+  }
+
+  @Test
+  @DisplayName("authenticate: should verify an unknown email against a dummy hash, encoded once")
+  void authenticate_withUnknownEmail_shouldVerifyDummyHash() {
+    // Given
+    when(passwordEncoder.encode(any())).thenReturn("dummyHash");
+
+    // When & Then
+    for (int i = 0; i < 2; i++) {
+      assertThrows(
+          BadCredentialsException.class,
+          () ->
+              provider.authenticate(
+                  new PreloadedUserAuthenticationToken("unknown@example.com", "password", null)));
+    }
+    verify(passwordEncoder, times(1)).encode(any());
+    verify(passwordEncoder, times(2)).matches("password", "dummyHash");
+  }
+
+  @Test
+  @DisplayName("authenticate: should persist a rehash of a password stored with an outdated cost")
+  void authenticate_withOutdatedHash_shouldUpgradeIt() {
+    // Given
+    User upgraded =
+        User.builder()
+            .id(1L)
+            .email(user.getEmail())
+            .password("newHash")
+            .role(Role.ROLE_USER)
+            .build();
+    when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding("hash")).thenReturn(true);
+    when(passwordEncoder.encode("password")).thenReturn("newHash");
+    when(userDetailsPasswordService.updatePassword(user, "newHash")).thenReturn(upgraded);
+
+    // When
+    provider.authenticate(new PreloadedUserAuthenticationToken(user.getEmail(), "password", user));
+
+    // Then
+    verify(userDetailsPasswordService).updatePassword(user, "newHash");
+  }
+
+  @Test
+  @DisplayName("supports: should only support logins carrying their user")
+  void supports_shouldOnlySupportPreloadedTokens() {
+    assertTrue(provider.supports(PreloadedUserAuthenticationToken.class));
+    assertFalse(provider.supports(UsernamePasswordAuthenticationToken.class));
+  }
+}
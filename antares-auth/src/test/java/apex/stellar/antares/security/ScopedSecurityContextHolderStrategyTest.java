@@ -0,0 +1,125 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.concurrent.FailFastTaskScope;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+/** Unit tests for {@link ScopedSecurityContextHolderStrategy}. */
+class ScopedSecurityContextHolderStrategyTest {
+
+  private final ScopedSecurityContextHolderStrategy strategy =
+      new ScopedSecurityContextHolderStrategy();
+
+  @AfterEach
+  void tearDown() {
+    strategy.clearContext();
+  }
+
+  @Test
+  @DisplayName("callInNewScope: should start empty and leave the caller's context untouched")
+  void callInNewScope_shouldIsolateTheScope() throws Exception {
+    // Given
+    Authentication outer = authentication("outer");
+    strategy.setContext(new SecurityContextImpl(outer));
+
+    // When
+    Authentication seen =
+        ScopedSecurityContextHolderStrategy.callInNewScope(
+            () -> {
+              Authentication initial = strategy.getContext().getAuthentication();
+              strategy.setContext(new SecurityContextImpl(authentication("inner")));
+              return initial;
+            });
+
+    // Then
+    assertNull(seen);
+    assertSame(outer, strategy.getContext().getAuthentication());
+  }
+
+  @Test
+  @DisplayName("inherit: should hand the owner's context to the subtasks, in slots of their own")
+  void inherit_shouldPropagateContextToSubtasks() throws Exception {
+    // Given
+    Authentication owner = authentication("owner");
+
+    // When
+    List<Object> seen =
+        ScopedSecurityContextHolderStrategy.callInNewScope(
+            () -> {
+              strategy.setContext(new SecurityContextImpl(owner));
+              try (FailFastTaskScope scope = new FailFastTaskScope()) {
+                FailFastTaskScope.Subtask<Authentication> first =
+                    scope.fork(
+                        () -> {
+                          Authentication inherited = strategy.getContext().getAuthentication();
+                          strategy.setContext(new SecurityContextImpl(authentication("subtask")));
+                          return inherited;
+                        });
+                FailFastTaskScope.Subtask<Authentication> second =
+                    scope.fork(() -> strategy.getContext().getAuthentication());
+                scope.join();
+                return List.of(
+                    first.get(), second.get(), strategy.getContext().getAuthentication());
+              }
+            });
+
+    // Then
+    assertEquals(List.of(owner, owner, owner), seen);
+  }
+
+  @Test
+  @DisplayName("inherit: should hand the subtasks a read-only copy of the owner's context")
+  void inherit_shouldForbidModifyingInheritedContext() throws Exception {
+    // Given
+    Authentication owner = authentication("owner");
+
+    // When
+    Authentication ownerAfterSubtask =
+        ScopedSecurityContextHolderStrategy.callInNewScope(
+            () -> {
+              strategy.setContext(new SecurityContextImpl(owner));
+              try (FailFastTaskScope scope = new FailFastTaskScope()) {
+                scope.fork(
+                    () -> {
+                      strategy.getContext().setAuthentication(authentication("subtask"));
+                      return null;
+                    });
+                // Then
+                assertThrows(UnsupportedOperationException.class, scope::join);
+              }
+              return strategy.getContext().getAuthentication();
+            });
+
+    // Then
+    assertSame(owner, ownerAfterSubtask);
+  }
+
+  @Test
+  @DisplayName("outside a scope: should fall back to a thread-local and leave subtasks as is")
+  void outsideScope_shouldFallBackToThreadLocal() {
+    // Given
+    Authentication authentication = authentication("thread");
+    Callable<String> task = () -> "result";
+
+    // When
+    strategy.setContext(new SecurityContextImpl(authentication));
+
+    // Then
+    assertSame(authentication, strategy.getContext().getAuthentication());
+    assertSame(task, ScopedSecurityContextHolderStrategy.inherit(task));
+    strategy.clearContext();
+    assertNull(strategy.getContext().getAuthentication());
+  }
+
+  private static Authentication authentication(String name) {
+    return new TestingAuthenticationToken(name, null, "ROLE_USER");
+  }
+}
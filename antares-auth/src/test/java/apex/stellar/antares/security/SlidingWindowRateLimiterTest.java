@@ -0,0 +1,92 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link SlidingWindowRateLimiter}. */
+class SlidingWindowRateLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private SlidingWindowRateLimiter limiter;
+
+  @BeforeEach
+  void setUp() {
+    clock.set(60_000);
+    limiter = new SlidingWindowRateLimiter(3, Duration.ofMinutes(1), 100, clock::get);
+  }
+
+  @Test
+  @DisplayName("tryAcquire: should grant up to the limit, then return the remaining window")
+  void tryAcquire_shouldRejectBeyondLimit() {
+    // Given
+    clock.addAndGet(15_000);
+
+    // When & Then
+    assertEquals(0, limiter.tryAcquire("ip"));
+    assertEquals(0, limiter.tryAcquire("ip"));
+    assertEquals(0, limiter.tryAcquire("ip"));
+    assertEquals(45_000, limiter.tryAcquire("ip"));
+    assertEquals(0, limiter.tryAcquire("other"));
+  }
+
+  @Test
+  @DisplayName("tryAcquire: should weight the previous window by its remaining overlap")
+  void tryAcquire_shouldSlide() {
+    // Given: the limit is used at the end of a window
+    clock.addAndGet(59_000);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, limiter.tryAcquire("ip"));
+    }
+
+    // When: a third of the next window has elapsed (3 * 2/3 = 2 permits still counted)
+    clock.set(140_000);
+
+    // Then
+    assertEquals(0, limiter.tryAcquire("ip"));
+    assertTrue(limiter.tryAcquire("ip") > 0);
+
+    // And: two windows later, the history is gone
+    clock.set(240_000);
+    assertEquals(0, limiter.tryAcquire("ip"));
+  }
+
+  @Test
+  @DisplayName("tryAcquire: concurrent callers should never exceed the limit")
+  void tryAcquire_concurrent_shouldNotOvershoot() throws Exception {
+    // Given
+    SlidingWindowRateLimiter shared =
+        new SlidingWindowRateLimiter(50, Duration.ofMinutes(1), 100, clock::get);
+
+    // When
+    long granted;
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      List<Future<Long>> futures =
+          IntStream.range(0, 500)
+              .mapToObj(i -> executor.submit(() -> shared.tryAcquire("ip")))
+              .toList();
+      granted =
+          futures.stream().map(SlidingWindowRateLimiterTest::join).filter(w -> w == 0).count();
+    }
+
+    // Then
+    assertEquals(50, granted);
+  }
+
+  private static long join(Future<Long> future) {
+    try {
+      return future.get();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package apex.stellar.antares.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for {@link TokenHashes}. */
+class TokenHashesTest {
+
+  @Test
+  @DisplayName("sha256: should return the Base64url-encoded SHA-256 hash, without padding")
+  void sha256_shouldEncodeHashAsBase64Url() {
+    // When & Then: the FIPS 180-2 test vector
+    assertEquals("ungWv48Bz-pBQUDeXa4iI7ADYaOWF3qctBD_YfIAFa0", TokenHashes.sha256("abc"));
+  }
+}
@@ -8,23 +8,35 @@ import static org.mockito.Mockito.*;
 
 import apex.stellar.antares.dto.AuthenticationRequest;
 import apex.stellar.antares.dto.RegisterRequest;
+import apex.stellar.antares.dto.TokenRefreshResponse;
 import apex.stellar.antares.exception.AccountLockedException;
 import apex.stellar.antares.exception.DataConflictException;
+import apex.stellar.antares.exception.ResourceNotFoundException;
 import apex.stellar.antares.mapper.UserMapper;
 import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
 import apex.stellar.antares.repository.UserRepository;
+import apex.stellar.antares.security.PreloadedUserAuthenticationProvider;
+import apex.stellar.antares.security.PreloadedUserAuthenticationToken;
 import jakarta.servlet.http.HttpServletResponse;
+import java.sql.SQLException;
 import java.util.Optional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +50,8 @@ class AuthenticationServiceTest {
   @Mock private RefreshTokenService refreshTokenService;
   @Mock private CookieService cookieService;
   @Mock private LoginAttemptService loginAttemptService; // Nouvelle dépendance
+  @Mock private TokenGenerationService tokenGenerationService;
+  @Mock private UserDetailsService userDetailsService;
   @Mock private HttpServletResponse httpServletResponse;
 
   @InjectMocks private AuthenticationService authenticationService;
@@ -95,24 +109,67 @@ class AuthenticationServiceTest {
     verify(userRepository, never()).save(any(User.class));
   }
 
+  @Test
+  @DisplayName("register: should map a concurrent duplicate insert to DataConflictException")
+  void testRegister_whenConcurrentDuplicate_shouldThrowException() {
+    // Given: the email was free when checked, but another request inserted it meanwhile
+    RegisterRequest request =
+        new RegisterRequest("Jane", "Doe", "jane.doe@example.com", "password123");
+    when(userRepository.findByEmail(request.email())).thenReturn(Optional.empty());
+    when(passwordEncoder.encode(request.password())).thenReturn("hashedPassword");
+    when(userRepository.save(any(User.class))).thenThrow(integrityViolation("users_email_key"));
+
+    // When & Then
+    assertThrows(
+        DataConflictException.class,
+        () -> authenticationService.register(request, httpServletResponse));
+    verifyNoInteractions(refreshTokenService, cookieService);
+  }
+
+  @Test
+  @DisplayName("register: should not report other integrity violations as an email in use")
+  void testRegister_whenOtherConstraintViolated_shouldRethrow() {
+    // Given
+    RegisterRequest request =
+        new RegisterRequest("Jane", "Doe", "jane.doe@example.com", "password123");
+    when(userRepository.findByEmail(request.email())).thenReturn(Optional.empty());
+    when(passwordEncoder.encode(request.password())).thenReturn("hashedPassword");
+    when(userRepository.save(any(User.class))).thenThrow(integrityViolation("chk_locale"));
+
+    // When & Then
+    assertThrows(
+        DataIntegrityViolationException.class,
+        () -> authenticationService.register(request, httpServletResponse));
+    verifyNoInteractions(refreshTokenService, cookieService);
+  }
+
   @Test
   @DisplayName("login: should authenticate, reset attempts and set cookies for valid credentials")
   void testLogin_withValidCredentials_shouldAuthenticate() {
     // Given
     AuthenticationRequest request = new AuthenticationRequest("test@example.com", "password");
-    User user = User.builder().email(request.email()).build();
+    User user = User.builder().email(request.email()).role(Role.ROLE_USER).build();
 
     // Mock non-blocked user
-    when(loginAttemptService.isBlocked(request.email())).thenReturn(false);
-    when(userRepository.findByEmail(request.email())).thenReturn(Optional.of(user));
-    when(jwtService.generateToken(any(User.class))).thenReturn("fakeAccessToken");
+    when(loginAttemptService.getStatus(request.email()))
+        .thenReturn(new LoginAttemptService.LoginAttemptStatus(0, false, 0));
+    when(userDetailsService.loadUserByUsername(request.email())).thenReturn(user);
+    when(authenticationManager.authenticate(any(PreloadedUserAuthenticationToken.class)))
+        .thenReturn(
+            UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+    when(jwtService.generateToken(user)).thenReturn("fakeAccessToken");
     when(refreshTokenService.createRefreshToken(any(User.class))).thenReturn("fakeRefreshToken");
 
     // When
     authenticationService.login(request, httpServletResponse);
 
-    // Then
-    verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+    // Then: the user is loaded once, handed to the authentication, and its principal reused
+    ArgumentCaptor<PreloadedUserAuthenticationToken> token =
+        ArgumentCaptor.forClass(PreloadedUserAuthenticationToken.class);
+    verify(authenticationManager).authenticate(token.capture());
+    assertSame(user, token.getValue().getUser());
+    verify(userRepository, never()).findByEmail(any());
+    verify(userDetailsService).loadUserByUsername(request.email());
     // Vérifie que les tentatives sont réinitialisées
     verify(loginAttemptService).loginSucceeded(request.email());
     verify(cookieService).addCookie(any(), eq("fakeAccessToken"), anyLong(), any());
@@ -124,8 +181,8 @@ class AuthenticationServiceTest {
   void testLogin_whenAccountLocked_shouldThrowException() {
     // Given
     AuthenticationRequest request = new AuthenticationRequest("locked@example.com", "password");
-    when(loginAttemptService.isBlocked(request.email())).thenReturn(true);
-    when(loginAttemptService.getBlockTimeRemaining(request.email())).thenReturn(300L);
+    when(loginAttemptService.getStatus(request.email()))
+        .thenReturn(new LoginAttemptService.LoginAttemptStatus(0, true, 300_000L));
 
     // When & Then
     assertThrows(
@@ -139,9 +196,12 @@ class AuthenticationServiceTest {
   @Test
   @DisplayName("login: should record failure if BadCredentialsException is thrown")
   void testLogin_withBadCredentials_shouldRecordFailure() {
-    // Given
+    // Given: an unknown email, left to the authentication
     AuthenticationRequest request = new AuthenticationRequest("hacker@example.com", "wrong");
-    when(loginAttemptService.isBlocked(request.email())).thenReturn(false);
+    when(loginAttemptService.getStatus(request.email()))
+        .thenReturn(new LoginAttemptService.LoginAttemptStatus(0, false, 0));
+    when(userDetailsService.loadUserByUsername(request.email()))
+        .thenThrow(new UsernameNotFoundException("Unknown"));
     doThrow(new BadCredentialsException("Bad creds"))
         .when(authenticationManager)
         .authenticate(any());
@@ -158,10 +218,98 @@ class AuthenticationServiceTest {
   }
 
   @Test
-  @DisplayName("logout: should revoke refresh token and clear cookies")
+  @DisplayName("login: should look an unknown email up once, and still verify a password")
+  void testLogin_withUnknownEmail_shouldLookUpOnce() {
+    // Given: the actual authentication manager
+    AuthenticationRequest request = new AuthenticationRequest("unknown@example.com", "password");
+    AuthenticationService service =
+        new AuthenticationService(
+            userRepository,
+            passwordEncoder,
+            jwtService,
+            new ProviderManager(
+                new PreloadedUserAuthenticationProvider(
+                    passwordEncoder, mock(UserDetailsPasswordService.class))),
+            userMapper,
+            refreshTokenService,
+            cookieService,
+            loginAttemptService,
+            tokenGenerationService,
+            userDetailsService);
+    when(loginAttemptService.getStatus(request.email()))
+        .thenReturn(new LoginAttemptService.LoginAttemptStatus(0, false, 0));
+    when(userDetailsService.loadUserByUsername(request.email()))
+        .thenThrow(new UsernameNotFoundException("Unknown"));
+    when(passwordEncoder.encode(any())).thenReturn("dummyHash");
+
+    // When & Then
+    assertThrows(BadCredentialsException.class, () -> service.login(request, httpServletResponse));
+    verify(userDetailsService, times(1)).loadUserByUsername(request.email());
+    verify(passwordEncoder).matches(request.password(), "dummyHash"); // Same cost as a known email
+    verify(loginAttemptService).loginFailed(request.email());
+  }
+
+  @Test
+  @DisplayName("reissueAccessToken: should only set a new access token cookie")
+  void testReissueAccessToken_shouldSetAccessTokenCookie() {
+    // Given
+    User user = User.builder().id(7L).email("john.doe@example.com").locale("fr").build();
+    when(jwtService.getAccessTokenCookieName()).thenReturn("access_token_cookie");
+    when(jwtService.generateToken(user)).thenReturn("newAccessToken");
+
+    // When
+    authenticationService.reissueAccessToken(user, httpServletResponse);
+
+    // Then: the refresh token is left as is
+    verify(cookieService)
+        .addCookie(
+            eq("access_token_cookie"), eq("newAccessToken"), anyLong(), eq(httpServletResponse));
+    verifyNoMoreInteractions(cookieService);
+    verifyNoInteractions(refreshTokenService);
+  }
+
+  @Test
+  @DisplayName("refreshToken: should rotate the refresh token and set both cookies")
+  void testRefreshToken_shouldRotateAndSetCookies() {
+    // Given
+    User user = new User();
+    when(refreshTokenService.rotateRefreshToken(eq("oldRefreshToken"), any()))
+        .thenReturn(
+            Optional.of(
+                new RefreshTokenService.RotatedRefreshToken(
+                    user, "newAccessToken", "newRefreshToken")));
+    when(jwtService.getRefreshTokenCookieName()).thenReturn("refresh_token_cookie");
+
+    // When
+    TokenRefreshResponse result =
+        authenticationService.refreshToken("oldRefreshToken", httpServletResponse);
+
+    // Then
+    assertEquals("newAccessToken", result.accessToken());
+    verify(cookieService)
+        .addCookie(eq("refresh_token_cookie"), eq("newRefreshToken"), anyLong(), any());
+    verify(refreshTokenService, never()).createRefreshToken(any());
+  }
+
+  @Test
+  @DisplayName("refreshToken: should reject a consumed refresh token")
+  void testRefreshToken_whenTokenConsumed_shouldThrowException() {
+    // Given
+    when(refreshTokenService.rotateRefreshToken(eq("replayedToken"), any()))
+        .thenReturn(Optional.empty());
+
+    // When & Then
+    assertThrows(
+        ResourceNotFoundException.class,
+        () -> authenticationService.refreshToken("replayedToken", httpServletResponse));
+    verifyNoInteractions(cookieService);
+  }
+
+  @Test
+  @DisplayName("logout: should revoke the refresh and access tokens and clear cookies")
   void testLogout_shouldRevokeTokenAndClearCookies() {
     // Given
-    User currentUser = new User();
+    User currentUser = User.builder().id(7L).build();
     String accessTokenName = "access_token_cookie";
     String refreshTokenName = "refresh_token_cookie";
     when(jwtService.getAccessTokenCookieName()).thenReturn(accessTokenName);
@@ -172,7 +320,15 @@ class AuthenticationServiceTest {
 
     // Then
     verify(refreshTokenService).deleteTokenForUser(currentUser);
+    verify(tokenGenerationService).revokeAll(7L);
     verify(cookieService).clearCookie(accessTokenName, httpServletResponse);
     verify(cookieService).clearCookie(refreshTokenName, httpServletResponse);
   }
+
+  private static DataIntegrityViolationException integrityViolation(String constraintName) {
+    return new DataIntegrityViolationException(
+        "could not execute statement",
+        new ConstraintViolationException(
+            "could not execute statement", new SQLException("violation"), constraintName));
+  }
 }
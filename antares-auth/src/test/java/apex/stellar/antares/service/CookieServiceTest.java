@@ -27,9 +27,12 @@ class CookieServiceTest {
             "secret",
             "test-issuer",
             "test-audience",
-            new JwtProperties.AccessToken(1L, "access"),
-            new JwtProperties.RefreshToken(1L, "refresh"),
-            new JwtProperties.CookieProperties(isSecure, "stellar.atlas"));
+            new JwtProperties.AccessToken(1L, "access", 0L, null, 0L),
+            new JwtProperties.RefreshToken(1L, "refresh", 0L),
+            new JwtProperties.CookieProperties(isSecure, "stellar.atlas"),
+            false,
+            null,
+            null);
     cookieService = new CookieService(jwtProperties);
   }
 
@@ -0,0 +1,166 @@
+package apex.stellar.antares.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.UserAuthenticationConverter;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+/** Unit tests for {@link ForwardAuthService}. */
+@ExtendWith(MockitoExtension.class)
+class ForwardAuthServiceTest {
+
+  @Mock private JwtDecoder jwtDecoder;
+  @Mock private UserAuthenticationConverter userAuthenticationConverter;
+  @Mock private TokenGenerationService tokenGenerationService;
+  @Mock private AccessTokenExpiryPolicy accessTokenExpiryPolicy;
+
+  private ForwardAuthService forwardAuthService;
+
+  @BeforeEach
+  void setUp() {
+    lenient()
+        .when(accessTokenExpiryPolicy.effectiveExpiry(any()))
+        .thenAnswer(invocation -> invocation.<Jwt>getArgument(0).getExpiresAt());
+    forwardAuthService =
+        new ForwardAuthService(
+            jwtDecoder,
+            userAuthenticationConverter,
+            tokenGenerationService,
+            accessTokenExpiryPolicy,
+            new SimpleMeterRegistry(),
+            new JwtProperties(
+                "secret",
+                "issuer",
+                "audience",
+                null,
+                null,
+                null,
+                false,
+                null,
+                new JwtProperties.Verify(100, 5000)));
+  }
+
+  @Test
+  @DisplayName("decide: should grant an admin and reuse the cached decision")
+  void decide_admin_shouldGrantAndCacheDecision() {
+    // Given
+    Jwt jwt = jwtExpiringIn(60);
+    when(jwtDecoder.decode("admin-token")).thenReturn(jwt);
+    when(userAuthenticationConverter.convert(jwt)).thenReturn(authenticationFor(Role.ROLE_ADMIN));
+
+    // When
+    ForwardAuthService.Decision first = forwardAuthService.decide("admin-token");
+    ForwardAuthService.Decision second = forwardAuthService.decide("admin-token");
+
+    // Then: the token is only verified once
+    assertEquals(ForwardAuthService.Decision.GRANTED, first);
+    assertEquals(ForwardAuthService.Decision.GRANTED, second);
+    verify(jwtDecoder, times(1)).decode("admin-token");
+  }
+
+  @Test
+  @DisplayName("decide: should forbid a standard user")
+  void decide_user_shouldForbid() {
+    // Given
+    Jwt jwt = jwtExpiringIn(60);
+    when(jwtDecoder.decode("user-token")).thenReturn(jwt);
+    when(userAuthenticationConverter.convert(jwt)).thenReturn(authenticationFor(Role.ROLE_USER));
+
+    // When & Then
+    assertEquals(ForwardAuthService.Decision.FORBIDDEN, forwardAuthService.decide("user-token"));
+  }
+
+  @Test
+  @DisplayName("decide: should cache an invalid token negatively")
+  void decide_invalidToken_shouldBeCachedNegatively() {
+    // Given
+    when(jwtDecoder.decode("bad-token")).thenThrow(new BadJwtException("Invalid signature"));
+
+    // When
+    forwardAuthService.decide("bad-token");
+    ForwardAuthService.Decision decision = forwardAuthService.decide("bad-token");
+
+    // Then
+    assertEquals(ForwardAuthService.Decision.UNAUTHENTICATED, decision);
+    verify(jwtDecoder, times(1)).decode("bad-token");
+  }
+
+  @Test
+  @DisplayName("decide: should reject a token whose subject no longer exists")
+  void decide_unknownUser_shouldBeUnauthenticated() {
+    // Given
+    Jwt jwt = jwtExpiringIn(60);
+    when(jwtDecoder.decode("orphan-token")).thenReturn(jwt);
+    when(userAuthenticationConverter.convert(jwt)).thenThrow(new UsernameNotFoundException("gone"));
+
+    // When & Then
+    assertEquals(
+        ForwardAuthService.Decision.UNAUTHENTICATED, forwardAuthService.decide("orphan-token"));
+  }
+
+  @Test
+  @DisplayName("decide: should reject a cached token once its user revoked their tokens")
+  void decide_revokedToken_shouldBeUnauthenticated() {
+    // Given
+    Jwt jwt =
+        Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("john@example.com")
+            .claim(JwtService.USER_ID_CLAIM, 42L)
+            .claim(JwtService.GENERATION_CLAIM, 1L)
+            .expiresAt(Instant.now().plusSeconds(60))
+            .build();
+    when(jwtDecoder.decode("admin-token")).thenReturn(jwt);
+    when(userAuthenticationConverter.convert(jwt)).thenReturn(authenticationFor(Role.ROLE_ADMIN));
+    when(tokenGenerationService.isRevoked(42L, 1L)).thenReturn(false, true);
+
+    // When
+    ForwardAuthService.Decision beforeRevocation = forwardAuthService.decide("admin-token");
+    ForwardAuthService.Decision afterRevocation = forwardAuthService.decide("admin-token");
+
+    // Then: the cached decision is overridden without verifying the token again
+    assertEquals(ForwardAuthService.Decision.GRANTED, beforeRevocation);
+    assertEquals(ForwardAuthService.Decision.UNAUTHENTICATED, afterRevocation);
+    verify(jwtDecoder, times(1)).decode("admin-token");
+  }
+
+  @Test
+  @DisplayName("decide: should not verify anything when no token is provided")
+  void decide_missingToken_shouldBeUnauthenticated() {
+    // When & Then
+    assertEquals(ForwardAuthService.Decision.UNAUTHENTICATED, forwardAuthService.decide(null));
+    verifyNoInteractions(jwtDecoder, userAuthenticationConverter);
+  }
+
+  private static Jwt jwtExpiringIn(long seconds) {
+    Instant now = Instant.now();
+    return Jwt.withTokenValue("token")
+        .header("alg", "HS256")
+        .subject("john@example.com")
+        .issuedAt(now)
+        .expiresAt(now.plusSeconds(seconds))
+        .build();
+  }
+
+  private static UsernamePasswordAuthenticationToken authenticationFor(Role role) {
+    User user = User.builder().email("john@example.com").role(role).build();
+    return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+  }
+}
@@ -5,10 +5,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import apex.stellar.antares.config.JwtProperties;
+import apex.stellar.antares.config.JwtSigningKeys;
 import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.security.AccessTokenExpiryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,8 +20,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
@@ -34,7 +41,11 @@ class JwtServiceTest {
 
   @Mock private JwtProperties jwtProperties;
   @Mock private JwtEncoder jwtEncoder;
+  @Mock private JwtSigningKeys jwtSigningKeys;
+  @Mock private TokenGenerationService tokenGenerationService;
+  @Mock private AccessTokenExpiryPolicy accessTokenExpiryPolicy;
   @Mock private HttpServletRequest request;
+  @Spy private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
   @InjectMocks private JwtService jwtService;
 
@@ -57,15 +68,16 @@ class JwtServiceTest {
   @DisplayName("generateToken: should correctly delegate to JwtEncoder with expected claims")
   void generateToken_shouldDelegateToJwtEncoder() {
     // Given
-    // Mocking JWT properties specifically for this test case
-    JwtProperties.AccessToken accessTokenProps = mock(JwtProperties.AccessToken.class);
-    when(jwtProperties.accessToken()).thenReturn(accessTokenProps);
-    when(accessTokenProps.expiration()).thenReturn(60000L); // 1 minute expiration
+    // Mocking the expiry policy specifically for this test case (1 minute expiration)
+    when(accessTokenExpiryPolicy.expiresAt(any()))
+        .thenAnswer(invocation -> invocation.<Instant>getArgument(0).plusSeconds(60));
 
     // Important: The issuer must be a valid URL to satisfy Spring Security's strict validation
     when(jwtProperties.issuer()).thenReturn("https://test-issuer.com");
     when(jwtProperties.audience()).thenReturn("test-audience");
 
+    when(jwtSigningKeys.header()).thenReturn(JwsHeader.with(MacAlgorithm.HS256).build());
+
     // Mocking the JwtEncoder behavior
     Jwt jwtMock = mock(Jwt.class);
     when(jwtMock.getTokenValue()).thenReturn("encoded-jwt-token-value");
@@ -88,9 +100,51 @@ class JwtServiceTest {
     assertEquals("https://test-issuer.com", params.getClaims().getIssuer().toString());
     assertTrue(params.getClaims().getAudience().contains("test-audience"));
     assertEquals("test@example.com", params.getClaims().getSubject());
+    assertEquals(
+        params.getClaims().getIssuedAt().plusSeconds(60), params.getClaims().getExpiresAt());
 
     // Assertion on the custom "scope" claim (mapped from authorities)
     assertEquals("ROLE_USER", params.getClaims().getClaim("scope"));
+    assertEquals(1, meterRegistry.get("antares.token.generate").timer().count());
+  }
+
+  @Test
+  @DisplayName("generateToken: should add the uid, locale and ver claims for a persisted user")
+  void generateToken_shouldAddPrincipalClaims_whenUserIsPersisted() {
+    // Given
+    User persistedUser =
+        User.builder()
+            .id(42L)
+            .email("test@example.com")
+            .password("password")
+            .role(Role.ROLE_ADMIN)
+            .locale("fr")
+            .build();
+
+    when(accessTokenExpiryPolicy.expiresAt(any()))
+        .thenAnswer(invocation -> invocation.<Instant>getArgument(0).plusSeconds(60));
+    when(jwtProperties.issuer()).thenReturn("https://test-issuer.com");
+    when(jwtProperties.audience()).thenReturn("test-audience");
+    when(jwtSigningKeys.header()).thenReturn(JwsHeader.with(MacAlgorithm.HS256).build());
+    when(tokenGenerationService.generationForIssuance(42L)).thenReturn(3L);
+
+    Jwt jwtMock = mock(Jwt.class);
+    when(jwtMock.getTokenValue()).thenReturn("encoded-jwt-token-value");
+    when(jwtEncoder.encode(any(JwtEncoderParameters.class))).thenReturn(jwtMock);
+
+    // When
+    jwtService.generateToken(persistedUser);
+
+    // Then
+    ArgumentCaptor<JwtEncoderParameters> captor =
+        ArgumentCaptor.forClass(JwtEncoderParameters.class);
+    verify(jwtEncoder).encode(captor.capture());
+
+    JwtEncoderParameters params = captor.getValue();
+    assertEquals(42L, (Long) params.getClaims().getClaim(JwtService.USER_ID_CLAIM));
+    assertEquals("fr", params.getClaims().getClaim(JwtService.LOCALE_CLAIM));
+    assertEquals("ROLE_ADMIN", params.getClaims().getClaim(JwtService.SCOPE_CLAIM));
+    assertEquals(3L, (Long) params.getClaims().getClaim(JwtService.GENERATION_CLAIM));
   }
 
   @Test
@@ -0,0 +1,97 @@
+package apex.stellar.antares.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/** Integration tests for {@link LoginAttemptService} against a real Redis. */
+class LoginAttemptServiceIT extends BaseIntegrationTest {
+
+  private static final String EMAIL = "brute@example.com";
+
+  @Autowired private LoginAttemptService loginAttemptService;
+  @Autowired private StringRedisTemplate redisTemplate;
+
+  @Value("${application.security.login.max-attempts:5}")
+  private int maxAttempts;
+
+  @AfterEach
+  void cleanUpRedis() {
+    redisTemplate.execute(
+        (RedisConnection connection) -> {
+          connection.serverCommands().flushAll();
+          return null;
+        });
+  }
+
+  @Test
+  @DisplayName("loginFailed: should lock the account once the threshold is reached")
+  void loginFailed_shouldLockAtThreshold() {
+    // When
+    for (int i = 1; i < maxAttempts; i++) {
+      assertFalse(loginAttemptService.loginFailed(EMAIL).locked());
+    }
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.loginFailed(EMAIL);
+
+    // Then
+    assertTrue(status.locked());
+    assertTrue(loginAttemptService.getStatus(EMAIL).lockRemainingSeconds() > 0);
+    assertFalse(redisTemplate.hasKey("login_attempts:" + EMAIL));
+  }
+
+  @Test
+  @DisplayName("loginFailed: concurrent failures should never overshoot the threshold")
+  void loginFailed_concurrentFailures_shouldNotOvershoot() throws Exception {
+    // When
+    List<LoginAttemptService.LoginAttemptStatus> statuses;
+    try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      List<Future<LoginAttemptService.LoginAttemptStatus>> futures =
+          IntStream.range(0, maxAttempts * 4)
+              .mapToObj(i -> executor.submit(() -> loginAttemptService.loginFailed(EMAIL)))
+              .toList();
+      statuses = futures.stream().map(LoginAttemptServiceIT::join).toList();
+    }
+
+    // Then: exactly one failure reached the threshold; the later ones were not counted
+    assertEquals(1, statuses.stream().filter(s -> s.attempts() == maxAttempts).count());
+    assertTrue(statuses.stream().allMatch(s -> s.attempts() <= maxAttempts));
+    assertTrue(loginAttemptService.getStatus(EMAIL).locked());
+  }
+
+  @Test
+  @DisplayName("loginSucceeded: should clear the attempts and the lock")
+  void loginSucceeded_shouldReset() {
+    // Given
+    for (int i = 0; i < maxAttempts; i++) {
+      loginAttemptService.loginFailed(EMAIL);
+    }
+
+    // When
+    loginAttemptService.loginSucceeded(EMAIL);
+
+    // Then
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.getStatus(EMAIL);
+    assertFalse(status.locked());
+    assertEquals(0, status.attempts());
+  }
+
+  private static <T> T join(Future<T> future) {
+    try {
+      return future.get();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -2,20 +2,21 @@ package apex.stellar.antares.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
-import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,143 +29,109 @@ class LoginAttemptServiceTest {
   private final int maxAttempts = 3;
   private final long lockDuration = 60000L; // 1 minute en ms
   @Mock private StringRedisTemplate redisTemplate;
-  @Mock private ValueOperations<String, String> valueOperations;
+  @Spy private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
   @InjectMocks private LoginAttemptService loginAttemptService;
 
   @BeforeEach
   void setUp() {
-    // Mock de la chaîne d'appel redisTemplate.opsForValue()
-    // 'lenient()' est utilisé car certains tests n'appellent pas cette méthode (ex: loginSucceeded)
-    lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-
     // Injection manuelle des propriétés @Value (normalement fait par Spring)
     ReflectionTestUtils.setField(loginAttemptService, "maxAttempts", maxAttempts);
     ReflectionTestUtils.setField(loginAttemptService, "lockDurationMs", lockDuration);
   }
 
   @Test
-  @DisplayName("loginFailed: First attempt should increment counter and set expiration")
-  void loginFailed_firstAttempt() {
+  @DisplayName("loginFailed: Should run a single script with the threshold and lock duration")
+  void loginFailed_shouldRunSingleScript() {
     // Given
-    when(valueOperations.increment(attemptKey)).thenReturn(1L);
+    when(redisTemplate.execute(
+            any(RedisScript.class), eq(List.of(attemptKey, lockKey)), eq("3"), eq("60000")))
+        .thenReturn(List.of(1L, 0L, 0L));
 
     // When
-    loginAttemptService.loginFailed(email);
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.loginFailed(email);
 
     // Then
-    verify(valueOperations).increment(attemptKey);
-    // Vérifie que l'expiration est définie au premier échec
-    verify(redisTemplate).expire(attemptKey, lockDuration, TimeUnit.MILLISECONDS);
-    // Vérifie qu'on ne verrouille PAS le compte tout de suite
-    verify(valueOperations, never()).set(anyString(), anyString(), anyLong(), any());
+    assertEquals(1, status.attempts());
+    assertFalse(status.locked());
+    verify(redisTemplate, times(1)).execute(any(RedisScript.class), any(List.class), any(), any());
+    verifyNoMoreInteractions(redisTemplate);
+    assertEquals(
+        1,
+        meterRegistry
+            .get("antares.redis.operation")
+            .tags("store", "login-attempts", "operation", "failure")
+            .timer()
+            .count());
   }
 
   @Test
-  @DisplayName("loginFailed: Second attempt should only increment")
-  void loginFailed_secondAttempt() {
-    // Given
-    when(valueOperations.increment(attemptKey)).thenReturn(2L);
-
-    // When
-    loginAttemptService.loginFailed(email);
-
-    // Then
-    verify(valueOperations).increment(attemptKey);
-    // Pas de nouvelle expiration, pas de lock
-    verify(redisTemplate, never()).expire(anyString(), anyLong(), any());
-    verify(valueOperations, never()).set(eq(lockKey), anyString(), anyLong(), any());
-  }
-
-  @Test
-  @DisplayName("loginFailed: Max attempts reached should lock account and clear attempts")
+  @DisplayName("loginFailed: Max attempts reached should report the lock")
   void loginFailed_maxAttempts() {
     // Given
-    when(valueOperations.increment(attemptKey)).thenReturn((long) maxAttempts);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), any(), any()))
+        .thenReturn(List.of((long) maxAttempts, 1L, lockDuration));
 
     // When
-    loginAttemptService.loginFailed(email);
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.loginFailed(email);
 
     // Then
-    // 1. On doit poser le verrou (clé 'account_locked')
-    verify(valueOperations).set(lockKey, "true", lockDuration, TimeUnit.MILLISECONDS);
-    // 2. On doit supprimer le compteur de tentatives pour repartir propre après le ban
-    verify(redisTemplate).delete(attemptKey);
+    assertTrue(status.locked());
+    assertEquals(60, status.lockRemainingSeconds());
   }
 
   @Test
-  @DisplayName("loginSucceeded: Should clear both attempts and lock keys")
+  @DisplayName("loginSucceeded: Should clear both attempts and lock keys in one command")
   void loginSucceeded() {
     // When
     loginAttemptService.loginSucceeded(email);
 
     // Then
-    verify(redisTemplate).delete(attemptKey);
-    verify(redisTemplate).delete(lockKey);
-  }
-
-  @Test
-  @DisplayName("isBlocked: Should return true if lock key exists")
-  void isBlocked_true() {
-    // Given
-    when(redisTemplate.hasKey(lockKey)).thenReturn(true);
-
-    // When
-    boolean result = loginAttemptService.isBlocked(email);
-
-    // Then
-    assertTrue(result);
-  }
-
-  @Test
-  @DisplayName("isBlocked: Should return false if lock key is missing")
-  void isBlocked_false() {
-    // Given
-    when(redisTemplate.hasKey(lockKey)).thenReturn(false);
-
-    // When
-    boolean result = loginAttemptService.isBlocked(email);
-
-    // Then
-    assertFalse(result);
+    verify(redisTemplate).delete(List.of(attemptKey, lockKey));
+    verifyNoMoreInteractions(redisTemplate);
   }
 
   @Test
-  @DisplayName("getBlockTimeRemaining: Should return TTL if key exists")
-  void getBlockTimeRemaining_exists() {
+  @DisplayName("getStatus: Should return the lock state and TTL from a single script")
+  void getStatus_locked() {
     // Given
-    long expectedTtl = 30L;
-    when(redisTemplate.getExpire(lockKey, TimeUnit.SECONDS)).thenReturn(expectedTtl);
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of(attemptKey, lockKey))))
+        .thenReturn(List.of(0L, 1L, 30_500L));
 
     // When
-    long result = loginAttemptService.getBlockTimeRemaining(email);
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.getStatus(email);
 
     // Then
-    assertEquals(expectedTtl, result);
+    assertTrue(status.locked());
+    assertEquals(30, status.lockRemainingSeconds());
   }
 
   @Test
-  @DisplayName("getBlockTimeRemaining: Should return 0 if key doesn't exist (TTL -2)")
-  void getBlockTimeRemaining_notExists() {
+  @DisplayName("getStatus: Should return attempts without lock if lock key is missing")
+  void getStatus_notLocked() {
     // Given
-    when(redisTemplate.getExpire(lockKey, TimeUnit.SECONDS)).thenReturn(-2L);
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of(attemptKey, lockKey))))
+        .thenReturn(List.of(2L, 0L, 0L));
 
     // When
-    long result = loginAttemptService.getBlockTimeRemaining(email);
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.getStatus(email);
 
     // Then
-    assertEquals(0, result);
+    assertEquals(2, status.attempts());
+    assertFalse(status.locked());
+    assertEquals(0, status.lockRemainingSeconds());
   }
 
   @Test
-  @DisplayName("getBlockTimeRemaining: Should return 0 if Redis returns null")
-  void getBlockTimeRemaining_null() {
+  @DisplayName("getStatus: Should return an unlocked status if Redis returns null")
+  void getStatus_null() {
     // Given
-    when(redisTemplate.getExpire(lockKey, TimeUnit.SECONDS)).thenReturn(null);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class))).thenReturn(null);
 
     // When
-    long result = loginAttemptService.getBlockTimeRemaining(email);
+    LoginAttemptService.LoginAttemptStatus status = loginAttemptService.getStatus(email);
 
     // Then
-    assertEquals(0, result);
+    assertFalse(status.locked());
+    assertEquals(0, status.lockRemainingSeconds());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,168 @@
+package apex.stellar.antares.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import apex.stellar.antares.dto.AuthenticationRequest;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Load test of the login flow against a deliberately small connection pool.
+ *
+ * <p>Runs the same concurrent login burst twice: wrapped in a transaction (as the flow used to be)
+ * and as-is. Reports the throughput and the Hikari metrics (time a connection is held, time spent
+ * waiting for one) of both runs.
+ */
+@Slf4j
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=2")
+class LoginConnectionPoolIT extends BaseIntegrationTest {
+
+  private static final int CLIENTS = 16;
+  private static final int LOGINS_PER_CLIENT = 10;
+  private static final String PASSWORD = "password123";
+
+  @Autowired private AuthenticationService authenticationService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private PasswordEncoder passwordEncoder;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private CacheManager cacheManager;
+
+  /**
+   * Recreates the load clients (the admins are kept), and drops the cached snapshots of the users
+   * deleted, in-process and in Redis.
+   */
+  @BeforeEach
+  void setUp() {
+    userRepository.deleteAll(
+        userRepository.findAll().stream()
+            .filter(u -> !u.getRole().name().equals("ROLE_ADMIN"))
+            .toList());
+    Objects.requireNonNull(cacheManager.getCache("users")).clear();
+    String password = passwordEncoder.encode(PASSWORD);
+    for (int client = 0; client < CLIENTS; client++) {
+      userRepository.save(
+          User.builder()
+              .firstName("Load")
+              .lastName("Client" + client)
+              .email(email(client))
+              .password(password)
+              .role(Role.ROLE_USER)
+              .build());
+    }
+  }
+
+  @Test
+  @DisplayName("Login burst: should not hold a connection while hashing")
+  void loginBurst_shouldHoldConnectionsBriefly() throws Exception {
+    // Warm up the caches and the JIT with both variants
+    runBurst(this::transactionalLogin, 1);
+    runBurst(this::login, 1);
+
+    Run transactional = runBurst(this::transactionalLogin, LOGINS_PER_CLIENT);
+    Run current = runBurst(this::login, LOGINS_PER_CLIENT);
+
+    log.info(
+        """
+
+        Login burst ({} clients x {} logins, pool size 2)
+                          | logins/s | mean connection usage (ms) | mean acquire wait (ms)
+          transactional   | {} | {} | {}
+          current         | {} | {} | {}\
+        """,
+        CLIENTS,
+        LOGINS_PER_CLIENT,
+        transactional.throughput(),
+        transactional.usageMs(),
+        transactional.acquireMs(),
+        current.throughput(),
+        current.usageMs(),
+        current.acquireMs());
+
+    assertTrue(current.usageMs() < transactional.usageMs());
+    assertTrue(current.acquireMs() < transactional.acquireMs());
+  }
+
+  private void login(int client) {
+    authenticationService.login(
+        new AuthenticationRequest(email(client), PASSWORD), new MockHttpServletResponse());
+  }
+
+  /** The former behavior: the whole flow runs in one transaction. */
+  private void transactionalLogin(int client) {
+    transactionTemplate.executeWithoutResult(status -> login(client));
+  }
+
+  private Run runBurst(Consumer<Integer> loginCall, int loginsPerClient) throws Exception {
+    Snapshot usageBefore = Snapshot.of(hikariTimer("hikaricp.connections.usage"));
+    Snapshot acquireBefore = Snapshot.of(hikariTimer("hikaricp.connections.acquire"));
+
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newFixedThreadPool(CLIENTS)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int client = 0; client < CLIENTS; client++) {
+        int id = client;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < loginsPerClient; i++) {
+                    loginCall.accept(id);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(2, TimeUnit.MINUTES);
+      }
+    }
+    long elapsedNanos = System.nanoTime() - start;
+
+    return new Run(
+        CLIENTS * loginsPerClient * 1e9 / elapsedNanos,
+        Snapshot.of(hikariTimer("hikaricp.connections.usage")).meanMsSince(usageBefore),
+        Snapshot.of(hikariTimer("hikaricp.connections.acquire")).meanMsSince(acquireBefore));
+  }
+
+  private Timer hikariTimer(String name) {
+    return meterRegistry.get(name).timer();
+  }
+
+  private static String email(int client) {
+    return "load" + client + "@test.com";
+  }
+
+  private record Run(double throughput, double usageMs, double acquireMs) {}
+
+  private record Snapshot(long count, double totalMs) {
+
+    static Snapshot of(Timer timer) {
+      return new Snapshot(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    double meanMsSince(Snapshot before) {
+      long calls = count - before.count;
+      return calls == 0 ? 0 : (totalMs - before.totalMs) / calls;
+    }
+  }
+}
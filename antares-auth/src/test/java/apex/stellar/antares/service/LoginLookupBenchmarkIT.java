@@ -0,0 +1,130 @@
+package apex.stellar.antares.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import apex.stellar.antares.config.BaseIntegrationTest;
+import apex.stellar.antares.config.DataAccessRecorder;
+import apex.stellar.antares.dto.AuthenticationRequest;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Measures the lookups of {@link AuthenticationService#login} on first logins (cold users cache),
+ * against the baseline recorded with the former pipeline, which loaded the user again by email once
+ * authenticated.
+ *
+ * <p>Reports the SQL statements and Redis commands per login and the latency (BCrypt included, at
+ * the cost of the test profile). Only runs with the {@code load} profile.
+ */
+@Slf4j
+@Tag("load")
+class LoginLookupBenchmarkIT extends BaseIntegrationTest {
+
+  private static final int LOGINS = 100;
+  private static final String PASSWORD = "password123";
+
+  /**
+   * Data access of a first login with the former pipeline: SELECT x2 (user details, then user);
+   * EVALSHA (attempts), GET + SET (users cache), DEL (attempts), ZSCORE (generation), EVALSHA
+   * (refresh token).
+   */
+  private static final double BASELINE_STATEMENTS_PER_LOGIN = 2;
+
+  private static final double BASELINE_COMMANDS_PER_LOGIN = 6;
+
+  @Autowired private AuthenticationService authenticationService;
+  @Autowired private UserRepository userRepository;
+  @Autowired private PasswordEncoder passwordEncoder;
+  @Autowired private DataAccessRecorder dataAccessRecorder;
+
+  private List<User> users = List.of();
+
+  @BeforeEach
+  void createUsers() {
+    String hash = passwordEncoder.encode(PASSWORD);
+    List<User> newUsers = new ArrayList<>();
+    // One more user than logins measured, for the warm-up
+    for (int i = 0; i <= LOGINS; i++) {
+      newUsers.add(
+          User.builder()
+              .firstName("Lookup")
+              .lastName("User")
+              .email("lookup." + UUID.randomUUID() + "@example.com")
+              .password(hash)
+              .role(Role.ROLE_USER)
+              .build());
+    }
+    users = userRepository.saveAll(newUsers);
+  }
+
+  @AfterEach
+  void deleteUsers() {
+    userRepository.deleteAllInBatch(users);
+  }
+
+  @Test
+  @DisplayName("Benchmark: a login should load the user once")
+  void measureLoginLookups() throws Exception {
+    // Given: a first login loads the Lua scripts, so that EVALSHA never falls back to EVAL
+    login(users.getFirst());
+
+    // When: every other user logs in once, each with a cold cache
+    List<User> logins = users.subList(1, users.size());
+    long[] latencies = new long[logins.size()];
+    DataAccessRecorder.Recording recording =
+        dataAccessRecorder.record(
+            () -> {
+              for (int i = 0; i < logins.size(); i++) {
+                long start = System.nanoTime();
+                login(logins.get(i));
+                latencies[i] = System.nanoTime() - start;
+              }
+            });
+
+    // Then
+    double statements = (double) recording.statements().size() / LOGINS;
+    double commands = (double) recording.commands().size() / LOGINS;
+    Arrays.sort(latencies);
+    log.info(
+        """
+
+        Login lookups ({} first logins)
+                      | statements/login | commands/login | p50/p99 (us)
+          baseline    | {} | {} |
+          login()     | {} | {} | {}/{}\
+        """,
+        LOGINS,
+        BASELINE_STATEMENTS_PER_LOGIN,
+        BASELINE_COMMANDS_PER_LOGIN,
+        statements,
+        commands,
+        percentile(latencies, 0.50),
+        percentile(latencies, 0.99));
+
+    assertTrue(statements < BASELINE_STATEMENTS_PER_LOGIN, recording.statements()::toString);
+    assertTrue(commands <= BASELINE_COMMANDS_PER_LOGIN, recording.commands()::toString);
+  }
+
+  private void login(User user) {
+    authenticationService.login(
+        new AuthenticationRequest(user.getEmail(), PASSWORD), new MockHttpServletResponse());
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1_000;
+  }
+}
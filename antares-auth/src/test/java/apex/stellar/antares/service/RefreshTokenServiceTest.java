@@ -2,35 +2,53 @@ package apex.stellar.antares.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import apex.stellar.antares.config.JwtProperties;
-import apex.stellar.antares.model.RefreshToken;
 import apex.stellar.antares.model.User;
-import apex.stellar.antares.repository.RefreshTokenRepository;
+import apex.stellar.antares.repository.RefreshTokenStore;
 import apex.stellar.antares.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
 class RefreshTokenServiceTest {
 
-  @Mock private RefreshTokenRepository refreshTokenRepository;
+  @Mock private RefreshTokenStore refreshTokenStore;
   @Mock private UserRepository userRepository;
   @Mock private JwtProperties jwtProperties;
 
-  @InjectMocks private RefreshTokenService refreshTokenService;
+  private RefreshTokenService refreshTokenService;
+
+  @BeforeEach
+  void setUp() {
+    // 7 jours, avec une période de grâce de 10 secondes
+    when(jwtProperties.refreshToken())
+        .thenReturn(new JwtProperties.RefreshToken(604800000L, "refresh", 10000L));
+    refreshTokenService =
+        new RefreshTokenService(
+            refreshTokenStore, userRepository, jwtProperties, new SimpleMeterRegistry());
+  }
 
   // Helper pour reproduire le hashing afin de vérifier les interactions
   private String hashValue(String value) {
@@ -45,106 +63,225 @@ class RefreshTokenServiceTest {
 
   @Test
   @DisplayName(
-      "createRefreshToken: should delete old token, save new hashed token and return raw token")
-  void createRefreshToken_shouldSaveTokenInRepository() {
+      "createRefreshToken: should issue the hashed token in the store and return raw token")
+  void createRefreshToken_shouldIssueTokenInStore() {
     // Given
     User user = new User();
     user.setId(1L);
 
-    JwtProperties.RefreshToken refreshTokenProps = mock(JwtProperties.RefreshToken.class);
-    when(jwtProperties.refreshToken()).thenReturn(refreshTokenProps);
-    when(refreshTokenProps.expiration()).thenReturn(604800000L); // 7 jours
-
     // When
     String rawToken = refreshTokenService.createRefreshToken(user);
 
     // Then
     assertNotNull(rawToken);
-    String hashedToken = hashValue(rawToken);
+    verify(refreshTokenStore).issue(1L, hashValue(rawToken), Duration.ofDays(7));
+  }
+
+  @Test
+  @DisplayName("rotateRefreshToken: should swap the old hash for the new one and return the user")
+  void rotateRefreshToken_shouldReturnUserAndNewToken() {
+    // Given
+    String rawToken = UUID.randomUUID().toString();
+    User user = new User();
+    user.setId(5L);
 
-    // 1. Vérifie qu'on essaie de supprimer l'ancien token
-    verify(refreshTokenRepository).findByUserId(user.getId());
+    when(refreshTokenStore.rotate(
+            eq(hashValue(rawToken)),
+            any(),
+            any(),
+            eq(Duration.ofDays(7)),
+            eq(Duration.ofSeconds(10))))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, null)));
+    when(userRepository.findById(5L)).thenReturn(Optional.of(user));
 
-    // 2. Capture l'objet sauvegardé pour vérifier ses propriétés
-    ArgumentCaptor<RefreshToken> tokenCaptor = ArgumentCaptor.forClass(RefreshToken.class);
-    verify(refreshTokenRepository).save(tokenCaptor.capture());
+    // When
+    Optional<RefreshTokenService.RotatedRefreshToken> result =
+        refreshTokenService.rotateRefreshToken(rawToken, owner -> "access-token");
 
-    RefreshToken savedToken = tokenCaptor.getValue();
-    assertEquals(hashedToken, savedToken.getId()); // L'ID doit être le hash
-    assertEquals(user.getId(), savedToken.getUserId());
-    assertEquals(604800L, savedToken.getExpiration()); // 7 jours en secondes
+    // Then
+    assertTrue(result.isPresent());
+    assertEquals(user, result.get().user());
+    assertEquals("access-token", result.get().accessToken());
+
+    ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+    verify(refreshTokenStore).rotate(any(), newHash.capture(), any(), any(), any());
+    assertEquals(hashValue(result.get().refreshToken()), newHash.getValue());
   }
 
   @Test
-  @DisplayName("findUserByToken: should return User if token exists in repo")
-  void findUserByToken_shouldReturnUser_whenTokenExists() {
+  @DisplayName("rotateRefreshToken: duplicates on the same node should share the first pair")
+  void rotateRefreshToken_duplicates_shouldShareFirstPair() {
     // Given
-    String rawToken = UUID.randomUUID().toString();
-    String hashedToken = hashValue(rawToken);
-    Long userId = 1L;
-
     User user = new User();
-    user.setId(userId);
+    user.setId(5L);
+    when(refreshTokenStore.rotate(any(), any(), any(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, null)));
+    when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+    when(refreshTokenStore.exists(any())).thenReturn(true);
+    AtomicInteger issued = new AtomicInteger();
 
-    RefreshToken tokenEntity = RefreshToken.builder().id(hashedToken).userId(userId).build();
+    // When
+    RefreshTokenService.RotatedRefreshToken first =
+        refreshTokenService
+            .rotateRefreshToken("raw-token", owner -> "access-" + issued.incrementAndGet())
+            .orElseThrow();
+    RefreshTokenService.RotatedRefreshToken duplicate =
+        refreshTokenService
+            .rotateRefreshToken("raw-token", owner -> "access-" + issued.incrementAndGet())
+            .orElseThrow();
 
-    when(refreshTokenRepository.findById(hashedToken)).thenReturn(Optional.of(tokenEntity));
-    when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    // Then: computed once
+    assertEquals(first, duplicate);
+    assertEquals("access-1", duplicate.accessToken());
+    verify(refreshTokenStore, times(1)).rotate(any(), any(), any(), any(), any());
+    verify(refreshTokenStore).exists(hashValue(first.refreshToken()));
+  }
+
+  @Test
+  @DisplayName(
+      "rotateRefreshToken: a duplicate should wait for the rotation in flight, without blocking"
+          + " the rotations of other tokens")
+  void rotateRefreshToken_concurrentDuplicate_shouldWaitForFirstRotation() throws Exception {
+    // Given: the first rotation of "raw-token" blocks in Redis until released
+    User user = new User();
+    user.setId(5L);
+    CountDownLatch rotating = new CountDownLatch(1);
+    CountDownLatch releaseRotation = new CountDownLatch(1);
+    when(refreshTokenStore.rotate(eq(hashValue("raw-token")), any(), any(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              rotating.countDown();
+              assertTrue(releaseRotation.await(5, TimeUnit.SECONDS));
+              return Optional.of(new RefreshTokenStore.Rotation(5L, null));
+            });
+    when(refreshTokenStore.rotate(eq(hashValue("other-token")), any(), any(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, null)));
+    when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+    when(refreshTokenStore.exists(any())).thenReturn(true);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
 
     // When
-    Optional<User> result = refreshTokenService.findUserByToken(rawToken);
+    Future<Optional<RefreshTokenService.RotatedRefreshToken>> first =
+        executor.submit(() -> refreshTokenService.rotateRefreshToken("raw-token", owner -> "a"));
+    assertTrue(rotating.await(5, TimeUnit.SECONDS));
+    Future<Optional<RefreshTokenService.RotatedRefreshToken>> duplicate =
+        executor.submit(() -> refreshTokenService.rotateRefreshToken("raw-token", owner -> "b"));
+    Optional<RefreshTokenService.RotatedRefreshToken> other =
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(5),
+            () -> refreshTokenService.rotateRefreshToken("other-token", owner -> "c"));
+    releaseRotation.countDown();
 
     // Then
-    assertTrue(result.isPresent());
-    assertEquals(userId, result.get().getId());
+    assertTrue(other.isPresent());
+    assertEquals(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+    assertEquals("a", duplicate.get().orElseThrow().accessToken());
+    verify(refreshTokenStore, times(1))
+        .rotate(eq(hashValue("raw-token")), any(), any(), any(), any());
+    executor.shutdown();
   }
 
   @Test
-  @DisplayName("findUserByToken: should return empty if token not in repo")
-  void findUserByToken_shouldReturnEmpty_whenTokenMissing() {
-    // Given
-    String rawToken = UUID.randomUUID().toString();
-    String hashedToken = hashValue(rawToken);
+  @DisplayName("rotateRefreshToken: duplicates should be rejected once the replacement is revoked")
+  void rotateRefreshToken_duplicateAfterRevocation_shouldBeRejected() {
+    // Given: the first rotation succeeded, then the session was revoked (e.g., logout)
+    User user = new User();
+    user.setId(5L);
+    when(refreshTokenStore.rotate(any(), any(), any(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, null)))
+        .thenReturn(Optional.empty());
+    when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+    RefreshTokenService.RotatedRefreshToken first =
+        refreshTokenService.rotateRefreshToken("raw-token", owner -> "access").orElseThrow();
+    when(refreshTokenStore.exists(hashValue(first.refreshToken()))).thenReturn(false);
+
+    // When
+    Optional<RefreshTokenService.RotatedRefreshToken> duplicate =
+        refreshTokenService.rotateRefreshToken("raw-token", owner -> "access");
+    Optional<RefreshTokenService.RotatedRefreshToken> retry =
+        refreshTokenService.rotateRefreshToken("raw-token", owner -> "access");
+
+    // Then: the cached pair is dropped, and the store rejects the token from then on
+    assertTrue(duplicate.isEmpty());
+    assertTrue(retry.isEmpty());
+    verify(refreshTokenStore, times(2)).rotate(any(), any(), any(), any(), any());
+  }
 
-    when(refreshTokenRepository.findById(hashedToken)).thenReturn(Optional.empty());
+  @Test
+  @DisplayName("rotateRefreshToken: should unseal the replacement issued by another node")
+  void rotateRefreshToken_rotatedElsewhere_shouldUnsealReplacement() {
+    // Given: another node rotated the token, sealing its replacement for the token holders
+    User user = new User();
+    user.setId(5L);
+    ArgumentCaptor<String> sealed = ArgumentCaptor.forClass(String.class);
+    when(refreshTokenStore.rotate(any(), any(), sealed.capture(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, null)));
+    when(userRepository.findById(5L)).thenReturn(Optional.of(user));
+    String otherNodeToken =
+        new RefreshTokenService(
+                refreshTokenStore, userRepository, jwtProperties, new SimpleMeterRegistry())
+            .rotateRefreshToken("raw-token", owner -> "access-token")
+            .orElseThrow()
+            .refreshToken();
+    String sealedToken = sealed.getValue();
+
+    when(refreshTokenStore.rotate(any(), any(), any(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, sealedToken)));
 
     // When
-    Optional<User> result = refreshTokenService.findUserByToken(rawToken);
+    Optional<RefreshTokenService.RotatedRefreshToken> result =
+        refreshTokenService.rotateRefreshToken("raw-token", owner -> "access-token");
 
     // Then
-    assertTrue(result.isEmpty());
-    verifyNoInteractions(userRepository);
+    assertEquals(otherNodeToken, result.orElseThrow().refreshToken());
+    assertFalse(sealedToken.contains(otherNodeToken));
   }
 
   @Test
-  @DisplayName("deleteTokenForUser: should find by userId and delete")
-  void deleteTokenForUser_shouldFindAndDelete() {
+  @DisplayName("rotateRefreshToken: a replacement sealed for another token should be rejected")
+  void rotateRefreshToken_foreignSeal_shouldReturnEmpty() {
     // Given
-    User user = new User();
-    user.setId(10L);
-    RefreshToken existingToken = RefreshToken.builder().id("someHash").userId(10L).build();
+    ArgumentCaptor<String> sealed = ArgumentCaptor.forClass(String.class);
+    when(refreshTokenStore.rotate(any(), any(), sealed.capture(), any(), any()))
+        .thenReturn(Optional.empty());
+    refreshTokenService.rotateRefreshToken("other-token", owner -> "access-token");
+    String sealedToken = sealed.getValue();
+
+    when(refreshTokenStore.rotate(any(), any(), any(), any(), any()))
+        .thenReturn(Optional.of(new RefreshTokenStore.Rotation(5L, sealedToken)));
 
-    when(refreshTokenRepository.findByUserId(10L)).thenReturn(Optional.of(existingToken));
+    // When & Then
+    assertTrue(
+        refreshTokenService.rotateRefreshToken("raw-token", owner -> "access-token").isEmpty());
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  @DisplayName("rotateRefreshToken: should return empty if the token was already used")
+  void rotateRefreshToken_shouldReturnEmpty_whenTokenConsumed() {
+    // Given
+    when(refreshTokenStore.rotate(any(), any(), any(), any(), any())).thenReturn(Optional.empty());
 
     // When
-    refreshTokenService.deleteTokenForUser(user);
+    Optional<RefreshTokenService.RotatedRefreshToken> result =
+        refreshTokenService.rotateRefreshToken("replayed-token", owner -> "access-token");
 
     // Then
-    verify(refreshTokenRepository).delete(existingToken);
+    assertTrue(result.isEmpty());
+    verifyNoInteractions(userRepository);
   }
 
   @Test
-  @DisplayName("deleteTokenForUser: should do nothing if no token found")
-  void deleteTokenForUser_shouldDoNothing_whenEmpty() {
+  @DisplayName("deleteTokenForUser: should revoke the user's session in the store")
+  void deleteTokenForUser_shouldRevoke() {
     // Given
     User user = new User();
-    user.setId(20L);
-    when(refreshTokenRepository.findByUserId(20L)).thenReturn(Optional.empty());
+    user.setId(10L);
 
     // When
     refreshTokenService.deleteTokenForUser(user);
 
     // Then
-    verify(refreshTokenRepository, never()).delete(any());
+    verify(refreshTokenStore).revoke(10L);
   }
 }
@@ -0,0 +1,181 @@
+package apex.stellar.antares.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import apex.stellar.antares.config.JwtProperties;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/** Unit tests for {@link TokenGenerationService}. */
+@ExtendWith(MockitoExtension.class)
+class TokenGenerationServiceTest {
+
+  private static final String GENERATIONS_KEY = "token:generations";
+  private static final long ACCESS_TOKEN_LIFETIME = 900_000L;
+
+  @Mock private StringRedisTemplate redisTemplate;
+  @Mock private ZSetOperations<String, String> zSetOperations;
+  @Mock private JwtProperties jwtProperties;
+
+  @InjectMocks private TokenGenerationService tokenGenerationService;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    lenient()
+        .when(jwtProperties.accessToken())
+        .thenReturn(new JwtProperties.AccessToken(ACCESS_TOKEN_LIFETIME, "access", 0L, null, 0L));
+  }
+
+  @Test
+  @DisplayName("revokeAll: should move the generation forward, apply it locally and publish it")
+  void revokeAll_shouldMoveForwardAndPublish() {
+    // Given
+    long now = System.currentTimeMillis();
+    when(redisTemplate.execute(
+            any(RedisScript.class), eq(List.of(GENERATIONS_KEY)), eq("42"), anyString()))
+        .thenReturn(now);
+
+    // When
+    tokenGenerationService.revokeAll(42L);
+
+    // Then
+    assertEquals(now, tokenGenerationService.currentGeneration(42L));
+    assertTrue(tokenGenerationService.isRevoked(42L, now - 1));
+    assertFalse(tokenGenerationService.isRevoked(42L, now));
+    verify(redisTemplate).convertAndSend(TokenGenerationService.GENERATION_CHANNEL, "42:" + now);
+  }
+
+  @Test
+  @DisplayName("onMessage: should never move a generation backwards")
+  void onMessage_shouldKeepHighestGeneration() {
+    // When: pushes arrive out of order
+    tokenGenerationService.onMessage(message("42:5"), null);
+    tokenGenerationService.onMessage(message("42:4"), null);
+    tokenGenerationService.onMessage(message("not-a-generation"), null);
+
+    // Then
+    assertEquals(5L, tokenGenerationService.currentGeneration(42L));
+    assertEquals(0L, tokenGenerationService.currentGeneration(7L));
+  }
+
+  @Test
+  @DisplayName("generationForIssuance: should read Redis, ahead of a push not received yet")
+  void generationForIssuance_shouldReadRedis() {
+    // Given
+    when(zSetOperations.score(GENERATIONS_KEY, "42")).thenReturn(2.0);
+
+    // When
+    long generation = tokenGenerationService.generationForIssuance(42L);
+
+    // Then
+    assertEquals(2L, generation);
+    assertEquals(2L, tokenGenerationService.currentGeneration(42L));
+  }
+
+  @Test
+  @DisplayName("onChannelSubscribed: should reload the generations missed while unsubscribed")
+  void onChannelSubscribed_shouldReloadGenerations() {
+    // Given: a push was missed while disconnected
+    long now = System.currentTimeMillis();
+    tokenGenerationService.onMessage(message("42:" + (now - 2000)), null);
+    when(zSetOperations.rangeByScoreWithScores(
+            eq(GENERATIONS_KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+        .thenReturn(
+            Set.of(
+                ZSetOperations.TypedTuple.of("42", (double) now),
+                ZSetOperations.TypedTuple.of("7", (double) now - 1000)));
+
+    // When
+    tokenGenerationService.onChannelSubscribed(
+        TokenGenerationService.GENERATION_CHANNEL.getBytes(UTF_8), 1);
+
+    // Then
+    assertEquals(now, tokenGenerationService.currentGeneration(42L));
+    assertEquals(now - 1000, tokenGenerationService.currentGeneration(7L));
+  }
+
+  @Test
+  @DisplayName("loadGenerations: should drop the generations older than the access token lifetime")
+  void loadGenerations_shouldDropExpiredGenerations() {
+    // Given: a revocation every token issued before which has expired, and a recent one
+    long now = System.currentTimeMillis();
+    long expired = now - ACCESS_TOKEN_LIFETIME - Duration.ofMinutes(2).toMillis();
+    tokenGenerationService.onMessage(message("42:" + expired), null);
+    tokenGenerationService.onMessage(message("7:" + now), null);
+    when(zSetOperations.rangeByScoreWithScores(
+            eq(GENERATIONS_KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+        .thenReturn(Set.of(ZSetOperations.TypedTuple.of("7", (double) now)));
+
+    // When
+    tokenGenerationService.loadGenerations();
+
+    // Then: trimmed in Redis and in memory
+    ArgumentCaptor<Double> cutoff = ArgumentCaptor.forClass(Double.class);
+    verify(zSetOperations)
+        .removeRangeByScore(eq(GENERATIONS_KEY), eq(Double.NEGATIVE_INFINITY), cutoff.capture());
+    assertTrue(cutoff.getValue() > expired);
+    assertTrue(cutoff.getValue() <= now - ACCESS_TOKEN_LIFETIME);
+    assertEquals(0L, tokenGenerationService.currentGeneration(42L));
+    assertEquals(now, tokenGenerationService.currentGeneration(7L));
+  }
+
+  @Test
+  @DisplayName("isRevoked: should check the uid and ver claims against the loaded generations")
+  void isRevoked_shouldCompareClaims() {
+    // Given
+    long now = System.currentTimeMillis();
+    when(zSetOperations.rangeByScoreWithScores(
+            eq(GENERATIONS_KEY), anyDouble(), eq(Double.POSITIVE_INFINITY)))
+        .thenReturn(Set.of(ZSetOperations.TypedTuple.of("42", (double) now)));
+    tokenGenerationService.loadGenerations();
+
+    // When & Then
+    assertTrue(tokenGenerationService.isRevoked(jwt(42L, null)));
+    assertTrue(tokenGenerationService.isRevoked(jwt(42L, now - 1)));
+    assertFalse(tokenGenerationService.isRevoked(jwt(42L, now)));
+    assertFalse(tokenGenerationService.isRevoked(jwt(7L, 0L)));
+    assertFalse(tokenGenerationService.isRevoked(jwt(null, null)));
+  }
+
+  private static DefaultMessage message(String body) {
+    return new DefaultMessage(
+        TokenGenerationService.GENERATION_CHANNEL.getBytes(UTF_8), body.getBytes(UTF_8));
+  }
+
+  private static Jwt jwt(Long userId, Long generation) {
+    Jwt.Builder builder =
+        Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("john@example.com")
+            .expiresAt(Instant.now().plusSeconds(60));
+    if (userId != null) {
+      builder.claim(JwtService.USER_ID_CLAIM, userId);
+    }
+    if (generation != null) {
+      builder.claim(JwtService.GENERATION_CLAIM, generation);
+    }
+    return builder.build();
+  }
+}
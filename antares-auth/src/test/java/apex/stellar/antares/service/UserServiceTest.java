@@ -7,8 +7,12 @@ import apex.stellar.antares.dto.ChangePasswordRequest;
 import apex.stellar.antares.dto.ProfileUpdateRequest;
 import apex.stellar.antares.exception.InvalidPasswordException;
 import apex.stellar.antares.mapper.UserMapper;
+import apex.stellar.antares.model.Role;
 import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserPrincipal;
 import apex.stellar.antares.repository.UserRepository;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,6 +20,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 /** Unit tests for the {@link UserService}. */
@@ -25,6 +33,10 @@ class UserServiceTest {
   @Mock private UserRepository userRepository;
   @Mock private PasswordEncoder passwordEncoder;
   @Mock private UserMapper userMapper;
+  @Mock private UserDetailsService userDetailsService;
+  @Mock private UserSnapshotService userSnapshotService;
+  @Mock private TokenGenerationService tokenGenerationService;
+  @Mock private RefreshTokenService refreshTokenService;
 
   @InjectMocks private UserService userService;
 
@@ -40,17 +52,76 @@ class UserServiceTest {
   }
 
   @Test
-  @DisplayName("updateProfile: should call mapper and repository to save changes")
+  @DisplayName("resolveCurrentUser: should return the entity principal without any lookup")
+  void testResolveCurrentUser_withEntityPrincipal_shouldReturnIt() {
+    // Given
+    Authentication authentication =
+        new UsernamePasswordAuthenticationToken(testUser, null, List.of());
+
+    // When
+    Optional<User> result = userService.resolveCurrentUser(authentication);
+
+    // Then
+    assertTrue(result.isPresent());
+    assertSame(testUser, result.get());
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  @DisplayName("resolveCurrentUser: should lazily load the entity for a claims-only principal")
+  void testResolveCurrentUser_withClaimsPrincipal_shouldLoadUser() {
+    // Given
+    UserPrincipal principal = new UserPrincipal(1L, "test@example.com", Role.ROLE_USER, "en");
+    Authentication authentication =
+        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(testUser);
+
+    // When
+    Optional<User> result = userService.resolveCurrentUser(authentication);
+
+    // Then
+    assertTrue(result.isPresent());
+    assertSame(testUser, result.get());
+  }
+
+  @Test
+  @DisplayName("resolveCurrentUser: should return empty when the claims-only user no longer exists")
+  void testResolveCurrentUser_withUnknownClaimsPrincipal_shouldReturnEmpty() {
+    // Given
+    UserPrincipal principal = new UserPrincipal(1L, "gone@example.com", Role.ROLE_USER, "en");
+    Authentication authentication =
+        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    when(userDetailsService.loadUserByUsername("gone@example.com"))
+        .thenThrow(new UsernameNotFoundException("gone"));
+
+    // When
+    Optional<User> result = userService.resolveCurrentUser(authentication);
+
+    // Then
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  @DisplayName("updateProfile: should save changes and write them through to the cache")
   void testUpdateProfile_shouldUpdateAndSaveChanges() {
     // Given
     ProfileUpdateRequest request = new ProfileUpdateRequest("John", "Doe", "john.doe@example.com");
+    doAnswer(
+            invocation -> {
+              testUser.setEmail(request.email());
+              return null;
+            })
+        .when(userMapper)
+        .updateFromProfile(request, testUser);
+    when(userRepository.save(testUser)).thenReturn(testUser);
 
     // When
     userService.updateProfile(testUser, request);
 
-    // Then
+    // Then: the entry of the previous email is replaced
     verify(userMapper).updateFromProfile(request, testUser);
     verify(userRepository).save(testUser);
+    verify(userSnapshotService).writeThrough(testUser, "test@example.com");
   }
 
   @Test
@@ -61,12 +132,18 @@ class UserServiceTest {
         new ChangePasswordRequest("oldPassword", "newPassword", "newPassword");
     when(passwordEncoder.matches("oldPassword", "hashedPassword")).thenReturn(true);
 
+    when(passwordEncoder.encode("newPassword")).thenReturn("newHash");
+    when(userRepository.save(testUser)).thenReturn(testUser);
+
     // When
     userService.changePassword(request, testUser);
 
     // Then
-    verify(passwordEncoder).encode("newPassword");
+    assertEquals("newHash", testUser.getPassword());
     verify(userRepository).save(testUser);
+    verify(userSnapshotService).writeThrough(testUser, "test@example.com");
+    verify(tokenGenerationService).revokeAll(testUser.getId());
+    verify(refreshTokenService).deleteTokenForUser(testUser);
   }
 
   @Test
@@ -82,6 +159,7 @@ class UserServiceTest {
     assertThrows(
         InvalidPasswordException.class, () -> userService.changePassword(request, testUser));
     verify(userRepository, never()).save(any(User.class));
+    verifyNoInteractions(userSnapshotService, tokenGenerationService);
   }
 
   @Test
@@ -96,5 +174,6 @@ class UserServiceTest {
     assertThrows(
         InvalidPasswordException.class, () -> userService.changePassword(request, testUser));
     verify(userRepository, never()).save(any(User.class));
+    verifyNoInteractions(userSnapshotService);
   }
 }
@@ -0,0 +1,126 @@
+package apex.stellar.antares.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import apex.stellar.antares.cache.TwoTierCacheManager;
+import apex.stellar.antares.model.Role;
+import apex.stellar.antares.model.User;
+import apex.stellar.antares.model.UserSnapshot;
+import apex.stellar.antares.repository.UserRepository;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Unit tests for the write-through and refresh loader of {@link UserSnapshotService}. */
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotServiceTest {
+
+  @Mock private UserRepository userRepository;
+  @Mock private MessageSource messageSource;
+
+  private Cache users;
+  private UserSnapshotService userSnapshotService;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("users");
+    users = cacheManager.getCache("users");
+    userSnapshotService = new UserSnapshotService(userRepository, messageSource, cacheManager);
+    user =
+        User.builder()
+            .id(1L)
+            .email("new@example.com")
+            .password("hash")
+            .role(Role.ROLE_USER)
+            .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("writeThrough: outside a transaction, should write immediately")
+  void writeThrough_withoutTransaction_shouldWriteImmediately() {
+    // Given
+    users.put("old@example.com", UserSnapshot.from(user));
+
+    // When
+    userSnapshotService.writeThrough(user, "old@example.com");
+
+    // Then: the new email is cached, the previous one is evicted
+    assertEquals(UserSnapshot.from(user), users.get("new@example.com", UserSnapshot.class));
+    assertNull(users.get("old@example.com"));
+  }
+
+  @Test
+  @DisplayName("writeThrough: within a transaction, should write only after commit")
+  void writeThrough_withTransaction_shouldWriteAfterCommit() {
+    // Given
+    TransactionSynchronizationManager.initSynchronization();
+
+    // When
+    userSnapshotService.writeThrough(user, "new@example.com");
+
+    // Then
+    assertNull(users.get("new@example.com"));
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertEquals(UserSnapshot.from(user), users.get("new@example.com", UserSnapshot.class));
+  }
+
+  @Test
+  @DisplayName("writeThrough: a rolled back transaction should leave the cache untouched")
+  void writeThrough_withRollback_shouldNotWrite() {
+    // Given
+    UserSnapshot committed =
+        UserSnapshot.from(User.builder().id(1L).email("new@example.com").build());
+    users.put("new@example.com", committed);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // When
+    userSnapshotService.writeThrough(user, "new@example.com");
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    // Then
+    assertEquals(committed, users.get("new@example.com", UserSnapshot.class));
+  }
+
+  @Test
+  @DisplayName("registerRefreshLoader: should refresh the users from the database, uncached")
+  void registerRefreshLoader_shouldReadDatabase() {
+    // Given
+    TwoTierCacheManager twoTierCacheManager = mock(TwoTierCacheManager.class);
+    UserSnapshotService service =
+        new UserSnapshotService(userRepository, messageSource, twoTierCacheManager);
+    when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.of(user));
+
+    // When
+    service.registerRefreshLoader();
+
+    // Then
+    ArgumentCaptor<Function<Object, ?>> loader = ArgumentCaptor.captor();
+    verify(twoTierCacheManager).registerRefreshLoader(eq("users"), loader.capture());
+    assertEquals(UserSnapshot.from(user), loader.getValue().apply("new@example.com"));
+    assertNull(loader.getValue().apply("unknown@example.com"));
+  }
+}